@@ -0,0 +1,129 @@
+package com.example.transactionapi.benchmark;
+
+import com.example.transactionapi.model.Category;
+import com.example.transactionapi.service.categorization.KeywordTransactionCategorizer;
+import com.example.transactionapi.service.categorization.TransactionCategorizer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of categorising one transaction with {@link KeywordTransactionCategorizer}
+ * compared with the original loader's scan of every keyword with
+ * {@code String.contains}. Inputs are drawn from a fixed pool so the measured
+ * loop does no allocation of its own. With {@code withMcc=false} the MCC is
+ * dropped and every call goes through keyword matching.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CategorizationBenchmark {
+
+    private static final int POOL_SIZE = 4096;
+
+    private static final String[][] INPUTS = {
+            {"Grocery shopping", "Woolworths", "5411"},
+            {"Coffee with friends", "Vida e Caffe", "5814"},
+            {"Taxi ride", "Uber", "4121"},
+            {"Electricity bill", "Eskom", "4900"},
+            {"Monthly streaming subscription", "Netflix", "7832"},
+            {"Clothing store", "Mr Price", "5651"},
+            {"Pharmacy visit", "Clicks", "5912"},
+            {"Mobile data bundle", "Vodacom", "4814"},
+            {"Flight to Durban", "FlySafair", "4511"},
+            {"Salary", "Employer Ltd", ""},
+            {"Transfer to savings", "Capitec", ""},
+            {"Car repair", "Midas", ""},
+    };
+
+    @Param({"true", "false"})
+    public boolean withMcc;
+
+    private final TransactionCategorizer categorizer = new KeywordTransactionCategorizer();
+    private final LegacyKeywordScan legacy = new LegacyKeywordScan();
+
+    private String[] descriptions;
+    private String[] merchants;
+    private String[] mccs;
+    private int next;
+
+    @Setup
+    public void setup() {
+        SplittableRandom random = new SplittableRandom(42L);
+        descriptions = new String[POOL_SIZE];
+        merchants = new String[POOL_SIZE];
+        mccs = new String[POOL_SIZE];
+        for (int i = 0; i < POOL_SIZE; i++) {
+            String[] input = INPUTS[random.nextInt(INPUTS.length)];
+            // Fresh copies so no call benefits from an identical cached String hash
+            descriptions[i] = new String(input[0]);
+            merchants[i] = new String(input[1]);
+            mccs[i] = withMcc ? new String(input[2]) : "";
+        }
+    }
+
+    @Benchmark
+    public Category keywordAutomaton() {
+        int i = next++ & (POOL_SIZE - 1);
+        return categorizer.categorize(descriptions[i], merchants[i], mccs[i]);
+    }
+
+    @Benchmark
+    public Category legacyContainsScan() {
+        int i = next++ & (POOL_SIZE - 1);
+        return legacy.categorize(descriptions[i], merchants[i], mccs[i]);
+    }
+
+    /** The keyword categoriser as it was in the original DataLoader. */
+    static class LegacyKeywordScan {
+
+        private final Map<String, Category> keywordCategoryMap = new HashMap<>();
+
+        LegacyKeywordScan() {
+            addKeywords(Category.FOOD, Arrays.asList("grocery", "market", "supermarket", "food", "restaurant", "cafe", "coffee"));
+            addKeywords(Category.TRANSPORT, Arrays.asList("uber", "taxi", "bus", "train", "fuel", "gas station", "petrol", "subway", "transport"));
+            addKeywords(Category.UTILITIES, Arrays.asList("electric", "gas", "water", "utility", "power", "energy"));
+            addKeywords(Category.ENTERTAINMENT, Arrays.asList("cinema", "movie", "netflix", "theatre", "concert", "entertainment", "game"));
+            addKeywords(Category.SHOPPING, Arrays.asList("shop", "store", "mall", "clothes", "amazon", "ecommerce", "retail"));
+            addKeywords(Category.HEALTHCARE, Arrays.asList("pharmacy", "doctor", "hospital", "clinic", "medicine", "dentist"));
+            addKeywords(Category.COMMUNICATION, Arrays.asList("phone", "internet", "cell", "mobile", "telecom", "data"));
+            addKeywords(Category.EDUCATION, Arrays.asList("school", "university", "tuition", "course", "college", "education"));
+            addKeywords(Category.TRAVEL, Arrays.asList("flight", "airline", "hotel", "travel", "air", "booking", "airbnb"));
+            addKeywords(Category.INCOME, Arrays.asList("salary", "payroll", "deposit", "income", "bonus"));
+        }
+
+        private void addKeywords(Category category, List<String> keywords) {
+            for (String k : keywords) {
+                keywordCategoryMap.put(k.toLowerCase(), category);
+            }
+        }
+
+        Category categorize(String description, String merchant, String mcc) {
+            String combined = (description + " " + merchant + " " + mcc).toLowerCase();
+            for (Map.Entry<String, Category> entry : keywordCategoryMap.entrySet()) {
+                if (combined.contains(entry.getKey())) {
+                    return entry.getValue();
+                }
+            }
+            return Category.OTHER;
+        }
+    }
+}
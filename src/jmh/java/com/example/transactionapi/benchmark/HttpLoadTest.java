@@ -0,0 +1,185 @@
+package com.example.transactionapi.benchmark;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Closed-loop HTTP load test against a running instance, used to compare the
+ * platform-thread and virtual-thread request execution modes. Each of
+ * {@code concurrency} clients sends its next request as soon as the previous
+ * one completes, for {@code seconds} after a warm-up whose samples are
+ * discarded. Scenarios:
+ * <ul>
+ *   <li>{@code summary}: overall summaries for random date ranges, so most
+ *   requests miss the summary cache and run an aggregation in JDBC;</li>
+ *   <li>{@code login}: password logins, dominated by BCrypt;</li>
+ *   <li>{@code mixed}: 95% summary, 5% login.</li>
+ * </ul>
+ * Prints throughput and latency percentiles for the measured window:
+ * <pre>
+ * java -cp target/test-classes com.example.transactionapi.benchmark.HttpLoadTest http://localhost:8080 200 60 mixed
+ * </pre>
+ */
+public final class HttpLoadTest {
+
+    private static final Pattern TOKEN = Pattern.compile("\"token\"\\s*:\\s*\"([^\"]+)\"");
+    private static final LocalDate FIRST_DAY = LocalDate.of(2024, 1, 1);
+    private static final int DAYS = 2 * 365;
+    private static final String PASSWORD = "load-test-password";
+
+    private final HttpClient client;
+    private final URI base;
+    private final String scenario;
+    private final String credentials;
+    private final String token;
+
+    private HttpLoadTest(URI base, String scenario) throws IOException, InterruptedException {
+        this.client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(10))
+                .build();
+        this.base = base;
+        this.scenario = scenario;
+        String username = "loadtest-" + System.nanoTime();
+        this.credentials = "{\"username\":\"" + username + "\",\"password\":\"" + PASSWORD + "\"}";
+        String register = "{\"username\":\"" + username + "\",\"password\":\"" + PASSWORD + "\",\"role\":\"ROLE_ADMIN\"}";
+        HttpResponse<String> response = client.send(post("/api/v1/auth/register", register), HttpResponse.BodyHandlers.ofString());
+        Matcher matcher = TOKEN.matcher(response.body());
+        if (response.statusCode() != 200 || !matcher.find()) {
+            throw new IllegalStateException("Registration failed: " + response.statusCode() + " " + response.body());
+        }
+        this.token = matcher.group(1);
+    }
+
+    public static void main(String[] args) throws Exception {
+        if (args.length < 3) {
+            System.err.println("usage: HttpLoadTest <base-url> <concurrency> <seconds> [summary|login|mixed] [warmup-seconds]");
+            System.exit(1);
+        }
+        URI base = URI.create(args[0]);
+        int concurrency = Integer.parseInt(args[1]);
+        int seconds = Integer.parseInt(args[2]);
+        String scenario = args.length > 3 ? args[3] : "mixed";
+        int warmupSeconds = args.length > 4 ? Integer.parseInt(args[4]) : Math.max(1, seconds / 5);
+        if (!scenario.equals("summary") && !scenario.equals("login") && !scenario.equals("mixed")) {
+            throw new IllegalArgumentException("Unknown scenario " + scenario);
+        }
+        new HttpLoadTest(base, scenario).run(concurrency, warmupSeconds, seconds);
+    }
+
+    private void run(int concurrency, int warmupSeconds, int seconds) throws InterruptedException {
+        long measureFrom = System.nanoTime() + TimeUnit.SECONDS.toNanos(warmupSeconds);
+        long measureTo = measureFrom + TimeUnit.SECONDS.toNanos(seconds);
+        Client[] clients = new Client[concurrency];
+        Thread[] threads = new Thread[concurrency];
+        for (int i = 0; i < concurrency; i++) {
+            clients[i] = new Client(new SplittableRandom(i), measureFrom, measureTo);
+            threads[i] = new Thread(clients[i], "load-" + i);
+            threads[i].start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        long[] all = new long[Arrays.stream(clients).mapToInt(c -> c.count).sum()];
+        long errors = 0;
+        int offset = 0;
+        for (Client c : clients) {
+            System.arraycopy(c.latencies, 0, all, offset, c.count);
+            offset += c.count;
+            errors += c.errors;
+        }
+        Arrays.sort(all);
+        System.out.printf("scenario=%s concurrency=%d requests=%d errors=%d throughput=%.1f req/s "
+                        + "p50=%.2f ms p90=%.2f ms p99=%.2f ms max=%.2f ms%n",
+                scenario, concurrency, all.length, errors, all.length / (double) seconds,
+                millis(percentile(all, 0.50)), millis(percentile(all, 0.90)),
+                millis(percentile(all, 0.99)), millis(all.length > 0 ? all[all.length - 1] : 0));
+    }
+
+    private HttpRequest next(SplittableRandom random) {
+        boolean login = scenario.equals("login") || (scenario.equals("mixed") && random.nextInt(100) < 5);
+        if (login) {
+            return post("/api/v1/auth/login", credentials);
+        }
+        LocalDate from = FIRST_DAY.plusDays(random.nextInt(DAYS));
+        LocalDate to = from.plusDays(1 + random.nextInt(365));
+        return HttpRequest.newBuilder(base.resolve("/api/v1/summary/overall?from=" + from + "&to=" + to))
+                .header("Authorization", "Bearer " + token)
+                .timeout(Duration.ofSeconds(60))
+                .GET()
+                .build();
+    }
+
+    private HttpRequest post(String path, String json) {
+        return HttpRequest.newBuilder(base.resolve(path))
+                .header("Content-Type", "application/json")
+                .timeout(Duration.ofSeconds(60))
+                .POST(HttpRequest.BodyPublishers.ofString(json))
+                .build();
+    }
+
+    private static long percentile(long[] sorted, double p) {
+        if (sorted.length == 0) {
+            return 0;
+        }
+        return sorted[Math.max(0, (int) Math.ceil(p * sorted.length) - 1)];
+    }
+
+    private static double millis(long nanos) {
+        return nanos / 1_000_000.0;
+    }
+
+    /** One closed-loop client recording latencies that start inside the measured window. */
+    private final class Client implements Runnable {
+        private final SplittableRandom random;
+        private final long measureFrom;
+        private final long measureTo;
+        private long[] latencies = new long[1024];
+        private int count;
+        private long errors;
+
+        private Client(SplittableRandom random, long measureFrom, long measureTo) {
+            this.random = random;
+            this.measureFrom = measureFrom;
+            this.measureTo = measureTo;
+        }
+
+        @Override
+        public void run() {
+            long start;
+            while ((start = System.nanoTime()) < measureTo) {
+                boolean failed;
+                try {
+                    failed = client.send(next(random), HttpResponse.BodyHandlers.discarding()).statusCode() >= 400;
+                } catch (IOException e) {
+                    failed = true;
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+                long elapsed = System.nanoTime() - start;
+                if (start < measureFrom) {
+                    continue;
+                }
+                if (failed) {
+                    errors++;
+                }
+                if (count == latencies.length) {
+                    latencies = Arrays.copyOf(latencies, count * 2);
+                }
+                latencies[count++] = elapsed;
+            }
+        }
+    }
+}
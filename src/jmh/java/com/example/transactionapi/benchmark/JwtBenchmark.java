@@ -0,0 +1,93 @@
+package com.example.transactionapi.benchmark;
+
+import com.example.transactionapi.model.AppUser;
+import com.example.transactionapi.model.Role;
+import com.example.transactionapi.service.jwt.JwtService;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtParser;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.io.Decoders;
+import io.jsonwebtoken.security.Keys;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of authenticating one request from its bearer token:
+ * <ul>
+ *     <li>{@code perRequestKeyAndParser} – the original behaviour, decoding the
+ *     key and building a parser on every call;</li>
+ *     <li>{@code prebuiltParser} – a full HMAC verification with the parser
+ *     built once;</li>
+ *     <li>{@code cachedClaims} – {@link JwtService#extractAllClaims(String)}
+ *     for a token already seen, plus building the principal from claims;</li>
+ *     <li>{@code validateCached} – {@link JwtService#isTokenValid(String, org.springframework.security.core.userdetails.UserDetails)}
+ *     for a token already seen.</li>
+ * </ul>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JwtBenchmark {
+
+    private static final String SECRET = "VGhpcy1pcy1hLXN1cGVyLXNlY3JldC1rZXktZm9yLXRlc3RpbmctdXNlLW9ubHkhISE=";
+
+    private JwtService jwtService;
+    private JwtParser parser;
+    private AppUser user;
+    private String token;
+
+    @Setup
+    public void setup() {
+        jwtService = new JwtService();
+        ReflectionTestUtils.setField(jwtService, "jwtSecret", SECRET);
+        ReflectionTestUtils.setField(jwtService, "jwtExpirationMillis", 86_400_000L);
+        ReflectionTestUtils.setField(jwtService, "claimsCacheMaxSize", 10_000L);
+        ReflectionTestUtils.invokeMethod(jwtService, "init");
+        parser = Jwts.parserBuilder().setSigningKey(Keys.hmacShaKeyFor(Decoders.BASE64.decode(SECRET))).build();
+        user = AppUser.builder()
+                .id(1L)
+                .username("benchmark")
+                .password("")
+                .role(Role.ROLE_USER)
+                .build();
+        token = jwtService.generateToken(user);
+    }
+
+    @Benchmark
+    public Claims perRequestKeyAndParser() {
+        return Jwts.parserBuilder()
+                .setSigningKey(Keys.hmacShaKeyFor(Decoders.BASE64.decode(SECRET)))
+                .build()
+                .parseClaimsJws(token)
+                .getBody();
+    }
+
+    @Benchmark
+    public Claims prebuiltParser() {
+        return parser.parseClaimsJws(token).getBody();
+    }
+
+    @Benchmark
+    public AppUser cachedClaims() {
+        return jwtService.toPrincipal(jwtService.extractAllClaims(token));
+    }
+
+    @Benchmark
+    public boolean validateCached() {
+        return jwtService.isTokenValid(token, user);
+    }
+}
@@ -0,0 +1,110 @@
+package com.example.transactionapi.benchmark;
+
+import com.example.transactionapi.model.Category;
+import com.example.transactionapi.model.Customer;
+import com.example.transactionapi.model.Money;
+import com.example.transactionapi.model.Transaction;
+import com.example.transactionapi.service.analytics.ColumnarSpendAnalytics;
+import com.example.transactionapi.web.dto.CategoryBreakdownEntry;
+import com.example.transactionapi.web.dto.TopCategory;
+import com.example.transactionapi.web.dto.TopSpender;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Scaling of the cross-customer aggregations in the columnar engine with the
+ * number of fork-join workers. The engine is fed synthetic transactions
+ * directly (no database), so the figures isolate the scan and merge cost.
+ * Compare scores across {@code parallelism} for the same {@code rows}; on a
+ * machine with fewer cores than a parameter value the extra workers only add
+ * overhead.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class ParallelAggregationBenchmark {
+
+    private static final int BATCH = 10_000;
+    private static final LocalDate MONTH_START = LocalDate.of(2024, 6, 1);
+    private static final LocalDate MONTH_END = LocalDate.of(2024, 6, 30);
+
+    @Param({"1000000", "10000000"})
+    public int rows;
+
+    @Param({"1", "2", "4", "8", "16"})
+    public int parallelism;
+
+    private ColumnarSpendAnalytics analytics;
+
+    @Setup(Level.Trial)
+    public void load() {
+        analytics = new ColumnarSpendAnalytics(null, parallelism, 0);
+        SplittableRandom random = new SplittableRandom(42L);
+        Category[] categories = Category.values();
+        Customer[] customers = new Customer[Math.max(1, rows / 100)];
+        for (int i = 0; i < customers.length; i++) {
+            customers[i] = Customer.builder().id((long) i + 1).build();
+        }
+        LocalDateTime start = LocalDateTime.of(2024, 1, 1, 0, 0);
+        List<Transaction> batch = new ArrayList<>(BATCH);
+        for (int i = 0; i < rows; i++) {
+            batch.add(Transaction.builder()
+                    .timestamp(start.plusSeconds(random.nextInt(2 * 365 * 24 * 3600)))
+                    .amount(Money.ofCents(100 + random.nextLong(500_000)))
+                    .category(categories[random.nextInt(categories.length)])
+                    .customer(customers[random.nextInt(customers.length)])
+                    .build());
+            if (batch.size() == BATCH) {
+                analytics.onBatchWritten(batch);
+                batch.clear();
+            }
+        }
+        analytics.onBatchWritten(batch);
+    }
+
+    @TearDown(Level.Trial)
+    public void shutdown() {
+        analytics.shutdown();
+    }
+
+    @Benchmark
+    public List<CategoryBreakdownEntry> overallSummaryAllTime() {
+        return analytics.totalsByCategory(null, null, null);
+    }
+
+    @Benchmark
+    public List<CategoryBreakdownEntry> overallSummaryOneMonth() {
+        return analytics.totalsByCategory(null, MONTH_START, MONTH_END);
+    }
+
+    @Benchmark
+    public List<TopCategory> topCategoriesAllTime() {
+        return analytics.topCategories(null, 5, null, null);
+    }
+
+    @Benchmark
+    public List<TopSpender> topTenSpendersAllTime() {
+        return analytics.topSpenders(10, null, null);
+    }
+}
@@ -0,0 +1,127 @@
+package com.example.transactionapi.benchmark;
+
+import com.example.transactionapi.TransactionApiApplication;
+import com.example.transactionapi.model.Customer;
+import com.example.transactionapi.repository.CustomerRepository;
+import com.example.transactionapi.service.TransactionService;
+import com.example.transactionapi.web.dto.CustomerSummary;
+import com.example.transactionapi.web.dto.OverallSummary;
+import com.example.transactionapi.web.dto.TopCategory;
+import com.example.transactionapi.web.dto.TopSpender;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Latency of the summary and ranking queries behind the REST endpoints, run
+ * against the full application context after ingesting a synthetic file of
+ * {@code rows} transactions through the normal startup pipeline. Customers are
+ * picked at random per call so per-customer queries do not hit one hot
+ * bucket. Each query runs against both analytics engines. The 10M row case
+ * needs a large heap for the in-memory database.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx8g")
+public class SummaryQueryBenchmark {
+
+    private static final LocalDate MONTH_START = LocalDate.of(2024, 6, 1);
+    private static final LocalDate MONTH_END = LocalDate.of(2024, 6, 30);
+
+    @Param({"10000", "1000000", "10000000"})
+    public long rows;
+
+    /** Value for {@code analytics.engine}. */
+    @Param({"jpa", "columnar"})
+    public String engine;
+
+    private Path file;
+    private ConfigurableApplicationContext context;
+    private TransactionService transactionService;
+    private long[] customerIds;
+    private SplittableRandom random;
+
+    @Setup(Level.Trial)
+    public void start() throws IOException {
+        file = Files.createTempFile("transactions-" + rows + "-", ".csv");
+        SyntheticTransactions.write(file, rows, 42L);
+        random = new SplittableRandom(7L);
+        context = new SpringApplicationBuilder(TransactionApiApplication.class)
+                .properties(
+                        // The security configuration needs a servlet context, so start on a random port
+                        "server.port=0",
+                        "ingest.csv-location=file:" + file.toAbsolutePath(),
+                        "analytics.engine=" + engine,
+                        "spring.datasource.url=jdbc:h2:mem:benchmark;DB_CLOSE_DELAY=-1;DB_CLOSE_ON_EXIT=FALSE",
+                        "logging.level.root=WARN",
+                        "logging.level.com.example.transactionapi=INFO")
+                .run();
+        transactionService = context.getBean(TransactionService.class);
+        customerIds = context.getBean(CustomerRepository.class).findAll().stream()
+                .mapToLong(Customer::getId)
+                .toArray();
+    }
+
+    @TearDown(Level.Trial)
+    public void stop() throws IOException {
+        context.close();
+        Files.deleteIfExists(file);
+    }
+
+    private long randomCustomer() {
+        return customerIds[random.nextInt(customerIds.length)];
+    }
+
+    @Benchmark
+    public CustomerSummary customerSummaryAllTime() {
+        return transactionService.getCustomerSummary(randomCustomer(), null, null);
+    }
+
+    @Benchmark
+    public CustomerSummary customerSummaryOneMonth() {
+        return transactionService.getCustomerSummary(randomCustomer(), MONTH_START, MONTH_END);
+    }
+
+    @Benchmark
+    public OverallSummary overallSummaryAllTime() {
+        return transactionService.getOverallSummary(null, null);
+    }
+
+    @Benchmark
+    public OverallSummary overallSummaryOneMonth() {
+        return transactionService.getOverallSummary(MONTH_START, MONTH_END);
+    }
+
+    @Benchmark
+    public List<TopSpender> topTenSpendersAllTime() {
+        return transactionService.getTopSpenders(10, null, null);
+    }
+
+    @Benchmark
+    public List<TopCategory> topCategoriesOneMonth() {
+        return transactionService.getTopCategoriesOverall(5, MONTH_START, MONTH_END);
+    }
+}
@@ -0,0 +1,123 @@
+package com.example.transactionapi.benchmark;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.SplittableRandom;
+
+/**
+ * Generates synthetic transaction CSV files with the same columns as
+ * {@code data/transactions.csv}. Output is deterministic for a given seed, so
+ * benchmark runs on different machines see the same data. About one customer
+ * is created per hundred transactions, timestamps are spread over two years and
+ * most rows leave the category blank so that categorisation runs on ingest.
+ * <p>
+ * Run from the command line to produce a file the application can load via
+ * {@code ingest.csv-location=file:/path/to/file.csv}:
+ * <pre>
+ * java -cp target/test-classes com.example.transactionapi.benchmark.SyntheticTransactions out.csv 10000000
+ * </pre>
+ */
+public final class SyntheticTransactions {
+
+    public static final String HEADER = "externalId,customerName,customerEmail,timestamp,description,merchant,mcc,amount,category";
+
+    private static final DateTimeFormatter TIMESTAMP_FORMATTER = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+    private static final LocalDateTime START = LocalDateTime.of(2024, 1, 1, 0, 0);
+    private static final int SPAN_SECONDS = 2 * 365 * 24 * 60 * 60;
+
+    /** description, merchant, mcc and the category column written for the row (may be blank). */
+    private static final String[][] TEMPLATES = {
+            {"Grocery shopping", "Woolworths", "5411", "FOOD"},
+            {"Weekly groceries", "Pick n Pay", "5411", ""},
+            {"Coffee with friends", "Vida e Caffe", "5814", ""},
+            {"Taxi ride", "Uber", "4121", ""},
+            {"Fuel top-up", "Engen", "5541", ""},
+            {"Electricity bill", "Eskom", "4900", "UTILITIES"},
+            {"Water and rates", "City of Cape Town", "", ""},
+            {"Movie night", "Netflix", "7832", ""},
+            {"Concert tickets", "Computicket", "", ""},
+            {"Clothing store", "Mr Price", "5651", ""},
+            {"Online order, electronics", "Takealot", "", ""},
+            {"Pharmacy visit", "Clicks", "5912", ""},
+            {"Dentist appointment", "Smile Clinic", "8021", "HEALTHCARE"},
+            {"Mobile data bundle", "Vodacom", "4814", ""},
+            {"University tuition", "UCT", "8220", ""},
+            {"Flight to Durban", "FlySafair", "4511", ""},
+            {"Hotel stay", "Protea Hotels", "7011", ""},
+            {"Salary", "Employer Ltd", "", "INCOME"},
+            {"Transfer to savings", "Capitec", "", ""},
+            {"Car repair", "Midas", "", ""},
+    };
+
+    private SyntheticTransactions() {
+    }
+
+    /**
+     * Writes {@code rows} transactions to {@code file}, replacing any existing
+     * file.
+     */
+    public static void write(Path file, long rows, long seed) throws IOException {
+        try (Writer out = new BufferedWriter(Files.newBufferedWriter(file, StandardCharsets.UTF_8), 1 << 16)) {
+            write(out, rows, seed);
+        }
+    }
+
+    public static void write(Writer out, long rows, long seed) throws IOException {
+        SplittableRandom random = new SplittableRandom(seed);
+        long customers = Math.max(1, rows / 100);
+        out.write(HEADER);
+        out.write('\n');
+        StringBuilder line = new StringBuilder(160);
+        for (long i = 1; i <= rows; i++) {
+            long customer = random.nextLong(customers) + 1;
+            String[] template = TEMPLATES[random.nextInt(TEMPLATES.length)];
+            LocalDateTime timestamp = START.plusSeconds(random.nextInt(SPAN_SECONDS));
+            long cents = 100 + random.nextLong(500_000);
+
+            line.setLength(0);
+            line.append("TXN").append(i).append(',')
+                    .append("Customer ").append(customer).append(',')
+                    .append("customer").append(customer).append("@example.com").append(',')
+                    .append(TIMESTAMP_FORMATTER.format(timestamp)).append(',');
+            appendField(line, template[0]).append(',');
+            appendField(line, template[1]).append(',')
+                    .append(template[2]).append(',')
+                    .append(cents / 100).append('.');
+            long fraction = cents % 100;
+            if (fraction < 10) {
+                line.append('0');
+            }
+            line.append(fraction).append(',')
+                    .append(template[3]).append('\n');
+            out.append(line);
+        }
+    }
+
+    private static StringBuilder appendField(StringBuilder line, String value) {
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0) {
+            return line.append(value);
+        }
+        return line.append('"').append(value.replace("\"", "\"\"")).append('"');
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 2) {
+            System.err.println("Usage: SyntheticTransactions <output.csv> <rows> [seed]");
+            System.exit(1);
+        }
+        long rows = Long.parseLong(args[1]);
+        long seed = args.length > 2 ? Long.parseLong(args[2]) : 42L;
+        Path file = Paths.get(args[0]);
+        long start = System.nanoTime();
+        write(file, rows, seed);
+        System.out.printf("Wrote %d transactions to %s in %d ms%n", rows, file.toAbsolutePath(),
+                (System.nanoTime() - start) / 1_000_000);
+    }
+}
@@ -2,9 +2,17 @@ package com.example.transactionapi.config;
 
 import com.example.transactionapi.model.Category;
 import com.example.transactionapi.model.Customer;
+import com.example.transactionapi.model.IngestCheckpoint;
+import com.example.transactionapi.model.Money;
 import com.example.transactionapi.model.Transaction;
 import com.example.transactionapi.repository.CustomerRepository;
+import com.example.transactionapi.repository.IngestCheckpointRepository;
 import com.example.transactionapi.repository.TransactionRepository;
+import com.example.transactionapi.service.categorization.TransactionCategorizer;
+import com.example.transactionapi.service.ingest.IngestionPipeline;
+import com.example.transactionapi.service.ingest.TransactionCsvReader;
+import com.example.transactionapi.service.snapshot.DatasetSnapshotService;
+import io.micrometer.core.instrument.MeterRegistry;
 import jakarta.annotation.PostConstruct;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -12,22 +20,45 @@ import org.springframework.beans.factory.annotation.Value;
 import org.springframework.core.io.Resource;
 import org.springframework.stereotype.Component;
 
-import java.io.BufferedReader;
 import java.io.IOException;
-import java.io.InputStreamReader;
-import java.math.BigDecimal;
-import java.nio.charset.StandardCharsets;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.DateTimeException;
 import java.time.LocalDateTime;
-import java.time.format.DateTimeFormatter;
-import java.util.*;
+import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.Map;
 
 /**
  * Loads transaction data from a CSV file on application startup. The CSV file
  * should be located in the classpath and contain records with columns:
  * externalId,customerName,customerEmail,timestamp,description,merchant,mcc,amount,category
  * where category is optional. Customers will be created on the fly if not
- * already present. The loader performs a simple keyword-based categorization
- * when the CSV does not provide a category.
+ * already present. When the CSV does not provide a category the loader
+ * delegates to the configured {@link TransactionCategorizer}. Rows are parsed by
+ * {@link TransactionCsvReader} and are handed to the
+ * {@link IngestionPipeline}, which writes them in JDBC batches on parallel
+ * workers. Skipped rows are counted as {@code ingest.rows.rejected} with
+ * {@code source=csv} and the reason.
+ * <p>
+ * Progress is recorded in an {@link IngestCheckpoint} keyed by the resource
+ * description, so a restart against a persistent database does not reload
+ * the file: an unchanged file (same SHA-256) is skipped, a file that has only
+ * been appended to is loaded from the first new record, and a load that was
+ * interrupted is replayed with already stored externalIds filtered out. A
+ * file whose checkpointed record no longer matches has been rewritten and
+ * cannot be reconciled, so startup fails rather than load duplicates.
+ * <p>
+ * With {@code snapshot.restore-on-startup}, an empty database is first
+ * restored from the binary snapshot at {@code snapshot.location}. The
+ * snapshot carries the checkpoints as of its export, so the CSV step then only
+ * loads what was appended since. A restore that was interrupted is started
+ * over; without a snapshot to restart from, startup fails.
  */
 @Component
 @RequiredArgsConstructor
@@ -36,128 +67,179 @@ public class DataLoader {
 
     private final CustomerRepository customerRepository;
     private final TransactionRepository transactionRepository;
+    private final IngestionPipeline ingestionPipeline;
+    private final TransactionCategorizer categorizer;
+    private final MeterRegistry meterRegistry;
+    private final IngestCheckpointRepository checkpointRepository;
+    private final DatasetSnapshotService snapshotService;
 
-    @Value("classpath:data/transactions.csv")
+    @Value("${ingest.csv-location:classpath:data/transactions.csv}")
     private Resource transactionsCsv;
 
-    private static final DateTimeFormatter TIMESTAMP_FORMATTER = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+    @Value("${snapshot.location:./data/transactions.snapshot}")
+    private Path snapshotLocation;
 
-    private final Map<String, Category> keywordCategoryMap = new HashMap<>();
+    @Value("${snapshot.restore-on-startup:false}")
+    private boolean restoreOnStartup;
 
     @PostConstruct
     public void loadData() throws IOException {
-        initializeKeywordMap();
-        Map<String, Customer> customerCache = new HashMap<>();
-        try (BufferedReader reader = new BufferedReader(new InputStreamReader(transactionsCsv.getInputStream(), StandardCharsets.UTF_8))) {
-            String header = reader.readLine(); // Skip header line
-            String line;
-            while ((line = reader.readLine()) != null) {
-                if (line.trim().isEmpty()) continue;
-                String[] parts = line.split(",", -1);
-                if (parts.length < 8) {
-                    log.warn("Skipping invalid line: {}", line);
-                    continue;
-                }
-                String externalId = parts[0].trim();
-                String customerName = parts[1].trim();
-                String customerEmail = parts[2].trim();
-                String timestampStr = parts[3].trim();
-                String description = parts[4].trim();
-                String merchant = parts[5].trim();
-                String mcc = parts[6].trim();
-                String amountStr = parts[7].trim();
-                String categoryStr = parts.length > 8 ? parts[8].trim() : "";
-
-                Customer customer = customerCache.get(customerEmail);
-                if (customer == null) {
-                    customer = Customer.builder()
-                            .name(customerName)
-                            .email(customerEmail)
-                            .build();
-                    customer = customerRepository.save(customer);
-                    customerCache.put(customerEmail, customer);
-                }
-
-                LocalDateTime timestamp;
-                try {
-                    timestamp = LocalDateTime.parse(timestampStr, TIMESTAMP_FORMATTER);
-                } catch (Exception e) {
-                    log.warn("Invalid timestamp '{}', skipping", timestampStr);
-                    continue;
-                }
+        boolean interrupted = snapshotService.isRestoreInterrupted();
+        if (restoreOnStartup && Files.exists(snapshotLocation) && (interrupted || transactionRepository.count() == 0)) {
+            snapshotService.restore(snapshotLocation);
+        } else if (interrupted) {
+            throw new IllegalStateException("A snapshot restore was interrupted and left partial data; restart with "
+                    + "snapshot.restore-on-startup=true and the snapshot in place, or remove the database");
+        }
+        String source = transactionsCsv.getDescription();
+        String contentHash = sha256(transactionsCsv);
+        IngestCheckpoint checkpoint = checkpointRepository.findById(source).orElse(null);
+        if (checkpoint != null && checkpoint.isComplete() && checkpoint.getContentHash().equals(contentHash)) {
+            log.info("{} unchanged since last load ({} records), skipping", source, checkpoint.getRecordsRead());
+            return;
+        }
+        boolean resume = checkpoint != null && checkpoint.isComplete();
+        boolean skipExisting = checkpoint != null && !checkpoint.isComplete();
+        if (skipExisting) {
+            log.info("Previous load of {} was interrupted, reloading without duplicates", source);
+        }
 
-                BigDecimal amount;
-                try {
-                    amount = new BigDecimal(amountStr);
-                } catch (NumberFormatException e) {
-                    log.warn("Invalid amount '{}', skipping", amountStr);
-                    continue;
-                }
+        long recordsRead = resume ? checkpoint.getRecordsRead() : 0;
+        String lastExternalId = resume ? checkpoint.getLastExternalId() : null;
+        checkpointRepository.save(checkpoint(source, contentHash, recordsRead, lastExternalId, false));
 
-                Category category;
-                if (!categoryStr.isEmpty()) {
-                    try {
-                        category = Category.valueOf(categoryStr.toUpperCase());
-                    } catch (IllegalArgumentException ex) {
-                        category = categorize(description, merchant, mcc);
+        Map<String, Customer> customerCache = new HashMap<>();
+        for (Customer customer : customerRepository.findAll()) {
+            customerCache.put(customer.getEmail(), customer);
+        }
+        String[] last = {lastExternalId};
+        long[] lastRecord = {recordsRead};
+        try (TransactionCsvReader reader = TransactionCsvReader.open(transactionsCsv)) {
+            if (resume) {
+                skipTo(reader, checkpoint);
+                log.info("{} has grown since last load, resuming after record {}", source, recordsRead);
+            }
+            ingestionPipeline.run(sink -> {
+                while (reader.next()) {
+                    last[0] = reader.getString(TransactionCsvReader.EXTERNAL_ID);
+                    lastRecord[0] = reader.recordNumber();
+                    Transaction transaction = toTransaction(reader, customerCache);
+                    if (transaction != null) {
+                        sink.accept(transaction);
                     }
-                } else {
-                    category = categorize(description, merchant, mcc);
                 }
-
-                Transaction transaction = Transaction.builder()
-                        .externalId(externalId)
-                        .timestamp(timestamp)
-                        .description(description)
-                        .merchant(merchant)
-                        .merchantCategoryCode(mcc)
-                        .amount(amount)
-                        .category(category)
-                        .customer(customer)
-                        .build();
-                transactionRepository.save(transaction);
-            }
+            }, skipExisting);
         }
+        checkpointRepository.save(checkpoint(source, contentHash, lastRecord[0], last[0], true));
         log.info("Data loading complete: {} customers, {} transactions", customerRepository.count(), transactionRepository.count());
     }
 
-    private void initializeKeywordMap() {
-        // Map keywords to categories. Keys are lower-case.
-        // Food / Groceries
-        addKeywords(Category.FOOD, Arrays.asList("grocery", "market", "supermarket", "food", "restaurant", "cafe", "coffee"));
-        // Transport
-        addKeywords(Category.TRANSPORT, Arrays.asList("uber", "taxi", "bus", "train", "fuel", "gas station", "petrol", "subway", "transport"));
-        // Utilities
-        addKeywords(Category.UTILITIES, Arrays.asList("electric", "gas", "water", "utility", "power", "energy"));
-        // Entertainment
-        addKeywords(Category.ENTERTAINMENT, Arrays.asList("cinema", "movie", "netflix", "theatre", "concert", "entertainment", "game"));
-        // Shopping
-        addKeywords(Category.SHOPPING, Arrays.asList("shop", "store", "mall", "clothes", "amazon", "ecommerce", "retail"));
-        // Healthcare
-        addKeywords(Category.HEALTHCARE, Arrays.asList("pharmacy", "doctor", "hospital", "clinic", "medicine", "dentist"));
-        // Communication
-        addKeywords(Category.COMMUNICATION, Arrays.asList("phone", "internet", "cell", "mobile", "telecom", "data"));
-        // Education
-        addKeywords(Category.EDUCATION, Arrays.asList("school", "university", "tuition", "course", "college", "education"));
-        // Travel
-        addKeywords(Category.TRAVEL, Arrays.asList("flight", "airline", "hotel", "travel", "air", "booking", "airbnb"));
-        // Income
-        addKeywords(Category.INCOME, Arrays.asList("salary", "payroll", "deposit", "income", "bonus"));
+    /**
+     * Advances the reader past the records covered by a complete checkpoint,
+     * checking that the last of them is still the record that was loaded.
+     *
+     * @throws IllegalStateException if the file was rewritten rather than appended to
+     */
+    private void skipTo(TransactionCsvReader reader, IngestCheckpoint checkpoint) throws IOException {
+        if (checkpoint.getRecordsRead() == 0) {
+            return;
+        }
+        while (reader.recordNumber() < checkpoint.getRecordsRead() && reader.next()) {
+            // skip records that are already loaded
+        }
+        if (reader.recordNumber() != checkpoint.getRecordsRead()
+                || !reader.getString(TransactionCsvReader.EXTERNAL_ID).equals(checkpoint.getLastExternalId())) {
+            throw new IllegalStateException(checkpoint.getSource() + " no longer matches the loaded data at record "
+                    + checkpoint.getRecordsRead() + "; it was modified rather than appended to. "
+                    + "Remove the database to reload it from scratch.");
+        }
+    }
+
+    private static IngestCheckpoint checkpoint(String source, String contentHash, long recordsRead,
+                                               String lastExternalId, boolean complete) {
+        return IngestCheckpoint.builder()
+                .source(source)
+                .contentHash(contentHash)
+                .recordsRead(recordsRead)
+                .lastExternalId(lastExternalId)
+                .complete(complete)
+                .updatedAt(LocalDateTime.now())
+                .build();
     }
 
-    private void addKeywords(Category category, List<String> keywords) {
-        for (String k : keywords) {
-            keywordCategoryMap.put(k.toLowerCase(), category);
+    private static String sha256(Resource resource) throws IOException {
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+        try (InputStream in = new DigestInputStream(resource.getInputStream(), digest)) {
+            in.transferTo(OutputStream.nullOutputStream());
         }
+        return HexFormat.of().formatHex(digest.digest());
     }
 
-    private Category categorize(String description, String merchant, String mcc) {
-        String combined = (description + " " + merchant + " " + mcc).toLowerCase();
-        for (Map.Entry<String, Category> entry : keywordCategoryMap.entrySet()) {
-            if (combined.contains(entry.getKey())) {
-                return entry.getValue();
-            }
+    /**
+     * Builds a transaction from the reader's current record, creating its
+     * customer if needed. Returns null when the record is invalid.
+     */
+    private Transaction toTransaction(TransactionCsvReader record, Map<String, Customer> customerCache) {
+        if (record.fieldCount() < TransactionCsvReader.REQUIRED_FIELDS) {
+            log.warn("Skipping invalid line: {}", record.currentLine());
+            reject("malformed");
+            return null;
+        }
+        String customerEmail = record.getString(TransactionCsvReader.CUSTOMER_EMAIL);
+        Customer customer = customerCache.get(customerEmail);
+        if (customer == null) {
+            customer = Customer.builder()
+                    .name(record.getString(TransactionCsvReader.CUSTOMER_NAME))
+                    .email(customerEmail)
+                    .build();
+            customer = customerRepository.save(customer);
+            customerCache.put(customerEmail, customer);
+        }
+
+        LocalDateTime timestamp;
+        try {
+            timestamp = record.getTimestamp(TransactionCsvReader.TIMESTAMP);
+        } catch (DateTimeException e) {
+            log.warn("Invalid timestamp '{}', skipping", record.getString(TransactionCsvReader.TIMESTAMP));
+            reject("timestamp");
+            return null;
         }
-        return Category.OTHER;
+
+        Money amount;
+        try {
+            amount = record.getMoney(TransactionCsvReader.AMOUNT);
+        } catch (NumberFormatException e) {
+            log.warn("Invalid amount '{}', skipping", record.getString(TransactionCsvReader.AMOUNT));
+            reject("amount");
+            return null;
+        }
+
+        String description = record.getString(TransactionCsvReader.DESCRIPTION);
+        String merchant = record.getString(TransactionCsvReader.MERCHANT);
+        String mcc = record.getString(TransactionCsvReader.MCC);
+        Category category = record.getCategory(TransactionCsvReader.CATEGORY);
+        if (category == null) {
+            category = categorizer.categorize(description, merchant, mcc);
+        }
+
+        return Transaction.builder()
+                .externalId(record.getString(TransactionCsvReader.EXTERNAL_ID))
+                .timestamp(timestamp)
+                .description(description)
+                .merchant(merchant)
+                .merchantCategoryCode(mcc)
+                .amount(amount)
+                .category(category)
+                .customer(customer)
+                .build();
+    }
+
+    private void reject(String reason) {
+        meterRegistry.counter("ingest.rows.rejected", "source", "csv", "reason", reason).increment();
     }
-}
\ No newline at end of file
+}
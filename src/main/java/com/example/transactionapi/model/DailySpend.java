@@ -0,0 +1,53 @@
+package com.example.transactionapi.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+
+/**
+ * Pre-aggregated spend for one customer, category and calendar day. Rows are
+ * maintained incrementally as transactions are ingested, so summaries for any
+ * date range can be answered by summing daily buckets instead of scanning raw
+ * transactions.
+ */
+@Entity
+@Table(name = "daily_spend",
+        // Also serves per-customer queries: equality on customer, range on date
+        uniqueConstraints = @UniqueConstraint(name = "uk_daily_spend_customer_date_category",
+                columnNames = {"customer_id", "spend_date", "category"}),
+        indexes = {
+                // Cross-customer date-range queries grouped by category, covering the total
+                @Index(name = "idx_daily_spend_date_category", columnList = "spend_date, category, total_cents"),
+                // Cross-customer date-range queries grouped by customer, covering the total
+                @Index(name = "idx_daily_spend_date_customer", columnList = "spend_date, customer_id, total_cents")
+        })
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class DailySpend {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "customer_id", nullable = false)
+    private Long customerId;
+
+    @Column(name = "spend_date", nullable = false)
+    private LocalDate spendDate;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private Category category;
+
+    @Column(name = "total_cents", nullable = false)
+    private Money total;
+
+    @Column(nullable = false)
+    private long transactionCount;
+}
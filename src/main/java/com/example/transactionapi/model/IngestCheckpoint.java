@@ -0,0 +1,46 @@
+package com.example.transactionapi.model;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Records how far a CSV source has been loaded. A complete checkpoint whose
+ * hash matches the file means there is nothing to do on restart; if the file
+ * has grown, loading resumes after {@code recordsRead}, provided that record
+ * still carries {@code lastExternalId}. An incomplete checkpoint marks a load
+ * that was interrupted.
+ */
+@Entity
+@Table(name = "ingest_checkpoint")
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class IngestCheckpoint {
+
+    @Id
+    @Column(length = 1024)
+    private String source;
+
+    /** Hex SHA-256 of the whole file when the checkpoint was written. */
+    @Column(nullable = false, length = 64)
+    private String contentHash;
+
+    /** Record number (excluding the header) of the last record read. */
+    private long recordsRead;
+
+    private String lastExternalId;
+
+    private boolean complete;
+
+    @Column(nullable = false)
+    private LocalDateTime updatedAt;
+}
@@ -0,0 +1,22 @@
+package com.example.transactionapi.model;
+
+import jakarta.persistence.AttributeConverter;
+import jakarta.persistence.Converter;
+
+/**
+ * Stores every {@link Money} attribute as a BIGINT number of cents, so the
+ * database sums integers and aggregates come back as exact longs.
+ */
+@Converter(autoApply = true)
+public class MoneyConverter implements AttributeConverter<Money, Long> {
+
+    @Override
+    public Long convertToDatabaseColumn(Money money) {
+        return money != null ? money.getCents() : null;
+    }
+
+    @Override
+    public Money convertToEntityAttribute(Long cents) {
+        return cents != null ? Money.ofCents(cents) : null;
+    }
+}
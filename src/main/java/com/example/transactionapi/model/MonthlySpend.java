@@ -0,0 +1,54 @@
+package com.example.transactionapi.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+
+/**
+ * Pre-aggregated spend for one customer, category and calendar month, kept in
+ * step with {@link DailySpend} during ingestion. {@code spendMonth} is the
+ * first day of the month. Date ranges are answered from whole months here and
+ * from daily buckets only for the partial months at either end, so the cost of
+ * a query grows with the number of months rather than days in range.
+ */
+@Entity
+@Table(name = "monthly_spend",
+        // Also serves per-customer queries: equality on customer, range on month
+        uniqueConstraints = @UniqueConstraint(name = "uk_monthly_spend_customer_month_category",
+                columnNames = {"customer_id", "spend_month", "category"}),
+        indexes = {
+                // Cross-customer month-range queries grouped by category, covering the total
+                @Index(name = "idx_monthly_spend_month_category", columnList = "spend_month, category, total_cents"),
+                // Cross-customer month-range queries grouped by customer, covering the total
+                @Index(name = "idx_monthly_spend_month_customer", columnList = "spend_month, customer_id, total_cents")
+        })
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class MonthlySpend {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "customer_id", nullable = false)
+    private Long customerId;
+
+    @Column(name = "spend_month", nullable = false)
+    private LocalDate spendMonth;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private Category category;
+
+    @Column(name = "total_cents", nullable = false)
+    private Money total;
+
+    @Column(nullable = false)
+    private long transactionCount;
+}
@@ -6,17 +6,24 @@ import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 
-import java.math.BigDecimal;
 import java.time.LocalDateTime;
 
 /**
  * Entity representing a single financial transaction. Each transaction belongs
  * to a customer and is assigned a spending category during ingestion. The
  * merchantCategoryCode (MCC) and description fields are preserved for
- * transparency and to support further enrichment.
+ * transparency and to support further enrichment. Indexes are checked against
+ * the repository queries by QueryPlanTest.
  */
 @Entity
-@Table(name = "transactions")
+@Table(name = "transactions", indexes = {
+        // Per-customer listing: equality on customer, range and keyset order on (timestamp, id)
+        @Index(name = "idx_transactions_customer_timestamp", columnList = "customer_id, timestamp, id"),
+        // Time-range scans grouped by category, covering the summed amount
+        @Index(name = "idx_transactions_timestamp_category", columnList = "timestamp, category, amount_cents"),
+        // Duplicate check on live ingestion
+        @Index(name = "idx_transactions_external_id", columnList = "external_id")
+})
 @Data
 @Builder
 @NoArgsConstructor
@@ -32,6 +39,7 @@ public class Transaction {
      * not be unique across all data sources so is stored separately from the
      * primary key.
      */
+    @Column(name = "external_id")
     private String externalId;
 
     private LocalDateTime timestamp;
@@ -42,7 +50,8 @@ public class Transaction {
 
     private String merchantCategoryCode;
 
-    private BigDecimal amount;
+    @Column(name = "amount_cents")
+    private Money amount;
 
     @Enumerated(EnumType.STRING)
     private Category category;
@@ -2,9 +2,18 @@ package com.example.transactionapi.repository;
 
 import com.example.transactionapi.model.Customer;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.util.Collection;
+import java.util.List;
 
 /**
  * Repository for Customer entities.
  */
 public interface CustomerRepository extends JpaRepository<Customer, Long> {
-}
\ No newline at end of file
+
+    /** The ids among the given ones that belong to existing customers. */
+    @Query("SELECT c.id FROM Customer c WHERE c.id IN :ids")
+    List<Long> findExistingIds(@Param("ids") Collection<Long> ids);
+}
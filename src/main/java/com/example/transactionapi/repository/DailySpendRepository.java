@@ -0,0 +1,96 @@
+package com.example.transactionapi.repository;
+
+import com.example.transactionapi.model.DailySpend;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Repository for the daily spend rollup. Every query sums pre-aggregated daily
+ * buckets, so its cost depends on the number of days in range rather than the
+ * number of raw transactions. Date bounds are inclusive and must not be null;
+ * use {@link QueryBounds} for open ranges so the predicates stay index friendly.
+ * Totals are stored as cents, so sums come back as exact {@code Long} values;
+ * wrap them with {@link com.example.transactionapi.model.Money#ofCents(long)}.
+ */
+public interface DailySpendRepository extends JpaRepository<DailySpend, Long> {
+
+    /**
+     * Returns the total spend per category for a given customer within a date range.
+     * Returns a list of Object[] where index 0 is the Category and index 1 is the sum amount in cents (Long).
+     */
+    @Query("SELECT d.category as category, SUM(d.total) as total " +
+            "FROM DailySpend d WHERE d.customerId = :customerId " +
+            "AND d.spendDate BETWEEN :from AND :to " +
+            "GROUP BY d.category")
+    List<Object[]> sumAmountByCustomerAndCategory(@Param("customerId") Long customerId,
+                                                @Param("from") LocalDate from,
+                                                @Param("to") LocalDate to);
+
+    /**
+     * Returns the total spend per customer and category for a set of customers
+     * within a date range, in one grouped query.
+     * Each element: [customerId (Long), category (Category), totalCents (Long)]
+     */
+    @Query("SELECT d.customerId as customerId, d.category as category, SUM(d.total) as total " +
+            "FROM DailySpend d WHERE d.customerId IN :customerIds " +
+            "AND d.spendDate BETWEEN :from AND :to " +
+            "GROUP BY d.customerId, d.category")
+    List<Object[]> sumAmountByCustomersAndCategory(@Param("customerIds") Collection<Long> customerIds,
+                                                   @Param("from") LocalDate from,
+                                                   @Param("to") LocalDate to);
+
+    /**
+     * Returns the total spend per category across all customers within a date range.
+     */
+    @Query("SELECT d.category as category, SUM(d.total) as total " +
+            "FROM DailySpend d " +
+            "WHERE d.spendDate BETWEEN :from AND :to " +
+            "GROUP BY d.category")
+    List<Object[]> sumAmountByCategory(@Param("from") LocalDate from,
+                                       @Param("to") LocalDate to);
+
+    /**
+     * Returns the total spend per day and category for a customer within a
+     * date range, in date order.
+     * Each element: [spendDate (LocalDate), category (Category), totalCents (Long)]
+     */
+    @Query("SELECT d.spendDate as spendDate, d.category as category, SUM(d.total) as total " +
+            "FROM DailySpend d WHERE d.customerId = :customerId " +
+            "AND d.spendDate BETWEEN :from AND :to " +
+            "GROUP BY d.spendDate, d.category ORDER BY d.spendDate")
+    List<Object[]> sumAmountByCustomerDayAndCategory(@Param("customerId") Long customerId,
+                                                     @Param("from") LocalDate from,
+                                                     @Param("to") LocalDate to);
+
+    /**
+     * Returns the total spend per day and category across all customers within
+     * a date range, in date order.
+     * Each element: [spendDate (LocalDate), category (Category), totalCents (Long)]
+     */
+    @Query("SELECT d.spendDate as spendDate, d.category as category, SUM(d.total) as total " +
+            "FROM DailySpend d " +
+            "WHERE d.spendDate BETWEEN :from AND :to " +
+            "GROUP BY d.spendDate, d.category ORDER BY d.spendDate")
+    List<Object[]> sumAmountByDayAndCategory(@Param("from") LocalDate from,
+                                             @Param("to") LocalDate to);
+
+    /**
+     * Returns total spend per customer within a date range, ordered by total
+     * descending. Pass a {@link Pageable} to apply the limit in the database so
+     * only the requested number of rows is materialised.
+     * Each element: [customerId (Long), totalCents (Long)]
+     */
+    @Query("SELECT d.customerId as customerId, SUM(d.total) as total " +
+            "FROM DailySpend d " +
+            "WHERE d.spendDate BETWEEN :from AND :to " +
+            "GROUP BY d.customerId ORDER BY total DESC, d.customerId")
+    List<Object[]> sumAmountPerCustomer(@Param("from") LocalDate from,
+                                        @Param("to") LocalDate to,
+                                        Pageable pageable);
+}
@@ -0,0 +1,10 @@
+package com.example.transactionapi.repository;
+
+import com.example.transactionapi.model.IngestCheckpoint;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+/**
+ * Repository for CSV ingest checkpoints, keyed by source description.
+ */
+public interface IngestCheckpointRepository extends JpaRepository<IngestCheckpoint, String> {
+}
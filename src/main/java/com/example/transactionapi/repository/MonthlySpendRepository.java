@@ -0,0 +1,98 @@
+package com.example.transactionapi.repository;
+
+import com.example.transactionapi.model.MonthlySpend;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Repository for the monthly spend rollup. Month bounds are the first days of
+ * the first and last month, inclusive; {@link RollupRange} derives them and the
+ * daily head and tail ranges that complete a date range. Sums are in cents.
+ */
+public interface MonthlySpendRepository extends JpaRepository<MonthlySpend, Long> {
+
+    /**
+     * Returns the total spend per category for a customer over whole months.
+     * Each element: [category (Category), totalCents (Long)]
+     */
+    @Query("SELECT m.category as category, SUM(m.total) as total " +
+            "FROM MonthlySpend m WHERE m.customerId = :customerId " +
+            "AND m.spendMonth BETWEEN :from AND :to " +
+            "GROUP BY m.category")
+    List<Object[]> sumAmountByCustomerAndCategory(@Param("customerId") Long customerId,
+                                                @Param("from") LocalDate from,
+                                                @Param("to") LocalDate to);
+
+    /**
+     * Returns the total spend per customer and category for a set of customers
+     * over whole months.
+     * Each element: [customerId (Long), category (Category), totalCents (Long)]
+     */
+    @Query("SELECT m.customerId as customerId, m.category as category, SUM(m.total) as total " +
+            "FROM MonthlySpend m WHERE m.customerId IN :customerIds " +
+            "AND m.spendMonth BETWEEN :from AND :to " +
+            "GROUP BY m.customerId, m.category")
+    List<Object[]> sumAmountByCustomersAndCategory(@Param("customerIds") Collection<Long> customerIds,
+                                                   @Param("from") LocalDate from,
+                                                   @Param("to") LocalDate to);
+
+    /**
+     * Returns the total spend per category across all customers over whole months.
+     */
+    @Query("SELECT m.category as category, SUM(m.total) as total " +
+            "FROM MonthlySpend m " +
+            "WHERE m.spendMonth BETWEEN :from AND :to " +
+            "GROUP BY m.category")
+    List<Object[]> sumAmountByCategory(@Param("from") LocalDate from,
+                                       @Param("to") LocalDate to);
+
+    /**
+     * Returns the total spend per month and category for a customer over whole
+     * months, in month order.
+     * Each element: [spendMonth (LocalDate), category (Category), totalCents (Long)]
+     */
+    @Query("SELECT m.spendMonth as spendMonth, m.category as category, SUM(m.total) as total " +
+            "FROM MonthlySpend m WHERE m.customerId = :customerId " +
+            "AND m.spendMonth BETWEEN :from AND :to " +
+            "GROUP BY m.spendMonth, m.category ORDER BY m.spendMonth")
+    List<Object[]> sumAmountByCustomerMonthAndCategory(@Param("customerId") Long customerId,
+                                                       @Param("from") LocalDate from,
+                                                       @Param("to") LocalDate to);
+
+    /**
+     * Returns the total spend per month and category across all customers over
+     * whole months, in month order.
+     * Each element: [spendMonth (LocalDate), category (Category), totalCents (Long)]
+     */
+    @Query("SELECT m.spendMonth as spendMonth, m.category as category, SUM(m.total) as total " +
+            "FROM MonthlySpend m " +
+            "WHERE m.spendMonth BETWEEN :from AND :to " +
+            "GROUP BY m.spendMonth, m.category ORDER BY m.spendMonth")
+    List<Object[]> sumAmountByMonthAndCategory(@Param("from") LocalDate from,
+                                               @Param("to") LocalDate to);
+
+    /**
+     * Returns the top customers by total spend over the daily head range, the
+     * whole months and the daily tail range of a {@link RollupRange}, ordered
+     * by total descending then customer id. The parts are combined before
+     * grouping, so a customer's total spans all three.
+     * Each element: [customerId (Number), totalCents (Number)]
+     */
+    @Query(nativeQuery = true, value = "SELECT customer_id, SUM(total_cents) AS total FROM (" +
+            "SELECT customer_id, total_cents FROM daily_spend WHERE spend_date BETWEEN :headFrom AND :headTo " +
+            "UNION ALL SELECT customer_id, total_cents FROM monthly_spend WHERE spend_month BETWEEN :monthFrom AND :monthTo " +
+            "UNION ALL SELECT customer_id, total_cents FROM daily_spend WHERE spend_date BETWEEN :tailFrom AND :tailTo" +
+            ") parts GROUP BY customer_id ORDER BY total DESC, customer_id LIMIT :count")
+    List<Object[]> sumAmountPerCustomer(@Param("headFrom") LocalDate headFrom,
+                                        @Param("headTo") LocalDate headTo,
+                                        @Param("monthFrom") LocalDate monthFrom,
+                                        @Param("monthTo") LocalDate monthTo,
+                                        @Param("tailFrom") LocalDate tailFrom,
+                                        @Param("tailTo") LocalDate tailTo,
+                                        @Param("count") int count);
+}
@@ -0,0 +1,39 @@
+package com.example.transactionapi.repository;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+
+/**
+ * Replaces missing from/to bounds with concrete values before they reach a
+ * query. Predicates written as {@code (:from IS NULL OR col >= :from)} cannot
+ * be matched to an index, whereas a plain {@code col BETWEEN :from AND :to}
+ * always can, so repository queries take non-null bounds only.
+ */
+public final class QueryBounds {
+
+    /** Earliest and latest values used for open ranges, kept within the database's supported range. */
+    public static final LocalDate MIN_DATE = LocalDate.of(1900, 1, 1);
+    public static final LocalDate MAX_DATE = LocalDate.of(9999, 12, 31);
+
+    private QueryBounds() {
+    }
+
+    public static LocalDate lower(LocalDate from) {
+        return from != null ? from : MIN_DATE;
+    }
+
+    public static LocalDate upper(LocalDate to) {
+        return to != null ? to : MAX_DATE;
+    }
+
+    /** Start of the first day in range as a timestamp bound. */
+    public static LocalDateTime lowerTimestamp(LocalDate from) {
+        return lower(from).atStartOfDay();
+    }
+
+    /** Last instant of the final day in range as a timestamp bound. */
+    public static LocalDateTime upperTimestamp(LocalDate to) {
+        return upper(to).atTime(LocalTime.MAX);
+    }
+}
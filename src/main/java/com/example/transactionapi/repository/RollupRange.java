@@ -0,0 +1,61 @@
+package com.example.transactionapi.repository;
+
+import lombok.Value;
+
+import java.time.LocalDate;
+
+/**
+ * Splits an optional date range into the parts the spend rollups answer: the
+ * whole calendar months in between from {@code monthly_spend}, and the partial
+ * months at either end (head and tail) from {@code daily_spend}. Open ends are
+ * resolved with {@link QueryBounds}, whose limits fall on month boundaries, so
+ * an unbounded range is all months. Unused parts are empty ranges (from after
+ * to), so every part can be bound to a query unconditionally. A range of N
+ * whole months reads N monthly buckets per customer and category, however
+ * long the history around it.
+ */
+@Value
+public class RollupRange {
+
+    private static final RollupRange EMPTY = new RollupRange(QueryBounds.MAX_DATE, QueryBounds.MIN_DATE,
+            QueryBounds.MAX_DATE, QueryBounds.MIN_DATE, QueryBounds.MAX_DATE, QueryBounds.MIN_DATE);
+
+    LocalDate headFrom;
+    LocalDate headTo;
+    /** First day of the first and of the last whole month. */
+    LocalDate monthFrom;
+    LocalDate monthTo;
+    LocalDate tailFrom;
+    LocalDate tailTo;
+
+    public static RollupRange of(LocalDate from, LocalDate to) {
+        LocalDate lower = QueryBounds.lower(from);
+        LocalDate upper = QueryBounds.upper(to);
+        if (lower.isAfter(upper)) {
+            return EMPTY;
+        }
+        LocalDate firstWhole = lower.getDayOfMonth() == 1 ? lower : lower.withDayOfMonth(1).plusMonths(1);
+        LocalDate lastWholeEnd = upper.getDayOfMonth() == upper.lengthOfMonth() ? upper : upper.withDayOfMonth(1).minusDays(1);
+        if (firstWhole.isAfter(lastWholeEnd)) {
+            // No whole month in range: everything is read from daily buckets
+            return new RollupRange(lower, upper, EMPTY.monthFrom, EMPTY.monthTo, EMPTY.tailFrom, EMPTY.tailTo);
+        }
+        LocalDate tailFrom = lastWholeEnd.plusDays(1);
+        return new RollupRange(
+                lower, firstWhole.minusDays(1),
+                firstWhole, lastWholeEnd.withDayOfMonth(1),
+                tailFrom.isAfter(upper) ? EMPTY.tailFrom : tailFrom, tailFrom.isAfter(upper) ? EMPTY.tailTo : upper);
+    }
+
+    public boolean hasHead() {
+        return !headFrom.isAfter(headTo);
+    }
+
+    public boolean hasMonths() {
+        return !monthFrom.isAfter(monthTo);
+    }
+
+    public boolean hasTail() {
+        return !tailFrom.isAfter(tailTo);
+    }
+}
@@ -1,7 +1,8 @@
 package com.example.transactionapi.repository;
 
-import com.example.transactionapi.model.Category;
 import com.example.transactionapi.model.Transaction;
+import com.example.transactionapi.web.dto.TransactionView;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
@@ -10,74 +11,29 @@ import java.time.LocalDateTime;
 import java.util.List;
 
 /**
- * Repository for transaction entities. Contains custom queries for aggregating
- * amounts by category and customer, as well as identifying top spenders.
+ * Repository for transaction entities. Aggregations are served from the daily
+ * spend rollup (see {@link DailySpendRepository}) rather than from this table.
  */
 public interface TransactionRepository extends JpaRepository<Transaction, Long> {
 
-    List<Transaction> findByCustomerId(Long customerId);
-
-    List<Transaction> findByCustomerIdAndTimestampBetween(Long customerId, LocalDateTime from, LocalDateTime to);
-
-    List<Transaction> findByTimestampBetween(LocalDateTime from, LocalDateTime to);
-
     /**
-     * Returns the total spend per category for a given customer within a date range.
-     * Returns a list of Object[] where index 0 is the Category and index 1 is the sum amount (BigDecimal).
+     * Returns the next page of a customer's transactions within [from, to]
+     * that sort strictly after (afterTimestamp, afterId), ordered by
+     * (timestamp, id). Keyset paging keeps the cost of deep pages constant,
+     * unlike OFFSET. The page size comes from the {@link Pageable}.
      */
-    @Query("SELECT t.category as category, SUM(t.amount) as total " +
+    @Query("SELECT new com.example.transactionapi.web.dto.TransactionView(t.id, t.externalId, t.timestamp, " +
+            "t.description, t.merchant, t.merchantCategoryCode, t.amount, t.category) " +
             "FROM Transaction t WHERE t.customer.id = :customerId " +
-            "AND (:from IS NULL OR t.timestamp >= :from) " +
-            "AND (:to IS NULL OR t.timestamp <= :to) " +
-            "GROUP BY t.category")
-    List<Object[]> sumAmountByCustomerAndCategory(@Param("customerId") Long customerId,
-                                                @Param("from") LocalDateTime from,
-                                                @Param("to") LocalDateTime to);
+            "AND t.timestamp >= :from AND t.timestamp <= :to " +
+            "AND (t.timestamp > :afterTimestamp OR (t.timestamp = :afterTimestamp AND t.id > :afterId)) " +
+            "ORDER BY t.timestamp, t.id")
+    List<TransactionView> findPageByCustomer(@Param("customerId") Long customerId,
+                                             @Param("from") LocalDateTime from,
+                                             @Param("to") LocalDateTime to,
+                                             @Param("afterTimestamp") LocalDateTime afterTimestamp,
+                                             @Param("afterId") Long afterId,
+                                             Pageable pageable);
 
-    /**
-     * Returns the total spend per category across all customers within a date range.
-     */
-    @Query("SELECT t.category as category, SUM(t.amount) as total " +
-            "FROM Transaction t " +
-            "WHERE (:from IS NULL OR t.timestamp >= :from) " +
-            "AND (:to IS NULL OR t.timestamp <= :to) " +
-            "GROUP BY t.category")
-    List<Object[]> sumAmountByCategory(@Param("from") LocalDateTime from,
-                                       @Param("to") LocalDateTime to);
-
-    /**
-     * Returns total spend per customer within a date range.
-     * Each element: [customerId (Long), totalSpent (BigDecimal)]
-     */
-    @Query("SELECT t.customer.id as customerId, SUM(t.amount) as total " +
-            "FROM Transaction t " +
-            "WHERE (:from IS NULL OR t.timestamp >= :from) " +
-            "AND (:to IS NULL OR t.timestamp <= :to) " +
-            "GROUP BY t.customer.id ORDER BY total DESC")
-    List<Object[]> sumAmountPerCustomer(@Param("from") LocalDateTime from,
-                                        @Param("to") LocalDateTime to);
-
-    /**
-     * Returns total spend per category for a specific customer, ordered by total descending.
-     * Each element: [category (Category), totalSpent (BigDecimal)]
-     */
-    @Query("SELECT t.category as category, SUM(t.amount) as total " +
-            "FROM Transaction t WHERE t.customer.id = :customerId " +
-            "AND (:from IS NULL OR t.timestamp >= :from) " +
-            "AND (:to IS NULL OR t.timestamp <= :to) " +
-            "GROUP BY t.category ORDER BY total DESC")
-    List<Object[]> topCategoriesForCustomer(@Param("customerId") Long customerId,
-                                           @Param("from") LocalDateTime from,
-                                           @Param("to") LocalDateTime to);
-
-    /**
-     * Returns total spend per category across all customers, ordered by total descending.
-     */
-    @Query("SELECT t.category as category, SUM(t.amount) as total " +
-            "FROM Transaction t " +
-            "WHERE (:from IS NULL OR t.timestamp >= :from) " +
-            "AND (:to IS NULL OR t.timestamp <= :to) " +
-            "GROUP BY t.category ORDER BY total DESC")
-    List<Object[]> topCategoriesOverall(@Param("from") LocalDateTime from,
-                                       @Param("to") LocalDateTime to);
+    List<Transaction> findByTimestampBetween(LocalDateTime from, LocalDateTime to);
 }
\ No newline at end of file
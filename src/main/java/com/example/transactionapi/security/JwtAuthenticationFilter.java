@@ -1,12 +1,13 @@
 package com.example.transactionapi.security;
 
 import com.example.transactionapi.service.jwt.JwtService;
-import com.example.transactionapi.repository.AppUserRepository;
+import io.jsonwebtoken.Claims;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
-import lombok.RequiredArgsConstructor;
 import org.springframework.http.HttpHeaders;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.context.SecurityContextHolder;
@@ -16,40 +17,72 @@ import org.springframework.stereotype.Component;
 import org.springframework.web.filter.OncePerRequestFilter;
 
 import java.io.IOException;
+import java.util.concurrent.TimeUnit;
 
 /**
  * Filter that intercepts each HTTP request to extract and validate JWT tokens.
- * If a valid token is provided, the user details are loaded and the security
- * context is updated accordingly. This allows stateless authentication.
+ * If a valid token is provided, the principal is resolved from its claims by
+ * {@link PrincipalResolver} and the security context is updated accordingly.
+ * This allows stateless authentication without a per-request user lookup.
+ * Time spent authenticating, excluding the rest of the chain, is published as
+ * {@code security.jwt.filter} tagged with the outcome.
  */
 @Component
-@RequiredArgsConstructor
 public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
     private final JwtService jwtService;
-    private final AppUserRepository userRepository;
+    private final PrincipalResolver principalResolver;
+    private final Timer authenticatedTimer;
+    private final Timer anonymousTimer;
+    private final Timer rejectedTimer;
+    private final Timer invalidTimer;
+
+    public JwtAuthenticationFilter(JwtService jwtService, PrincipalResolver principalResolver, MeterRegistry meterRegistry) {
+        this.jwtService = jwtService;
+        this.principalResolver = principalResolver;
+        this.authenticatedTimer = meterRegistry.timer("security.jwt.filter", "outcome", "authenticated");
+        this.anonymousTimer = meterRegistry.timer("security.jwt.filter", "outcome", "anonymous");
+        this.rejectedTimer = meterRegistry.timer("security.jwt.filter", "outcome", "rejected");
+        this.invalidTimer = meterRegistry.timer("security.jwt.filter", "outcome", "invalid");
+    }
 
     @Override
     protected void doFilterInternal(HttpServletRequest request,
                                     HttpServletResponse response,
                                     FilterChain filterChain) throws ServletException, IOException {
+        long start = System.nanoTime();
+        Timer outcome = invalidTimer;
+        try {
+            outcome = authenticate(request);
+        } finally {
+            outcome.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+        filterChain.doFilter(request, response);
+    }
+
+    /**
+     * @return the timer matching the outcome, so the caller records against it
+     */
+    private Timer authenticate(HttpServletRequest request) {
         final String authHeader = request.getHeader(HttpHeaders.AUTHORIZATION);
         final String bearerPrefix = "Bearer ";
-        String jwt = null;
-        String username = null;
+        Claims claims = null;
         if (authHeader != null && authHeader.startsWith(bearerPrefix)) {
-            jwt = authHeader.substring(bearerPrefix.length());
-            username = jwtService.extractUsername(jwt);
+            // Parsed and verified once; the claims are reused for every check below
+            claims = jwtService.extractAllClaims(authHeader.substring(bearerPrefix.length()));
         }
-        if (username != null && SecurityContextHolder.getContext().getAuthentication() == null) {
-            UserDetails userDetails = userRepository.findByUsername(username).orElse(null);
-            if (userDetails != null && jwtService.isTokenValid(jwt, userDetails)) {
-                UsernamePasswordAuthenticationToken authToken = new UsernamePasswordAuthenticationToken(
-                        userDetails, null, userDetails.getAuthorities());
-                authToken.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
-                SecurityContextHolder.getContext().setAuthentication(authToken);
-            }
+        String username = claims != null ? claims.getSubject() : null;
+        if (username == null || SecurityContextHolder.getContext().getAuthentication() != null) {
+            return anonymousTimer;
         }
-        filterChain.doFilter(request, response);
+        UserDetails userDetails = principalResolver.resolve(claims);
+        if (userDetails == null || !jwtService.isTokenValid(claims, userDetails)) {
+            return rejectedTimer;
+        }
+        UsernamePasswordAuthenticationToken authToken = new UsernamePasswordAuthenticationToken(
+                userDetails, null, userDetails.getAuthorities());
+        authToken.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
+        SecurityContextHolder.getContext().setAuthentication(authToken);
+        return authenticatedTimer;
     }
 }
\ No newline at end of file
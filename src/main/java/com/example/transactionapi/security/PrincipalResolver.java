@@ -0,0 +1,57 @@
+package com.example.transactionapi.security;
+
+import com.example.transactionapi.model.AppUser;
+import com.example.transactionapi.repository.AppUserRepository;
+import com.example.transactionapi.service.jwt.JwtService;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.jsonwebtoken.Claims;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+/**
+ * Turns verified JWT claims into the authenticated principal. By default the
+ * principal is rebuilt from the id and role claims alone, so authenticating a
+ * request needs no database round trip. Deployments that must notice deleted
+ * users can set {@code security.user-lookup.enabled=true}. Users are then
+ * loaded from the database through a small cache, so a deleted user stops
+ * authenticating within the configured TTL.
+ * Tokens issued before the id and role claims existed always fall back to a
+ * lookup.
+ */
+@Component
+public class PrincipalResolver {
+
+    private final JwtService jwtService;
+    private final AppUserRepository userRepository;
+    private final boolean lookupEnabled;
+    private final Cache<String, AppUser> userCache;
+
+    public PrincipalResolver(JwtService jwtService,
+                             AppUserRepository userRepository,
+                             @Value("${security.user-lookup.enabled:false}") boolean lookupEnabled,
+                             @Value("${security.user-lookup.cache-ttl-seconds:60}") long cacheTtlSeconds,
+                             @Value("${security.user-lookup.cache-max-size:10000}") long cacheMaxSize) {
+        this.jwtService = jwtService;
+        this.userRepository = userRepository;
+        this.lookupEnabled = lookupEnabled;
+        this.userCache = Caffeine.newBuilder()
+                .maximumSize(cacheMaxSize)
+                .expireAfterWrite(Duration.ofSeconds(cacheTtlSeconds))
+                .build();
+    }
+
+    /**
+     * @return the principal for the claims, or null if the user no longer exists
+     */
+    public AppUser resolve(Claims claims) {
+        AppUser fromClaims = jwtService.toPrincipal(claims);
+        if (fromClaims != null && !lookupEnabled) {
+            return fromClaims;
+        }
+        // Absent users are not cached, so a re-created user is picked up immediately
+        return userCache.get(claims.getSubject(), username -> userRepository.findByUsername(username).orElse(null));
+    }
+}
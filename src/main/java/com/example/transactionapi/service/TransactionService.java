@@ -1,140 +1,241 @@
 package com.example.transactionapi.service;
 
 import com.example.transactionapi.model.Category;
-import com.example.transactionapi.model.Customer;
+import com.example.transactionapi.model.Money;
 import com.example.transactionapi.repository.CustomerRepository;
+import com.example.transactionapi.repository.QueryBounds;
 import com.example.transactionapi.repository.TransactionRepository;
+import com.example.transactionapi.service.analytics.SpendAnalytics;
+import com.example.transactionapi.service.rollup.SpendTrends;
+import com.example.transactionapi.service.rollup.TrendGranularity;
+import com.example.transactionapi.service.storage.TransactionListing;
 import com.example.transactionapi.web.dto.*;
-import lombok.RequiredArgsConstructor;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.util.ClassUtils;
 
-import java.math.BigDecimal;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
-import java.time.LocalTime;
 import java.util.*;
-import java.util.stream.Collectors;
 
 /**
- * Provides aggregation logic for transactions. Uses repository queries to
- * compute sums grouped by category or customer. This service abstracts the
- * underlying data access and transforms raw results into descriptive DTOs.
+ * Provides aggregation logic for transactions. Sums come from the configured
+ * {@link SpendAnalytics} engine (the daily rollup by default), so a query
+ * never scans raw transactions. This service abstracts the underlying data
+ * access and transforms raw results into descriptive DTOs. Engine calls are
+ * timed as {@code analytics.query}, tagged with the engine and the query.
+ * Engines that hold their own copy of the transactions also serve the
+ * listing through {@link TransactionListing}. Trends are read from the
+ * rollups by {@link SpendTrends} whatever the engine, timed with
+ * {@code query=trend}.
  */
 @Service
-@RequiredArgsConstructor
 public class TransactionService {
 
+    public static final int MAX_PAGE_SIZE = 1000;
+    public static final int MAX_SUMMARY_BATCH = 1000;
+
+    private final SpendAnalytics spendAnalytics;
     private final TransactionRepository transactionRepository;
     private final CustomerRepository customerRepository;
+    private final Optional<TransactionListing> listing;
+    private final SpendTrends spendTrends;
+    private final Timer totalsTimer;
+    private final Timer bulkTotalsTimer;
+    private final Timer topSpendersTimer;
+    private final Timer topCategoriesTimer;
+    private final Timer trendTimer;
+
+    public TransactionService(SpendAnalytics spendAnalytics,
+                              TransactionRepository transactionRepository,
+                              CustomerRepository customerRepository,
+                              Optional<TransactionListing> listing,
+                              SpendTrends spendTrends,
+                              MeterRegistry meterRegistry) {
+        this.spendAnalytics = spendAnalytics;
+        this.transactionRepository = transactionRepository;
+        this.customerRepository = customerRepository;
+        this.listing = listing;
+        this.spendTrends = spendTrends;
+        String engine = ClassUtils.getUserClass(spendAnalytics).getSimpleName();
+        this.totalsTimer = meterRegistry.timer("analytics.query", "engine", engine, "query", "totalsByCategory");
+        this.bulkTotalsTimer = meterRegistry.timer("analytics.query", "engine", engine, "query", "totalsByCustomerAndCategory");
+        this.topSpendersTimer = meterRegistry.timer("analytics.query", "engine", engine, "query", "topSpenders");
+        this.topCategoriesTimer = meterRegistry.timer("analytics.query", "engine", engine, "query", "topCategories");
+        this.trendTimer = meterRegistry.timer("analytics.query", "engine", SpendTrends.class.getSimpleName(), "query", "trend");
+    }
 
     /**
      * Returns a summary of a customer's spending between the optional date range.
      * If from or to is null the range is unbounded on that side.
      */
-    @Transactional(readOnly = true)
     public CustomerSummary getCustomerSummary(Long customerId, LocalDate from, LocalDate to) {
-        Customer customer = customerRepository.findById(customerId)
-                .orElseThrow(() -> new NoSuchElementException("Customer not found"));
-        LocalDateTime fromDateTime = from != null ? from.atStartOfDay() : null;
-        LocalDateTime toDateTime = to != null ? to.atTime(LocalTime.MAX) : null;
-        List<Object[]> results = transactionRepository.sumAmountByCustomerAndCategory(customerId, fromDateTime, toDateTime);
-        List<CategoryBreakdownEntry> breakdown = new ArrayList<>();
-        BigDecimal total = BigDecimal.ZERO;
-        Category topCategory = null;
-        BigDecimal topValue = BigDecimal.ZERO;
-        for (Object[] row : results) {
-            Category category = (Category) row[0];
-            BigDecimal sum = (BigDecimal) row[1];
-            breakdown.add(new CategoryBreakdownEntry(category, sum));
-            total = total.add(sum);
-            if (sum.compareTo(topValue) > 0) {
-                topValue = sum;
-                topCategory = category;
+        if (!customerRepository.existsById(customerId)) {
+            throw new NoSuchElementException("Customer not found");
+        }
+        List<CategoryBreakdownEntry> breakdown = totalsTimer.record(() -> spendAnalytics.totalsByCategory(customerId, from, to));
+        return buildCustomerSummary(customerId, breakdown, buildPeriodDescription(from, to));
+    }
+
+    /**
+     * Returns the summaries of up to {@link #MAX_SUMMARY_BATCH} customers over
+     * the same optional date range, in the order the ids were given. The sums
+     * for the whole batch come from one engine call rather than one per
+     * customer. Unknown and repeated ids are skipped.
+     */
+    public List<CustomerSummary> getCustomerSummaries(List<Long> customerIds, LocalDate from, LocalDate to) {
+        if (customerIds.size() > MAX_SUMMARY_BATCH) {
+            throw new IllegalArgumentException("At most " + MAX_SUMMARY_BATCH + " customers per batch");
+        }
+        Set<Long> existing = new HashSet<>(customerRepository.findExistingIds(customerIds));
+        List<Long> ids = new ArrayList<>(existing.size());
+        for (Long customerId : new LinkedHashSet<>(customerIds)) {
+            if (existing.contains(customerId)) {
+                ids.add(customerId);
             }
         }
-        // In case there are no transactions, set topCategory to null
+        if (ids.isEmpty()) {
+            return new ArrayList<>();
+        }
+        Map<Long, List<CategoryBreakdownEntry>> totals =
+                bulkTotalsTimer.record(() -> spendAnalytics.totalsByCustomerAndCategory(ids, from, to));
         String periodDesc = buildPeriodDescription(from, to);
-        return CustomerSummary.builder()
-                .customerId(customerId)
-                .periodDescription(periodDesc)
-                .totalSpent(total)
-                .breakdown(breakdown)
-                .topCategory(topCategory)
-                .build();
+        List<CustomerSummary> summaries = new ArrayList<>(ids.size());
+        for (Long customerId : ids) {
+            summaries.add(buildCustomerSummary(customerId, totals.getOrDefault(customerId, new ArrayList<>()), periodDesc));
+        }
+        return summaries;
     }
 
     /**
      * Returns an overall summary across all customers.
      */
-    @Transactional(readOnly = true)
     public OverallSummary getOverallSummary(LocalDate from, LocalDate to) {
-        LocalDateTime fromDateTime = from != null ? from.atStartOfDay() : null;
-        LocalDateTime toDateTime = to != null ? to.atTime(LocalTime.MAX) : null;
-        List<Object[]> results = transactionRepository.sumAmountByCategory(fromDateTime, toDateTime);
-        List<CategoryBreakdownEntry> breakdown = new ArrayList<>();
-        BigDecimal total = BigDecimal.ZERO;
+        List<CategoryBreakdownEntry> breakdown = totalsTimer.record(() -> spendAnalytics.totalsByCategory(null, from, to));
+        long totalCents = 0;
         Category topCategory = null;
-        BigDecimal topValue = BigDecimal.ZERO;
-        for (Object[] row : results) {
-            Category category = (Category) row[0];
-            BigDecimal sum = (BigDecimal) row[1];
-            breakdown.add(new CategoryBreakdownEntry(category, sum));
-            total = total.add(sum);
-            if (sum.compareTo(topValue) > 0) {
-                topValue = sum;
-                topCategory = category;
+        long topCents = 0;
+        for (CategoryBreakdownEntry entry : breakdown) {
+            long cents = entry.getTotal().getCents();
+            totalCents = Math.addExact(totalCents, cents);
+            if (outranks(cents, entry.getCategory(), topCents, topCategory)) {
+                topCents = cents;
+                topCategory = entry.getCategory();
             }
         }
         String periodDesc = buildPeriodDescription(from, to);
         return OverallSummary.builder()
                 .periodDescription(periodDesc)
-                .totalSpent(total)
+                .totalSpent(Money.ofCents(totalCents))
                 .breakdown(breakdown)
                 .topCategory(topCategory)
                 .build();
     }
 
     /**
-     * Returns a list of the top N customers by spending within an optional date range.
+     * Returns a list of the top N customers by spending within an optional date
+     * range.
      */
-    @Transactional(readOnly = true)
     public List<TopSpender> getTopSpenders(int count, LocalDate from, LocalDate to) {
-        LocalDateTime fromDateTime = from != null ? from.atStartOfDay() : null;
-        LocalDateTime toDateTime = to != null ? to.atTime(LocalTime.MAX) : null;
-        List<Object[]> results = transactionRepository.sumAmountPerCustomer(fromDateTime, toDateTime);
-        return results.stream()
-                .limit(count)
-                .map(row -> new TopSpender((Long) row[0], (BigDecimal) row[1]))
-                .collect(Collectors.toList());
+        return topSpendersTimer.record(() -> spendAnalytics.topSpenders(count, from, to));
     }
 
     /**
      * Returns the top categories for a given customer.
      */
-    @Transactional(readOnly = true)
     public List<TopCategory> getTopCategoriesForCustomer(Long customerId, int count, LocalDate from, LocalDate to) {
-        LocalDateTime fromDateTime = from != null ? from.atStartOfDay() : null;
-        LocalDateTime toDateTime = to != null ? to.atTime(LocalTime.MAX) : null;
-        List<Object[]> results = transactionRepository.topCategoriesForCustomer(customerId, fromDateTime, toDateTime);
-        return results.stream()
-                .limit(count)
-                .map(row -> new TopCategory((Category) row[0], (BigDecimal) row[1]))
-                .collect(Collectors.toList());
+        return topCategoriesTimer.record(() -> spendAnalytics.topCategories(customerId, count, from, to));
     }
 
     /**
      * Returns the top categories across all customers.
      */
-    @Transactional(readOnly = true)
     public List<TopCategory> getTopCategoriesOverall(int count, LocalDate from, LocalDate to) {
-        LocalDateTime fromDateTime = from != null ? from.atStartOfDay() : null;
-        LocalDateTime toDateTime = to != null ? to.atTime(LocalTime.MAX) : null;
-        List<Object[]> results = transactionRepository.topCategoriesOverall(fromDateTime, toDateTime);
-        return results.stream()
-                .limit(count)
-                .map(row -> new TopCategory((Category) row[0], (BigDecimal) row[1]))
-                .collect(Collectors.toList());
+        return topCategoriesTimer.record(() -> spendAnalytics.topCategories(null, count, from, to));
+    }
+
+    /**
+     * Returns a customer's spend per day, week or month within the optional
+     * date range, or across all customers when {@code customerId} is null.
+     *
+     * @throws IllegalArgumentException if the range has too many buckets
+     */
+    public SpendTrend getSpendTrend(Long customerId, TrendGranularity granularity, LocalDate from, LocalDate to) {
+        if (customerId != null && !customerRepository.existsById(customerId)) {
+            throw new NoSuchElementException("Customer not found");
+        }
+        List<TrendBucket> buckets = trendTimer.record(() -> spendTrends.trend(customerId, granularity, from, to));
+        long totalCents = 0;
+        for (TrendBucket bucket : buckets) {
+            totalCents = Math.addExact(totalCents, bucket.getTotalSpent().getCents());
+        }
+        return SpendTrend.builder()
+                .customerId(customerId)
+                .periodDescription(buildPeriodDescription(from, to))
+                .granularity(granularity)
+                .totalSpent(Money.ofCents(totalCents))
+                .buckets(buckets)
+                .build();
+    }
+
+    /**
+     * Returns one page of a customer's transactions ordered by (timestamp, id),
+     * starting after the given cursor (or from the beginning when null). One
+     * extra row is fetched to decide whether a next cursor is needed.
+     */
+    @Transactional(readOnly = true)
+    public TransactionPage getTransactionPage(Long customerId, LocalDate from, LocalDate to, TransactionCursor cursor, int limit) {
+        int pageSize = Math.max(1, Math.min(limit, MAX_PAGE_SIZE));
+        LocalDateTime fromDateTime = QueryBounds.lowerTimestamp(from);
+        LocalDateTime toDateTime = QueryBounds.upperTimestamp(to);
+        LocalDateTime afterTimestamp = cursor != null ? cursor.getTimestamp() : fromDateTime;
+        long afterId = cursor != null ? cursor.getId() : 0L;
+        List<TransactionView> rows = listing.isPresent()
+                ? listing.get().page(customerId, fromDateTime, toDateTime, afterTimestamp, afterId, pageSize + 1)
+                : transactionRepository.findPageByCustomer(customerId, fromDateTime, toDateTime,
+                        afterTimestamp, afterId, PageRequest.of(0, pageSize + 1));
+        if (rows.size() <= pageSize) {
+            return new TransactionPage(rows, null);
+        }
+        List<TransactionView> items = rows.subList(0, pageSize);
+        TransactionView last = items.get(pageSize - 1);
+        return new TransactionPage(new ArrayList<>(items), new TransactionCursor(last.getTimestamp(), last.getId()).encode());
+    }
+
+    private static CustomerSummary buildCustomerSummary(Long customerId, List<CategoryBreakdownEntry> breakdown,
+                                                        String periodDesc) {
+        long totalCents = 0;
+        Category topCategory = null;
+        long topCents = 0;
+        for (CategoryBreakdownEntry entry : breakdown) {
+            long cents = entry.getTotal().getCents();
+            totalCents = Math.addExact(totalCents, cents);
+            if (outranks(cents, entry.getCategory(), topCents, topCategory)) {
+                topCents = cents;
+                topCategory = entry.getCategory();
+            }
+        }
+        // In case there are no transactions, topCategory stays null
+        return CustomerSummary.builder()
+                .customerId(customerId)
+                .periodDescription(periodDesc)
+                .totalSpent(Money.ofCents(totalCents))
+                .breakdown(breakdown)
+                .topCategory(topCategory)
+                .build();
+    }
+
+    /**
+     * Whether a category total beats the current top one. Equal totals go to
+     * the category name that sorts first, as in {@code topCategories}, so the
+     * result does not depend on the order the engine lists the breakdown in.
+     */
+    private static boolean outranks(long cents, Category category, long topCents, Category topCategory) {
+        return cents > topCents
+                || (cents == topCents && topCategory != null && category.name().compareTo(topCategory.name()) < 0);
     }
 
     private String buildPeriodDescription(LocalDate from, LocalDate to) {
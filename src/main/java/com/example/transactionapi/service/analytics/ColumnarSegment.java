@@ -0,0 +1,186 @@
+package com.example.transactionapi.service.analytics;
+
+import java.util.Arrays;
+
+/**
+ * Immutable block of transactions stored as parallel primitive columns and
+ * sorted by timestamp. A secondary index groups row positions by customer
+ * (each group still in time order), so per-customer ranges are found by two
+ * binary searches instead of a scan.
+ * <p>
+ * Columns: {@code time} in epoch seconds (UTC), {@code amount} in cents,
+ * {@code category} as the enum ordinal and {@code customer} as the id.
+ */
+final class ColumnarSegment {
+
+    static final ColumnarSegment EMPTY = new ColumnarSegment(new long[0], new long[0], new byte[0], new int[0]);
+
+    final int size;
+    final long[] time;
+    final long[] amount;
+    final byte[] category;
+    final int[] customer;
+
+    /** Distinct customer ids, ascending. */
+    final int[] customerIds;
+    /** Start of each customer's group in {@link #customerRows}; one extra trailing entry. */
+    final int[] customerOffsets;
+    /** Row positions grouped by customer, in time order within a group. */
+    final int[] customerRows;
+
+    /**
+     * Takes ownership of the arrays, which must already be sorted by time and
+     * have the same length.
+     */
+    ColumnarSegment(long[] time, long[] amount, byte[] category, int[] customer) {
+        this.size = time.length;
+        this.time = time;
+        this.amount = amount;
+        this.category = category;
+        this.customer = customer;
+
+        int[] ids = customer.clone();
+        Arrays.sort(ids);
+        int distinct = 0;
+        for (int i = 0; i < ids.length; i++) {
+            if (i == 0 || ids[i] != ids[i - 1]) {
+                ids[distinct++] = ids[i];
+            }
+        }
+        this.customerIds = Arrays.copyOf(ids, distinct);
+
+        int[] offsets = new int[distinct + 1];
+        int[] rank = new int[size];
+        for (int row = 0; row < size; row++) {
+            rank[row] = Arrays.binarySearch(customerIds, customer[row]);
+            offsets[rank[row] + 1]++;
+        }
+        for (int r = 0; r < distinct; r++) {
+            offsets[r + 1] += offsets[r];
+        }
+        int[] fill = Arrays.copyOf(offsets, distinct);
+        int[] rows = new int[size];
+        // Rows are visited in time order, so each group ends up time ordered
+        for (int row = 0; row < size; row++) {
+            rows[fill[rank[row]]++] = row;
+        }
+        this.customerOffsets = offsets;
+        this.customerRows = rows;
+    }
+
+    /** Builds a segment from unsorted rows, sorting them by time. */
+    static ColumnarSegment sortedCopyOf(long[] time, long[] amount, byte[] category, int[] customer, int size) {
+        Integer[] order = new Integer[size];
+        for (int i = 0; i < size; i++) {
+            order[i] = i;
+        }
+        Arrays.sort(order, (a, b) -> Long.compare(time[a], time[b]));
+        long[] t = new long[size];
+        long[] a = new long[size];
+        byte[] c = new byte[size];
+        int[] u = new int[size];
+        for (int i = 0; i < size; i++) {
+            int from = order[i];
+            t[i] = time[from];
+            a[i] = amount[from];
+            c[i] = category[from];
+            u[i] = customer[from];
+        }
+        return new ColumnarSegment(t, a, c, u);
+    }
+
+    /** Merges two time-sorted segments into one. */
+    static ColumnarSegment merge(ColumnarSegment left, ColumnarSegment right) {
+        int size = left.size + right.size;
+        long[] t = new long[size];
+        long[] a = new long[size];
+        byte[] c = new byte[size];
+        int[] u = new int[size];
+        int i = 0, j = 0;
+        for (int k = 0; k < size; k++) {
+            ColumnarSegment from;
+            int row;
+            if (j >= right.size || (i < left.size && left.time[i] <= right.time[j])) {
+                from = left;
+                row = i++;
+            } else {
+                from = right;
+                row = j++;
+            }
+            t[k] = from.time[row];
+            a[k] = from.amount[row];
+            c[k] = from.category[row];
+            u[k] = from.customer[row];
+        }
+        return new ColumnarSegment(t, a, c, u);
+    }
+
+    /** First row with {@code time >= value}. */
+    int lowerBound(long value) {
+        int lo = 0, hi = size;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (time[mid] < value) {
+                lo = mid + 1;
+            } else {
+                hi = mid;
+            }
+        }
+        return lo;
+    }
+
+    /**
+     * Adds the amounts of rows {@code [fromRow, toRow)} to {@code sums} by
+     * category ordinal and counts them in {@code counts}.
+     *
+     * @throws ArithmeticException if a total overflows a long of cents
+     */
+    void sumByCategory(int fromRow, int toRow, long[] sums, long[] counts) {
+        for (int row = fromRow; row < toRow; row++) {
+            sums[category[row]] = Math.addExact(sums[category[row]], amount[row]);
+            counts[category[row]]++;
+        }
+    }
+
+    /**
+     * Adds the amounts of one customer's rows with {@code time} in
+     * {@code [fromInclusive, toExclusive)} by category, as above.
+     */
+    void sumByCategory(int customerId, long fromInclusive, long toExclusive, long[] sums, long[] counts) {
+        int r = Arrays.binarySearch(customerIds, customerId);
+        if (r < 0) {
+            return;
+        }
+        int groupEnd = customerOffsets[r + 1];
+        int end = customerLowerBound(customerOffsets[r], groupEnd, toExclusive);
+        for (int i = customerLowerBound(customerOffsets[r], groupEnd, fromInclusive); i < end; i++) {
+            int row = customerRows[i];
+            sums[category[row]] = Math.addExact(sums[category[row]], amount[row]);
+            counts[category[row]]++;
+        }
+    }
+
+    /**
+     * Adds the amounts of rows {@code [fromRow, toRow)} to {@code sums} by
+     * customer id and counts them in {@code counts}.
+     */
+    void sumByCustomer(int fromRow, int toRow, long[] sums, long[] counts) {
+        for (int row = fromRow; row < toRow; row++) {
+            sums[customer[row]] = Math.addExact(sums[customer[row]], amount[row]);
+            counts[customer[row]]++;
+        }
+    }
+
+    /** First position in {@code customerRows[lo, hi)} whose row has {@code time >= value}. */
+    private int customerLowerBound(int lo, int hi, long value) {
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (time[customerRows[mid]] < value) {
+                lo = mid + 1;
+            } else {
+                hi = mid;
+            }
+        }
+        return lo;
+    }
+}
@@ -0,0 +1,198 @@
+package com.example.transactionapi.service.analytics;
+
+import com.example.transactionapi.model.Category;
+import com.example.transactionapi.model.Money;
+import com.example.transactionapi.model.Transaction;
+import com.example.transactionapi.repository.QueryBounds;
+import com.example.transactionapi.service.ingest.TransactionBatchListener;
+import com.example.transactionapi.web.dto.CategoryBreakdownEntry;
+import com.example.transactionapi.web.dto.TopCategory;
+import com.example.transactionapi.web.dto.TopSpender;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.annotation.Order;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * In-memory analytics engine enabled with {@code analytics.engine=columnar}.
+ * Every ingested transaction is kept as about 25 bytes of primitive columns
+ * (see {@link ColumnarSegment}), so aggregations are tight loops over
+ * binary-searched time ranges with no boxing and no database round trip.
+ * Query allocation is bounded by the number of categories, or by the highest
+ * customer id for top spenders, never by the number of transactions.
+ * <p>
+ * The store is seeded from the transactions table on startup and then kept
+ * current from ingested batches. Amounts are held in cents, as in the
+ * database, so sums match the JPA engine exactly.
+ * <p>
+ * Cross-customer queries over more than {@code analytics.parallel-threshold}
+ * rows are split into time partitions and summed on a dedicated fork-join
+ * pool of {@code analytics.parallelism} workers (default: one per core), see
+ * {@link ParallelRangeScan}.
+ */
+@Component
+@Order(0)
+@ConditionalOnProperty(name = "analytics.engine", havingValue = "columnar")
+@Slf4j
+public class ColumnarSpendAnalytics implements SpendAnalytics, TransactionBatchListener {
+
+    private static final Category[] CATEGORIES = Category.values();
+    private static final int SEED_CHUNK = 65_536;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ForkJoinPool pool;
+    private final ParallelRangeScan rangeScan;
+
+    private final ColumnarTransactionStore store = new ColumnarTransactionStore();
+
+    public ColumnarSpendAnalytics(JdbcTemplate jdbcTemplate,
+                                  @Value("${analytics.parallelism:0}") int parallelism,
+                                  @Value("${analytics.parallel-threshold:262144}") int parallelThreshold) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.pool = new ForkJoinPool(parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors());
+        this.rangeScan = new ParallelRangeScan(pool, parallelThreshold);
+    }
+
+    @PostConstruct
+    public void seed() {
+        Chunk chunk = new Chunk(SEED_CHUNK);
+        jdbcTemplate.query("SELECT timestamp, amount_cents, category, customer_id FROM transactions", rs -> {
+            chunk.add(rs.getObject(1, LocalDateTime.class), rs.getLong(2),
+                    Category.valueOf(rs.getString(3)), rs.getLong(4));
+            if (chunk.size == SEED_CHUNK) {
+                chunk.flushTo(store);
+            }
+        });
+        chunk.flushTo(store);
+        log.info("Columnar analytics seeded with {} transactions", store.size());
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        pool.shutdown();
+    }
+
+    /**
+     * A restore replaces the table contents, including rows the store was
+     * seeded with before an interrupted restore was started over, so the
+     * store is emptied and seeded again.
+     */
+    @Override
+    public void onRestored() {
+        store.clear();
+        seed();
+    }
+
+    @Override
+    public void onBatchWritten(List<Transaction> batch) {
+        Chunk chunk = new Chunk(batch.size());
+        for (Transaction t : batch) {
+            chunk.add(t.getTimestamp(), t.getAmount().getCents(), t.getCategory(), t.getCustomer().getId());
+        }
+        chunk.flushTo(store);
+    }
+
+    @Override
+    public List<CategoryBreakdownEntry> totalsByCategory(Long customerId, LocalDate from, LocalDate to) {
+        long[] sums = new long[CATEGORIES.length];
+        long[] counts = new long[CATEGORIES.length];
+        sumByCategory(customerId, from, to, sums, counts);
+        List<CategoryBreakdownEntry> result = new ArrayList<>();
+        for (int c = 0; c < CATEGORIES.length; c++) {
+            if (counts[c] > 0) {
+                result.add(new CategoryBreakdownEntry(CATEGORIES[c], Money.ofCents(sums[c])));
+            }
+        }
+        return result;
+    }
+
+    @Override
+    public List<TopSpender> topSpenders(int count, LocalDate from, LocalDate to) {
+        ColumnarSegment[] segments = store.segments();
+        // Read after the segments so every customer id in them is covered
+        int maxCustomerId = store.maxCustomerId();
+        long[] sums = new long[maxCustomerId + 1];
+        long[] counts = new long[maxCustomerId + 1];
+        rangeScan.run(segments, lowerSecond(from), upperSecondExclusive(to), ColumnarSegment::sumByCustomer, sums, counts);
+        int[] top = TopN.select(sums, counts, count);
+        List<TopSpender> result = new ArrayList<>(top.length);
+        for (int id : top) {
+            result.add(new TopSpender((long) id, Money.ofCents(sums[id])));
+        }
+        return result;
+    }
+
+    @Override
+    public List<TopCategory> topCategories(Long customerId, int count, LocalDate from, LocalDate to) {
+        long[] sums = new long[CATEGORIES.length];
+        long[] counts = new long[CATEGORIES.length];
+        sumByCategory(customerId, from, to, sums, counts);
+        int[] top = TopN.selectCategories(sums, counts, count);
+        List<TopCategory> result = new ArrayList<>(top.length);
+        for (int c : top) {
+            result.add(new TopCategory(CATEGORIES[c], Money.ofCents(sums[c])));
+        }
+        return result;
+    }
+
+    private void sumByCategory(Long customerId, LocalDate from, LocalDate to, long[] sums, long[] counts) {
+        long fromSecond = lowerSecond(from);
+        long toSecond = upperSecondExclusive(to);
+        if (customerId == null) {
+            rangeScan.run(store.segments(), fromSecond, toSecond, ColumnarSegment::sumByCategory, sums, counts);
+            return;
+        }
+        int id = Math.toIntExact(customerId);
+        for (ColumnarSegment segment : store.segments()) {
+            segment.sumByCategory(id, fromSecond, toSecond, sums, counts);
+        }
+    }
+
+    private static long lowerSecond(LocalDate from) {
+        return QueryBounds.lower(from).atStartOfDay().toEpochSecond(ZoneOffset.UTC);
+    }
+
+    private static long upperSecondExclusive(LocalDate to) {
+        return QueryBounds.upper(to).plusDays(1).atStartOfDay().toEpochSecond(ZoneOffset.UTC);
+    }
+
+    /** Reusable staging arrays for one append. */
+    private static final class Chunk {
+        final long[] time;
+        final long[] amount;
+        final byte[] category;
+        final int[] customer;
+        int size;
+
+        Chunk(int capacity) {
+            time = new long[capacity];
+            amount = new long[capacity];
+            category = new byte[capacity];
+            customer = new int[capacity];
+        }
+
+        void add(LocalDateTime timestamp, long cents, Category cat, long customerId) {
+            time[size] = timestamp.toEpochSecond(ZoneOffset.UTC);
+            amount[size] = cents;
+            category[size] = (byte) cat.ordinal();
+            customer[size] = Math.toIntExact(customerId);
+            size++;
+        }
+
+        void flushTo(ColumnarTransactionStore store) {
+            store.append(time, amount, category, customer, size);
+            size = 0;
+        }
+    }
+}
@@ -0,0 +1,62 @@
+package com.example.transactionapi.service.analytics;
+
+import java.util.Arrays;
+
+/**
+ * Append-only columnar store made of immutable, time-sorted
+ * {@link ColumnarSegment}s. Each appended batch becomes a new segment, and
+ * neighbouring segments are merged whenever the older one is less than twice
+ * the size of the newer one. Segment sizes therefore shrink geometrically,
+ * there are at most about log2(n) of them, and each row is rewritten O(log n)
+ * times over its life.
+ * <p>
+ * Writers are serialised; readers take the current segment array from a
+ * volatile field and never lock.
+ */
+final class ColumnarTransactionStore {
+
+    private volatile ColumnarSegment[] segments = new ColumnarSegment[0];
+    private volatile int maxCustomerId;
+
+    /** Appends rows given in any order. The arrays are not retained. */
+    synchronized void append(long[] time, long[] amount, byte[] category, int[] customer, int size) {
+        if (size == 0) {
+            return;
+        }
+        ColumnarSegment[] current = Arrays.copyOf(segments, segments.length + 1);
+        current[current.length - 1] = ColumnarSegment.sortedCopyOf(time, amount, category, customer, size);
+        int count = current.length;
+        while (count >= 2 && current[count - 2].size < 2 * current[count - 1].size) {
+            current[count - 2] = ColumnarSegment.merge(current[count - 2], current[count - 1]);
+            count--;
+        }
+        int max = maxCustomerId;
+        for (int i = 0; i < size; i++) {
+            max = Math.max(max, customer[i]);
+        }
+        maxCustomerId = max;
+        segments = count == current.length ? current : Arrays.copyOf(current, count);
+    }
+
+    /** Drops every row, before the store is seeded again. */
+    synchronized void clear() {
+        segments = new ColumnarSegment[0];
+        maxCustomerId = 0;
+    }
+
+    ColumnarSegment[] segments() {
+        return segments;
+    }
+
+    int maxCustomerId() {
+        return maxCustomerId;
+    }
+
+    long size() {
+        long size = 0;
+        for (ColumnarSegment segment : segments) {
+            size += segment.size;
+        }
+        return size;
+    }
+}
@@ -0,0 +1,152 @@
+package com.example.transactionapi.service.analytics;
+
+import com.example.transactionapi.model.Category;
+import com.example.transactionapi.model.Money;
+import com.example.transactionapi.repository.DailySpendRepository;
+import com.example.transactionapi.repository.MonthlySpendRepository;
+import com.example.transactionapi.repository.RollupRange;
+import com.example.transactionapi.service.rollup.SpendLeaderboard;
+import com.example.transactionapi.web.dto.CategoryBreakdownEntry;
+import com.example.transactionapi.web.dto.TopCategory;
+import com.example.transactionapi.web.dto.TopSpender;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.TreeMap;
+import java.util.stream.Collectors;
+
+/**
+ * Reference analytics engine. Sums are computed from the spend rollups, which
+ * are maintained during ingestion, so a query never scans raw transactions.
+ * A date range is split by {@link RollupRange}: whole months are read from the
+ * monthly rollup and only the partial months at either end from the daily
+ * one, so a query over years of history reads a few dozen buckets per
+ * customer and category rather than one per day. All-time top spenders are
+ * answered from the {@link SpendLeaderboard} when it is enabled.
+ */
+@Component
+@ConditionalOnProperty(name = "analytics.engine", havingValue = "jpa", matchIfMissing = true)
+@RequiredArgsConstructor
+public class JpaSpendAnalytics implements SpendAnalytics {
+
+    private final DailySpendRepository dailySpendRepository;
+    private final MonthlySpendRepository monthlySpendRepository;
+    private final Optional<SpendLeaderboard> leaderboard;
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<CategoryBreakdownEntry> totalsByCategory(Long customerId, LocalDate from, LocalDate to) {
+        return sumByCategory(customerId, RollupRange.of(from, to)).entrySet().stream()
+                .map(e -> new CategoryBreakdownEntry(e.getKey(), Money.ofCents(e.getValue())))
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Each part of the range is one query grouped by customer and category
+     * over the whole collection, so the cost does not grow with the number of
+     * round trips.
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public Map<Long, List<CategoryBreakdownEntry>> totalsByCustomerAndCategory(Collection<Long> customerIds,
+                                                                                LocalDate from, LocalDate to) {
+        RollupRange range = RollupRange.of(from, to);
+        Map<Long, Map<Category, Long>> totals = new HashMap<>();
+        if (range.hasHead()) {
+            addPerCustomer(totals, dailySpendRepository.sumAmountByCustomersAndCategory(customerIds, range.getHeadFrom(), range.getHeadTo()));
+        }
+        if (range.hasMonths()) {
+            addPerCustomer(totals, monthlySpendRepository.sumAmountByCustomersAndCategory(customerIds, range.getMonthFrom(), range.getMonthTo()));
+        }
+        if (range.hasTail()) {
+            addPerCustomer(totals, dailySpendRepository.sumAmountByCustomersAndCategory(customerIds, range.getTailFrom(), range.getTailTo()));
+        }
+        Map<Long, List<CategoryBreakdownEntry>> result = new LinkedHashMap<>();
+        for (Long customerId : customerIds) {
+            Map<Category, Long> customerTotals = totals.get(customerId);
+            if (customerTotals != null) {
+                result.put(customerId, customerTotals.entrySet().stream()
+                        .map(e -> new CategoryBreakdownEntry(e.getKey(), Money.ofCents(e.getValue())))
+                        .collect(Collectors.toList()));
+            }
+        }
+        return result;
+    }
+
+    /**
+     * The limit is applied in the database, so memory use scales with
+     * {@code count} rather than with the number of customers.
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public List<TopSpender> topSpenders(int count, LocalDate from, LocalDate to) {
+        if (from == null && to == null && leaderboard.isPresent()) {
+            return leaderboard.get().top(count);
+        }
+        RollupRange range = RollupRange.of(from, to);
+        List<Object[]> results = monthlySpendRepository.sumAmountPerCustomer(range.getHeadFrom(), range.getHeadTo(),
+                range.getMonthFrom(), range.getMonthTo(), range.getTailFrom(), range.getTailTo(), count);
+        return results.stream()
+                .map(row -> new TopSpender(((Number) row[0]).longValue(), Money.ofCents(((Number) row[1]).longValue())))
+                .collect(Collectors.toList());
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<TopCategory> topCategories(Long customerId, int count, LocalDate from, LocalDate to) {
+        return sumByCategory(customerId, RollupRange.of(from, to)).entrySet().stream()
+                .sorted(Map.Entry.<Category, Long>comparingByValue().reversed()
+                        .thenComparing(e -> e.getKey().name()))
+                .limit(Math.max(count, 0))
+                .map(e -> new TopCategory(e.getKey(), Money.ofCents(e.getValue())))
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Sums the daily head, the whole months and the daily tail of the range
+     * per category, for one customer or for everyone. Parts that are empty
+     * are not queried. Categories come back in name order.
+     */
+    private Map<Category, Long> sumByCategory(Long customerId, RollupRange range) {
+        Map<Category, Long> totals = new TreeMap<>(Comparator.comparing(Category::name));
+        if (range.hasHead()) {
+            add(totals, customerId != null
+                    ? dailySpendRepository.sumAmountByCustomerAndCategory(customerId, range.getHeadFrom(), range.getHeadTo())
+                    : dailySpendRepository.sumAmountByCategory(range.getHeadFrom(), range.getHeadTo()));
+        }
+        if (range.hasMonths()) {
+            add(totals, customerId != null
+                    ? monthlySpendRepository.sumAmountByCustomerAndCategory(customerId, range.getMonthFrom(), range.getMonthTo())
+                    : monthlySpendRepository.sumAmountByCategory(range.getMonthFrom(), range.getMonthTo()));
+        }
+        if (range.hasTail()) {
+            add(totals, customerId != null
+                    ? dailySpendRepository.sumAmountByCustomerAndCategory(customerId, range.getTailFrom(), range.getTailTo())
+                    : dailySpendRepository.sumAmountByCategory(range.getTailFrom(), range.getTailTo()));
+        }
+        return totals;
+    }
+
+    private static void addPerCustomer(Map<Long, Map<Category, Long>> totals, List<Object[]> rows) {
+        for (Object[] row : rows) {
+            totals.computeIfAbsent((Long) row[0], id -> new TreeMap<>(Comparator.comparing(Category::name)))
+                    .merge((Category) row[1], (Long) row[2], Math::addExact);
+        }
+    }
+
+    private static void add(Map<Category, Long> totals, List<Object[]> rows) {
+        for (Object[] row : rows) {
+            totals.merge((Category) row[0], (Long) row[1], Math::addExact);
+        }
+    }
+}
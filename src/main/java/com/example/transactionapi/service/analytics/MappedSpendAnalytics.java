@@ -0,0 +1,84 @@
+package com.example.transactionapi.service.analytics;
+
+import com.example.transactionapi.model.Category;
+import com.example.transactionapi.model.Money;
+import com.example.transactionapi.repository.QueryBounds;
+import com.example.transactionapi.service.storage.MappedTransactionStore;
+import com.example.transactionapi.web.dto.CategoryBreakdownEntry;
+import com.example.transactionapi.web.dto.TopCategory;
+import com.example.transactionapi.web.dto.TopSpender;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Analytics engine enabled with {@code analytics.engine=mapped}. Sums are
+ * scans over the fixed-width records of the {@link MappedTransactionStore},
+ * which live outside the heap; segments outside the requested time range are
+ * skipped and per-customer queries only visit that customer's rows through
+ * the segment indexes. Query allocation is bounded by the number of
+ * categories, or by the highest customer id for top spenders.
+ */
+@Component
+@ConditionalOnProperty(name = "analytics.engine", havingValue = "mapped")
+@RequiredArgsConstructor
+public class MappedSpendAnalytics implements SpendAnalytics {
+
+    private static final Category[] CATEGORIES = Category.values();
+
+    private final MappedTransactionStore store;
+
+    @Override
+    public List<CategoryBreakdownEntry> totalsByCategory(Long customerId, LocalDate from, LocalDate to) {
+        long[] sums = new long[CATEGORIES.length];
+        long[] counts = new long[CATEGORIES.length];
+        store.sumByCategory(customerId, lowerSecond(from), upperSecondExclusive(to), sums, counts);
+        List<CategoryBreakdownEntry> result = new ArrayList<>();
+        for (int c = 0; c < CATEGORIES.length; c++) {
+            if (counts[c] > 0) {
+                result.add(new CategoryBreakdownEntry(CATEGORIES[c], Money.ofCents(sums[c])));
+            }
+        }
+        return result;
+    }
+
+    @Override
+    public List<TopSpender> topSpenders(int count, LocalDate from, LocalDate to) {
+        int maxCustomerId = store.maxCustomerId();
+        long[] sums = new long[maxCustomerId + 1];
+        long[] counts = new long[maxCustomerId + 1];
+        store.sumByCustomer(lowerSecond(from), upperSecondExclusive(to), sums, counts);
+        int[] top = TopN.select(sums, counts, count);
+        List<TopSpender> result = new ArrayList<>(top.length);
+        for (int id : top) {
+            result.add(new TopSpender((long) id, Money.ofCents(sums[id])));
+        }
+        return result;
+    }
+
+    @Override
+    public List<TopCategory> topCategories(Long customerId, int count, LocalDate from, LocalDate to) {
+        long[] sums = new long[CATEGORIES.length];
+        long[] counts = new long[CATEGORIES.length];
+        store.sumByCategory(customerId, lowerSecond(from), upperSecondExclusive(to), sums, counts);
+        int[] top = TopN.selectCategories(sums, counts, count);
+        List<TopCategory> result = new ArrayList<>(top.length);
+        for (int c : top) {
+            result.add(new TopCategory(CATEGORIES[c], Money.ofCents(sums[c])));
+        }
+        return result;
+    }
+
+    private static long lowerSecond(LocalDate from) {
+        return QueryBounds.lower(from).atStartOfDay().toEpochSecond(ZoneOffset.UTC);
+    }
+
+    private static long upperSecondExclusive(LocalDate to) {
+        return QueryBounds.upper(to).plusDays(1).atStartOfDay().toEpochSecond(ZoneOffset.UTC);
+    }
+}
@@ -0,0 +1,136 @@
+package com.example.transactionapi.service.analytics;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Sums the rows of a time range across all segments on a fork-join pool.
+ * The matching rows are cut into contiguous partitions of roughly equal size
+ * (two per worker), each partition accumulates into its own partial arrays,
+ * and partials are merged pairwise as tasks join. Because segments are sorted
+ * by time, every partition is a plain row range and needs no filtering.
+ * <p>
+ * Ranges smaller than the threshold, or a pool of one, are scanned on the
+ * calling thread into the caller's arrays.
+ */
+final class ParallelRangeScan {
+
+    /** Accumulates rows {@code [fromRow, toRow)} of a segment into partial sums and counts. */
+    @FunctionalInterface
+    interface Kernel {
+        void scan(ColumnarSegment segment, int fromRow, int toRow, long[] sums, long[] counts);
+    }
+
+    private final ForkJoinPool pool;
+    private final int threshold;
+
+    ParallelRangeScan(ForkJoinPool pool, int threshold) {
+        this.pool = pool;
+        this.threshold = threshold;
+    }
+
+    /**
+     * Runs the kernel over rows with {@code time} in
+     * {@code [fromInclusive, toExclusive)}. {@code sums} and {@code counts}
+     * must have the same length and receive the totals.
+     */
+    void run(ColumnarSegment[] segments, long fromInclusive, long toExclusive, Kernel kernel, long[] sums, long[] counts) {
+        int[] starts = new int[segments.length];
+        int[] ends = new int[segments.length];
+        long total = 0;
+        for (int s = 0; s < segments.length; s++) {
+            starts[s] = segments[s].lowerBound(fromInclusive);
+            ends[s] = segments[s].lowerBound(toExclusive);
+            total += ends[s] - starts[s];
+        }
+        int partitions = pool.getParallelism() * 2;
+        if (total < threshold || pool.getParallelism() == 1) {
+            for (int s = 0; s < segments.length; s++) {
+                kernel.scan(segments[s], starts[s], ends[s], sums, counts);
+            }
+            return;
+        }
+        long perPartition = (total + partitions - 1) / partitions;
+        Partial result = pool.invoke(new ScanTask(segments, starts, ends, kernel, sums.length, perPartition, 0, total));
+        for (int i = 0; i < sums.length; i++) {
+            sums[i] = Math.addExact(sums[i], result.sums[i]);
+            counts[i] += result.counts[i];
+        }
+    }
+
+    private static final class Partial {
+        final long[] sums;
+        final long[] counts;
+
+        Partial(int width) {
+            sums = new long[width];
+            counts = new long[width];
+        }
+
+        Partial mergeFrom(Partial other) {
+            for (int i = 0; i < sums.length; i++) {
+                sums[i] = Math.addExact(sums[i], other.sums[i]);
+                counts[i] += other.counts[i];
+            }
+            return this;
+        }
+    }
+
+    /**
+     * Covers matching rows {@code [from, to)} counted across segments in
+     * order, splitting in half until a piece fits in one partition.
+     */
+    private static final class ScanTask extends RecursiveTask<Partial> {
+        private final ColumnarSegment[] segments;
+        private final int[] starts;
+        private final int[] ends;
+        private final Kernel kernel;
+        private final int width;
+        private final long perPartition;
+        private final long from;
+        private final long to;
+
+        ScanTask(ColumnarSegment[] segments, int[] starts, int[] ends, Kernel kernel, int width,
+                 long perPartition, long from, long to) {
+            this.segments = segments;
+            this.starts = starts;
+            this.ends = ends;
+            this.kernel = kernel;
+            this.width = width;
+            this.perPartition = perPartition;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected Partial compute() {
+            if (to - from <= perPartition) {
+                return scanDirectly();
+            }
+            // Split on a partition boundary so pieces stay evenly sized
+            long pieces = (to - from + perPartition - 1) / perPartition;
+            long mid = from + (pieces / 2) * perPartition;
+            ScanTask left = new ScanTask(segments, starts, ends, kernel, width, perPartition, from, mid);
+            ScanTask right = new ScanTask(segments, starts, ends, kernel, width, perPartition, mid, to);
+            left.fork();
+            Partial rightResult = right.compute();
+            return left.join().mergeFrom(rightResult);
+        }
+
+        private Partial scanDirectly() {
+            Partial partial = new Partial(width);
+            long offset = 0;
+            for (int s = 0; s < segments.length && offset < to; s++) {
+                int length = ends[s] - starts[s];
+                long lo = Math.max(from, offset);
+                long hi = Math.min(to, offset + length);
+                if (lo < hi) {
+                    kernel.scan(segments[s], starts[s] + (int) (lo - offset), starts[s] + (int) (hi - offset),
+                            partial.sums, partial.counts);
+                }
+                offset += length;
+            }
+            return partial;
+        }
+    }
+}
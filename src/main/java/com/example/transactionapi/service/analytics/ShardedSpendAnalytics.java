@@ -0,0 +1,146 @@
+package com.example.transactionapi.service.analytics;
+
+import com.example.transactionapi.model.Category;
+import com.example.transactionapi.model.Money;
+import com.example.transactionapi.repository.QueryBounds;
+import com.example.transactionapi.service.sharding.TransactionShards;
+import com.example.transactionapi.web.dto.CategoryBreakdownEntry;
+import com.example.transactionapi.web.dto.TopCategory;
+import com.example.transactionapi.web.dto.TopSpender;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.sql.Date;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Analytics engine enabled with {@code analytics.engine=sharded}. Sums come
+ * from the daily spend rollup of each {@link TransactionShards} database.
+ * Queries for one customer run on that customer's shard only; cross-customer
+ * queries run on every shard in parallel and the partial results are merged
+ * here. Because every customer lives on exactly one shard, per-shard top
+ * spender lists merge into the exact overall ranking.
+ */
+@Component
+@ConditionalOnProperty(name = "analytics.engine", havingValue = "sharded")
+@RequiredArgsConstructor
+public class ShardedSpendAnalytics implements SpendAnalytics {
+
+    private static final Category[] CATEGORIES = Category.values();
+
+    private static final String SUM_BY_CATEGORY_SQL = "SELECT category, SUM(total_cents) FROM daily_spend " +
+            "WHERE spend_date BETWEEN ? AND ? GROUP BY category";
+    private static final String SUM_BY_CUSTOMER_AND_CATEGORY_SQL = "SELECT category, SUM(total_cents) FROM daily_spend " +
+            "WHERE customer_id = ? AND spend_date BETWEEN ? AND ? GROUP BY category";
+    private static final String SUM_BY_CUSTOMERS_AND_CATEGORY_SQL = "SELECT customer_id, category, SUM(total_cents) " +
+            "FROM daily_spend WHERE customer_id IN (%s) AND spend_date BETWEEN ? AND ? GROUP BY customer_id, category";
+    private static final String TOP_SPENDERS_SQL = "SELECT customer_id, SUM(total_cents) AS total FROM daily_spend " +
+            "WHERE spend_date BETWEEN ? AND ? GROUP BY customer_id ORDER BY total DESC, customer_id LIMIT ?";
+
+    private final TransactionShards shards;
+
+    @Override
+    public List<CategoryBreakdownEntry> totalsByCategory(Long customerId, LocalDate from, LocalDate to) {
+        long[] sums = new long[CATEGORIES.length];
+        long[] counts = new long[CATEGORIES.length];
+        sumByCategory(customerId, from, to, sums, counts);
+        List<CategoryBreakdownEntry> result = new ArrayList<>();
+        for (int c = 0; c < CATEGORIES.length; c++) {
+            if (counts[c] > 0) {
+                result.add(new CategoryBreakdownEntry(CATEGORIES[c], Money.ofCents(sums[c])));
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Each shard holding some of the customers answers for its share with one
+     * grouped query; the shards are queried in parallel.
+     */
+    @Override
+    public Map<Long, List<CategoryBreakdownEntry>> totalsByCustomerAndCategory(Collection<Long> customerIds,
+                                                                                LocalDate from, LocalDate to) {
+        Date lower = Date.valueOf(QueryBounds.lower(from));
+        Date upper = Date.valueOf(QueryBounds.upper(to));
+        Map<Long, List<CategoryBreakdownEntry>> totals = new HashMap<>();
+        shards.scatter(customerIds, (jdbc, ids) -> {
+            List<Object> args = new ArrayList<>(ids);
+            args.add(lower);
+            args.add(upper);
+            String sql = String.format(SUM_BY_CUSTOMERS_AND_CATEGORY_SQL, String.join(",", Collections.nCopies(ids.size(), "?")));
+            Map<Long, List<CategoryBreakdownEntry>> partial = new HashMap<>();
+            jdbc.query(sql, rs -> {
+                partial.computeIfAbsent(rs.getLong(1), id -> new ArrayList<>()).add(
+                        new CategoryBreakdownEntry(Category.valueOf(rs.getString(2)), Money.ofCents(rs.getLong(3))));
+            }, args.toArray());
+            return partial;
+        }).forEach(totals::putAll);
+        Map<Long, List<CategoryBreakdownEntry>> result = new LinkedHashMap<>();
+        for (Long customerId : customerIds) {
+            List<CategoryBreakdownEntry> breakdown = totals.get(customerId);
+            if (breakdown != null) {
+                result.put(customerId, breakdown);
+            }
+        }
+        return result;
+    }
+
+    @Override
+    public List<TopSpender> topSpenders(int count, LocalDate from, LocalDate to) {
+        if (count <= 0) {
+            return new ArrayList<>();
+        }
+        Date lower = Date.valueOf(QueryBounds.lower(from));
+        Date upper = Date.valueOf(QueryBounds.upper(to));
+        List<TopSpender> merged = new ArrayList<>();
+        shards.scatter(jdbc -> jdbc.query(TOP_SPENDERS_SQL,
+                        (rs, rowNum) -> new TopSpender(rs.getLong(1), Money.ofCents(rs.getLong(2))), lower, upper, count))
+                .forEach(merged::addAll);
+        merged.sort(Comparator.comparing(TopSpender::getTotalSpent).reversed()
+                .thenComparing(TopSpender::getCustomerId));
+        return new ArrayList<>(merged.subList(0, Math.min(count, merged.size())));
+    }
+
+    @Override
+    public List<TopCategory> topCategories(Long customerId, int count, LocalDate from, LocalDate to) {
+        long[] sums = new long[CATEGORIES.length];
+        long[] counts = new long[CATEGORIES.length];
+        sumByCategory(customerId, from, to, sums, counts);
+        int[] top = TopN.selectCategories(sums, counts, count);
+        List<TopCategory> result = new ArrayList<>(top.length);
+        for (int c : top) {
+            result.add(new TopCategory(CATEGORIES[c], Money.ofCents(sums[c])));
+        }
+        return result;
+    }
+
+    /** Adds category totals, from the customer's shard or from all of them, into the arrays. */
+    private void sumByCategory(Long customerId, LocalDate from, LocalDate to, long[] sums, long[] counts) {
+        Date lower = Date.valueOf(QueryBounds.lower(from));
+        Date upper = Date.valueOf(QueryBounds.upper(to));
+        List<List<long[]>> partials = customerId != null
+                ? List.of(shards.shardFor(customerId).query(SUM_BY_CUSTOMER_AND_CATEGORY_SQL,
+                        (rs, rowNum) -> categoryTotal(rs.getString(1), rs.getLong(2)), customerId, lower, upper))
+                : shards.scatter(jdbc -> jdbc.query(SUM_BY_CATEGORY_SQL,
+                        (rs, rowNum) -> categoryTotal(rs.getString(1), rs.getLong(2)), lower, upper));
+        for (List<long[]> partial : partials) {
+            for (long[] row : partial) {
+                sums[(int) row[0]] = Math.addExact(sums[(int) row[0]], row[1]);
+                counts[(int) row[0]]++;
+            }
+        }
+    }
+
+    private static long[] categoryTotal(String category, long cents) {
+        return new long[]{Category.valueOf(category).ordinal(), cents};
+    }
+}
@@ -0,0 +1,60 @@
+package com.example.transactionapi.service.analytics;
+
+import com.example.transactionapi.web.dto.CategoryBreakdownEntry;
+import com.example.transactionapi.web.dto.TopCategory;
+import com.example.transactionapi.web.dto.TopSpender;
+
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Answers the spend aggregations behind {@code TransactionService}. The
+ * implementation is chosen with {@code analytics.engine}: {@code jpa} (the
+ * default and reference) sums the rollups in the database, {@code columnar}
+ * scans primitive in-memory columns, {@code mapped} scans memory-mapped
+ * segment files and {@code sharded} queries customer-sharded databases.
+ * <p>
+ * Date bounds are inclusive calendar days; a null bound leaves the range open
+ * on that side. A null customer id means all customers.
+ */
+public interface SpendAnalytics {
+
+    /**
+     * Returns the total spend per category. Categories without transactions in
+     * range are omitted; the order is unspecified.
+     */
+    List<CategoryBreakdownEntry> totalsByCategory(Long customerId, LocalDate from, LocalDate to);
+
+    /**
+     * Returns the total spend per category for each of the given customers,
+     * keyed by customer id. Customers without transactions in range are
+     * omitted. The default asks for one customer at a time, which suits the
+     * in-memory engines, where that is an index probe; database-backed engines
+     * answer the whole collection with one grouped query.
+     */
+    default Map<Long, List<CategoryBreakdownEntry>> totalsByCustomerAndCategory(Collection<Long> customerIds,
+                                                                                 LocalDate from, LocalDate to) {
+        Map<Long, List<CategoryBreakdownEntry>> totals = new LinkedHashMap<>();
+        for (Long customerId : customerIds) {
+            List<CategoryBreakdownEntry> breakdown = totalsByCategory(customerId, from, to);
+            if (!breakdown.isEmpty()) {
+                totals.put(customerId, breakdown);
+            }
+        }
+        return totals;
+    }
+
+    /**
+     * Returns up to {@code count} customers ordered by total spend descending,
+     * then by customer id.
+     */
+    List<TopSpender> topSpenders(int count, LocalDate from, LocalDate to);
+
+    /**
+     * Returns up to {@code count} categories ordered by total spend descending.
+     */
+    List<TopCategory> topCategories(Long customerId, int count, LocalDate from, LocalDate to);
+}
@@ -0,0 +1,125 @@
+package com.example.transactionapi.service.analytics;
+
+import com.example.transactionapi.model.Category;
+
+import java.util.Arrays;
+import java.util.Comparator;
+
+/**
+ * Selects the indexes of the {@code n} largest values from a primitive array
+ * with a bounded heap, in O(m log n) time and O(n) space. Ties are broken by
+ * the lower index, matching {@code ORDER BY total DESC, id} in the database,
+ * or for categories by name, matching {@code ORDER BY total DESC, category}.
+ */
+final class TopN {
+
+    /** Position of each category, by ordinal, when sorted by name. */
+    private static final int[] CATEGORY_NAME_ORDER = categoryNameOrder();
+
+    private TopN() {
+    }
+
+    /**
+     * @param values  the values to rank
+     * @param counts  only indexes with a positive count take part
+     * @return up to {@code n} indexes ordered from the largest value down
+     */
+    static int[] select(long[] values, long[] counts, int n) {
+        return select(values, counts, n, null);
+    }
+
+    /**
+     * Ranks per-category totals indexed by {@link Category#ordinal()}, breaking
+     * ties by category name so every engine returns the same order.
+     */
+    static int[] selectCategories(long[] values, long[] counts, int n) {
+        return select(values, counts, n, CATEGORY_NAME_ORDER);
+    }
+
+    /**
+     * @param tieOrder position of each index among equal values, or null to
+     *                 prefer the lower index
+     */
+    private static int[] select(long[] values, long[] counts, int n, int[] tieOrder) {
+        if (n <= 0) {
+            return new int[0];
+        }
+        // Min-heap on rank: heap[0] is the weakest entry kept so far
+        int[] heap = new int[Math.min(n, values.length)];
+        int size = 0;
+        for (int i = 0; i < values.length; i++) {
+            if (counts[i] <= 0) {
+                continue;
+            }
+            if (size < heap.length) {
+                heap[size] = i;
+                siftUp(heap, size++, values, tieOrder);
+            } else if (ranksAbove(i, heap[0], values, tieOrder)) {
+                heap[0] = i;
+                siftDown(heap, size, values, tieOrder);
+            }
+        }
+        int[] result = new int[size];
+        // Pop weakest first, filling the result from the back
+        for (int k = size - 1; k >= 0; k--) {
+            result[k] = heap[0];
+            heap[0] = heap[--size];
+            siftDown(heap, size, values, tieOrder);
+        }
+        return result;
+    }
+
+    private static boolean ranksAbove(int a, int b, long[] values, int[] tieOrder) {
+        if (values[a] != values[b]) {
+            return values[a] > values[b];
+        }
+        return tieOrder == null ? a < b : tieOrder[a] < tieOrder[b];
+    }
+
+    private static void siftUp(int[] heap, int pos, long[] values, int[] tieOrder) {
+        while (pos > 0) {
+            int parent = (pos - 1) >>> 1;
+            if (!ranksAbove(heap[parent], heap[pos], values, tieOrder)) {
+                return;
+            }
+            swap(heap, parent, pos);
+            pos = parent;
+        }
+    }
+
+    private static void siftDown(int[] heap, int size, long[] values, int[] tieOrder) {
+        int pos = 0;
+        while (true) {
+            int left = 2 * pos + 1;
+            if (left >= size) {
+                return;
+            }
+            int weakest = left;
+            int right = left + 1;
+            if (right < size && ranksAbove(heap[left], heap[right], values, tieOrder)) {
+                weakest = right;
+            }
+            if (!ranksAbove(heap[pos], heap[weakest], values, tieOrder)) {
+                return;
+            }
+            swap(heap, pos, weakest);
+            pos = weakest;
+        }
+    }
+
+    private static int[] categoryNameOrder() {
+        Category[] byName = Category.values();
+        Arrays.sort(byName, Comparator.comparing(Category::name));
+        int[] order = new int[byName.length];
+        for (int position = 0; position < byName.length; position++) {
+            order[byName[position].ordinal()] = position;
+        }
+        return order;
+    }
+
+    private static void swap(int[] heap, int i, int j) {
+        int tmp = heap[i];
+        heap[i] = heap[j];
+        heap[j] = tmp;
+    }
+}
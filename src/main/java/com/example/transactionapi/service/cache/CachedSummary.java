@@ -0,0 +1,12 @@
+package com.example.transactionapi.service.cache;
+
+import lombok.Value;
+
+/**
+ * A cached summary together with the entity tag of its JSON form.
+ */
+@Value
+public class CachedSummary<T> {
+    T value;
+    String etag;
+}
@@ -0,0 +1,130 @@
+package com.example.transactionapi.service.cache;
+
+import com.example.transactionapi.model.Transaction;
+import com.example.transactionapi.service.ingest.TransactionBatchListener;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.util.DigestUtils;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Size-bounded, time-limited cache of summary responses keyed by
+ * {@link SummaryKey}. Each entry carries an ETag computed from its JSON form,
+ * so clients revalidating with {@code If-None-Match} get a 304 without the
+ * summary being recomputed or re-sent.
+ * <p>
+ * Ingestion evicts only the entries a batch can change: entries for a
+ * customer in the batch, and cross-customer entries, whose date range covers
+ * a day in the batch. The cache runs after the other batch listeners so the
+ * engines already reflect the batch when entries are evicted. Hits and misses
+ * are published as the {@code cache.gets} meter with {@code cache=summaries}.
+ */
+@Component
+@Order(Ordered.LOWEST_PRECEDENCE)
+public class SummaryCache implements TransactionBatchListener {
+
+    private final ObjectMapper objectMapper;
+    private final Cache<SummaryKey, CachedSummary<?>> cache;
+    /** Bumped on every eviction pass so a result computed across one is not stored. */
+    private final AtomicLong generation = new AtomicLong();
+
+    public SummaryCache(ObjectMapper objectMapper,
+                        MeterRegistry meterRegistry,
+                        @Value("${summary-cache.max-size:10000}") long maxSize,
+                        @Value("${summary-cache.ttl-seconds:300}") long ttlSeconds) {
+        this.objectMapper = objectMapper;
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(Duration.ofSeconds(ttlSeconds))
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "summaries");
+    }
+
+    /**
+     * Returns the cached summary for the key, computing and caching it on a
+     * miss. Exceptions from the loader propagate and nothing is cached.
+     */
+    @SuppressWarnings("unchecked")
+    public <T> CachedSummary<T> get(SummaryKey key, Supplier<T> loader) {
+        CachedSummary<T> cached = (CachedSummary<T>) cache.getIfPresent(key);
+        if (cached != null) {
+            return cached;
+        }
+        long seen = generation.get();
+        T value = loader.get();
+        CachedSummary<T> loaded = new CachedSummary<>(value, etag(value));
+        cache.put(key, loaded);
+        // An eviction pass that started while we were loading may have missed this entry
+        if (generation.get() != seen) {
+            cache.asMap().remove(key, loaded);
+        }
+        return loaded;
+    }
+
+    @Override
+    public void onBatchWritten(List<Transaction> batch) {
+        if (batch.isEmpty()) {
+            return;
+        }
+        DaySpan all = new DaySpan();
+        Map<Long, DaySpan> byCustomer = new HashMap<>();
+        for (Transaction t : batch) {
+            LocalDate day = t.getTimestamp().toLocalDate();
+            all.add(day);
+            byCustomer.computeIfAbsent(t.getCustomer().getId(), id -> new DaySpan()).add(day);
+        }
+        generation.incrementAndGet();
+        cache.asMap().keySet().removeIf(key -> {
+            DaySpan span = key.getCustomerId() == null ? all : byCustomer.get(key.getCustomerId());
+            return span != null && key.overlaps(span.first, span.last);
+        });
+    }
+
+    @Override
+    public void onRestored() {
+        generation.incrementAndGet();
+        cache.invalidateAll();
+    }
+
+    public long size() {
+        return cache.estimatedSize();
+    }
+
+    private String etag(Object value) {
+        try {
+            return "\"" + DigestUtils.md5DigestAsHex(objectMapper.writeValueAsBytes(value)) + "\"";
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Summary is not serialisable", e);
+        }
+    }
+
+    private static final class DaySpan {
+        private LocalDate first;
+        private LocalDate last;
+
+        void add(LocalDate day) {
+            if (first == null || day.isBefore(first)) {
+                first = day;
+            }
+            if (last == null || day.isAfter(last)) {
+                last = day;
+            }
+        }
+    }
+}
@@ -0,0 +1,53 @@
+package com.example.transactionapi.service.cache;
+
+import com.example.transactionapi.service.rollup.TrendGranularity;
+import lombok.Value;
+
+import java.time.LocalDate;
+
+/**
+ * Identifies one cacheable summary response. A null customer id means the
+ * result spans all customers; a null date is an open end of the range.
+ */
+@Value
+public class SummaryKey {
+
+    public enum Endpoint {
+        CUSTOMER_SUMMARY, OVERALL_SUMMARY, TOP_SPENDERS, TOP_CATEGORIES, TREND
+    }
+
+    Endpoint endpoint;
+    Long customerId;
+    LocalDate from;
+    LocalDate to;
+    int count;
+    /** Bucket width of a trend; null for the other endpoints. */
+    TrendGranularity granularity;
+
+    public static SummaryKey customerSummary(Long customerId, LocalDate from, LocalDate to) {
+        return new SummaryKey(Endpoint.CUSTOMER_SUMMARY, customerId, from, to, 0, null);
+    }
+
+    public static SummaryKey overallSummary(LocalDate from, LocalDate to) {
+        return new SummaryKey(Endpoint.OVERALL_SUMMARY, null, from, to, 0, null);
+    }
+
+    public static SummaryKey topSpenders(int count, LocalDate from, LocalDate to) {
+        return new SummaryKey(Endpoint.TOP_SPENDERS, null, from, to, count, null);
+    }
+
+    public static SummaryKey topCategories(Long customerId, int count, LocalDate from, LocalDate to) {
+        return new SummaryKey(Endpoint.TOP_CATEGORIES, customerId, from, to, count, null);
+    }
+
+    public static SummaryKey trend(Long customerId, TrendGranularity granularity, LocalDate from, LocalDate to) {
+        return new SummaryKey(Endpoint.TREND, customerId, from, to, 0, granularity);
+    }
+
+    /**
+     * @return true if any day between first and last (inclusive) falls in this key's range
+     */
+    boolean overlaps(LocalDate first, LocalDate last) {
+        return (from == null || !last.isBefore(from)) && (to == null || !first.isAfter(to));
+    }
+}
@@ -0,0 +1,166 @@
+package com.example.transactionapi.service.categorization;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Queue;
+
+/**
+ * Aho–Corasick automaton over a fixed keyword list. The keywords are compiled
+ * into a deterministic state table once, after which any text is scanned in a
+ * single pass regardless of how many keywords there are. Matching is case
+ * insensitive and a match only counts when it starts at a word boundary, so
+ * "air" does not fire inside "repair". Instances are immutable and thread
+ * safe.
+ */
+final class KeywordAutomaton {
+
+    private static final int ROOT = 0;
+
+    /** Maps a lower-cased char to its column in the transition table; 0 is "any other char". */
+    private final int[] asciiColumns = new int[128];
+    private final Map<Character, Integer> otherColumns = new HashMap<>();
+    private final int alphabetSize;
+    private final int[] transitions;
+    /** Keyword id recognised in each state, or -1. */
+    private final int[] keywordAt;
+    /** Next state on the failure chain that recognises a keyword, or -1. */
+    private final int[] outputLink;
+    private final int[] keywordLength;
+
+    /**
+     * @param keywords keywords in priority order; a keyword's index is its id
+     */
+    KeywordAutomaton(List<String> keywords) {
+        int columns = 1;
+        for (String keyword : keywords) {
+            for (char c : keyword.toLowerCase(Locale.ROOT).toCharArray()) {
+                if (column(c) == 0) {
+                    if (c < asciiColumns.length) {
+                        asciiColumns[c] = columns++;
+                    } else {
+                        otherColumns.put(c, columns++);
+                    }
+                }
+            }
+        }
+        alphabetSize = columns;
+
+        // Build the trie.
+        List<int[]> trie = new ArrayList<>();
+        List<Integer> terminal = new ArrayList<>();
+        trie.add(newRow());
+        terminal.add(-1);
+        keywordLength = new int[keywords.size()];
+        for (int id = 0; id < keywords.size(); id++) {
+            String keyword = keywords.get(id).toLowerCase(Locale.ROOT);
+            if (keyword.isEmpty()) {
+                throw new IllegalArgumentException("Keywords must not be empty");
+            }
+            keywordLength[id] = keyword.length();
+            int state = ROOT;
+            for (char c : keyword.toCharArray()) {
+                int column = column(c);
+                if (trie.get(state)[column] < 0) {
+                    trie.get(state)[column] = trie.size();
+                    trie.add(newRow());
+                    terminal.add(-1);
+                }
+                state = trie.get(state)[column];
+            }
+            if (terminal.get(state) < 0) {
+                terminal.set(state, id); // first registration of a duplicate keyword wins
+            }
+        }
+
+        // Breadth-first pass turns the trie into a DFA and links each state to
+        // the nearest accepting state on its failure chain.
+        int states = trie.size();
+        transitions = new int[states * alphabetSize];
+        keywordAt = new int[states];
+        outputLink = new int[states];
+        int[] failure = new int[states];
+        Arrays.fill(outputLink, -1);
+        for (int s = 0; s < states; s++) {
+            keywordAt[s] = terminal.get(s);
+        }
+        Queue<Integer> queue = new ArrayDeque<>();
+        for (int column = 0; column < alphabetSize; column++) {
+            int child = trie.get(ROOT)[column];
+            if (child < 0) {
+                transitions[column] = ROOT;
+            } else {
+                transitions[column] = child;
+                failure[child] = ROOT;
+                queue.add(child);
+            }
+        }
+        while (!queue.isEmpty()) {
+            int state = queue.remove();
+            int fail = failure[state];
+            outputLink[state] = keywordAt[fail] >= 0 ? fail : outputLink[fail];
+            for (int column = 0; column < alphabetSize; column++) {
+                int child = trie.get(state)[column];
+                if (child < 0) {
+                    transitions[state * alphabetSize + column] = transitions[fail * alphabetSize + column];
+                } else {
+                    transitions[state * alphabetSize + column] = child;
+                    failure[child] = transitions[fail * alphabetSize + column];
+                    queue.add(child);
+                }
+            }
+        }
+    }
+
+    /**
+     * Scans the text and returns the preferred keyword match: the longest
+     * one, with ties going to the lowest keyword id.
+     *
+     * @return the keyword id, or -1 if no keyword matches
+     */
+    int bestMatch(CharSequence text) {
+        if (text == null) {
+            return -1;
+        }
+        int best = -1;
+        int state = ROOT;
+        for (int i = 0; i < text.length(); i++) {
+            state = transitions[state * alphabetSize + column(Character.toLowerCase(text.charAt(i)))];
+            for (int s = keywordAt[state] >= 0 ? state : outputLink[state]; s >= 0; s = outputLink[s]) {
+                int id = keywordAt[s];
+                int start = i - keywordLength[id] + 1;
+                if (start > 0 && Character.isLetterOrDigit(text.charAt(start - 1))) {
+                    continue;
+                }
+                if (best < 0 || keywordLength[id] > keywordLength[best]
+                        || (keywordLength[id] == keywordLength[best] && id < best)) {
+                    best = id;
+                }
+            }
+        }
+        return best;
+    }
+
+    /** Length of the keyword with the given id. */
+    int length(int id) {
+        return keywordLength[id];
+    }
+
+    private int column(char c) {
+        if (c < asciiColumns.length) {
+            return asciiColumns[c];
+        }
+        Integer column = otherColumns.get(c);
+        return column != null ? column : 0;
+    }
+
+    private int[] newRow() {
+        int[] row = new int[alphabetSize];
+        Arrays.fill(row, -1);
+        return row;
+    }
+}
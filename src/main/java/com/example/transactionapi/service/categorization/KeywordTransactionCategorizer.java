@@ -0,0 +1,77 @@
+package com.example.transactionapi.service.categorization;
+
+import com.example.transactionapi.model.Category;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Default categorizer. Resolution follows fixed priority rules so the result
+ * never depends on iteration order:
+ * <ol>
+ *     <li>A merchant category code covered by {@link MerchantCategoryCodeTable} decides the category.</li>
+ *     <li>Otherwise the description and merchant are scanned once by a
+ *     {@link KeywordAutomaton}. The longest keyword wins, so "gas station"
+ *     beats "gas". A match in the description beats an equally long one in
+ *     the merchant. Remaining ties go to the keyword registered first.</li>
+ *     <li>Otherwise the transaction is {@link Category#OTHER}.</li>
+ * </ol>
+ */
+@Component
+public class KeywordTransactionCategorizer implements TransactionCategorizer {
+
+    private final MerchantCategoryCodeTable mccTable = MerchantCategoryCodeTable.standard();
+    private final List<Category> keywordCategories = new ArrayList<>();
+    private final KeywordAutomaton automaton;
+
+    public KeywordTransactionCategorizer() {
+        List<String> keywords = new ArrayList<>();
+        // Keywords are registered in priority order; earlier entries win ties.
+        // Food / Groceries
+        addKeywords(keywords, Category.FOOD, Arrays.asList("grocery", "market", "supermarket", "food", "restaurant", "cafe", "coffee"));
+        // Transport
+        addKeywords(keywords, Category.TRANSPORT, Arrays.asList("uber", "taxi", "bus", "train", "fuel", "gas station", "petrol", "subway", "transport"));
+        // Utilities
+        addKeywords(keywords, Category.UTILITIES, Arrays.asList("electric", "gas", "water", "utility", "power", "energy"));
+        // Entertainment
+        addKeywords(keywords, Category.ENTERTAINMENT, Arrays.asList("cinema", "movie", "netflix", "theatre", "concert", "entertainment", "game"));
+        // Shopping
+        addKeywords(keywords, Category.SHOPPING, Arrays.asList("shop", "store", "mall", "clothes", "amazon", "ecommerce", "retail"));
+        // Healthcare
+        addKeywords(keywords, Category.HEALTHCARE, Arrays.asList("pharmacy", "doctor", "hospital", "clinic", "medicine", "dentist"));
+        // Communication
+        addKeywords(keywords, Category.COMMUNICATION, Arrays.asList("phone", "internet", "cell", "mobile", "telecom", "data"));
+        // Education
+        addKeywords(keywords, Category.EDUCATION, Arrays.asList("school", "university", "tuition", "course", "college", "education"));
+        // Travel
+        addKeywords(keywords, Category.TRAVEL, Arrays.asList("flight", "airline", "hotel", "travel", "air", "booking", "airbnb"));
+        // Income
+        addKeywords(keywords, Category.INCOME, Arrays.asList("salary", "payroll", "deposit", "income", "bonus"));
+        automaton = new KeywordAutomaton(keywords);
+    }
+
+    @Override
+    public Category categorize(String description, String merchant, String merchantCategoryCode) {
+        Category byCode = mccTable.lookup(merchantCategoryCode);
+        if (byCode != null) {
+            return byCode;
+        }
+        int descriptionMatch = automaton.bestMatch(description);
+        int merchantMatch = automaton.bestMatch(merchant);
+        int best = descriptionMatch;
+        if (merchantMatch >= 0 && (best < 0 || automaton.length(merchantMatch) > automaton.length(best))) {
+            best = merchantMatch;
+        }
+        return best >= 0 ? keywordCategories.get(best) : Category.OTHER;
+    }
+
+    private void addKeywords(List<String> keywords, Category category, List<String> values) {
+        for (String k : values) {
+            keywords.add(k.toLowerCase(Locale.ROOT));
+            keywordCategories.add(category);
+        }
+    }
+}
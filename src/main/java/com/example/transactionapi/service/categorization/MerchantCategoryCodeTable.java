@@ -0,0 +1,122 @@
+package com.example.transactionapi.service.categorization;
+
+import com.example.transactionapi.model.Category;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Lookup table from ISO 18245 merchant category codes (MCC) to spending
+ * categories. Codes are grouped into sorted, non-overlapping ranges and
+ * resolved with a binary search. Codes outside every range are unknown.
+ */
+final class MerchantCategoryCodeTable {
+
+    private final int[] rangeStart;
+    private final int[] rangeEnd;
+    private final Category[] rangeCategory;
+
+    private MerchantCategoryCodeTable(List<int[]> ranges, List<Category> categories) {
+        rangeStart = new int[ranges.size()];
+        rangeEnd = new int[ranges.size()];
+        rangeCategory = categories.toArray(new Category[0]);
+        for (int i = 0; i < ranges.size(); i++) {
+            rangeStart[i] = ranges.get(i)[0];
+            rangeEnd[i] = ranges.get(i)[1];
+        }
+    }
+
+    /**
+     * Standard card network groupings for the categories this API reports.
+     */
+    static MerchantCategoryCodeTable standard() {
+        return new Builder()
+                .range(3000, 3299, Category.TRAVEL)        // airlines
+                .range(3351, 3441, Category.TRAVEL)        // car rental agencies
+                .range(3501, 3999, Category.TRAVEL)        // hotels and resorts
+                .range(4011, 4112, Category.TRANSPORT)     // railroads, commuter transport, passenger rail
+                .range(4119, 4119, Category.HEALTHCARE)    // ambulance services
+                .range(4121, 4131, Category.TRANSPORT)     // taxis, bus lines
+                .range(4411, 4411, Category.TRAVEL)        // cruise lines
+                .range(4511, 4582, Category.TRAVEL)        // airlines, airports
+                .range(4722, 4722, Category.TRAVEL)        // travel agencies
+                .range(4784, 4789, Category.TRANSPORT)     // tolls, transportation services
+                .range(4812, 4821, Category.COMMUNICATION) // telecom, computer network services
+                .range(4899, 4899, Category.ENTERTAINMENT) // cable, satellite and pay TV
+                .range(4900, 4900, Category.UTILITIES)     // electric, gas, water, sanitary
+                .range(5122, 5122, Category.HEALTHCARE)    // drugs and druggists' sundries
+                .range(5200, 5399, Category.SHOPPING)      // home supply, department stores
+                .range(5411, 5499, Category.FOOD)          // grocery stores, food stores
+                .range(5541, 5542, Category.TRANSPORT)     // service stations, fuel dispensers
+                .range(5611, 5799, Category.SHOPPING)      // clothing, shoes, furniture, electronics
+                .range(5811, 5814, Category.FOOD)          // restaurants, fast food
+                .range(5900, 5911, Category.SHOPPING)
+                .range(5912, 5912, Category.HEALTHCARE)    // drug stores and pharmacies
+                .range(5913, 5974, Category.SHOPPING)
+                .range(5975, 5976, Category.HEALTHCARE)    // hearing aids, orthopedic goods
+                .range(5977, 5999, Category.SHOPPING)
+                .range(7011, 7012, Category.TRAVEL)        // lodging, timeshares
+                .range(7512, 7519, Category.TRAVEL)        // car and vehicle rental
+                .range(7800, 7999, Category.ENTERTAINMENT) // cinemas, theatre, recreation
+                .range(8011, 8099, Category.HEALTHCARE)    // doctors, dentists, hospitals
+                .range(8211, 8299, Category.EDUCATION)     // schools and educational services
+                .build();
+    }
+
+    /**
+     * @return the category for the code, or null if the code is malformed or
+     * not covered by the table
+     */
+    Category lookup(String merchantCategoryCode) {
+        int code = parse(merchantCategoryCode);
+        if (code < 0) {
+            return null;
+        }
+        int low = 0;
+        int high = rangeStart.length - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            if (code < rangeStart[mid]) {
+                high = mid - 1;
+            } else if (code > rangeEnd[mid]) {
+                low = mid + 1;
+            } else {
+                return rangeCategory[mid];
+            }
+        }
+        return null;
+    }
+
+    private static int parse(String code) {
+        if (code == null || code.isEmpty() || code.length() > 4) {
+            return -1;
+        }
+        int value = 0;
+        for (int i = 0; i < code.length(); i++) {
+            char c = code.charAt(i);
+            if (c < '0' || c > '9') {
+                return -1;
+            }
+            value = value * 10 + (c - '0');
+        }
+        return value;
+    }
+
+    static final class Builder {
+        private final List<int[]> ranges = new ArrayList<>();
+        private final List<Category> categories = new ArrayList<>();
+
+        Builder range(int from, int to, Category category) {
+            if (from > to || (!ranges.isEmpty() && from <= ranges.get(ranges.size() - 1)[1])) {
+                throw new IllegalArgumentException("MCC ranges must be ascending and non-overlapping: " + from + "-" + to);
+            }
+            ranges.add(new int[]{from, to});
+            categories.add(category);
+            return this;
+        }
+
+        MerchantCategoryCodeTable build() {
+            return new MerchantCategoryCodeTable(ranges, categories);
+        }
+    }
+}
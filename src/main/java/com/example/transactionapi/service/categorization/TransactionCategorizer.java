@@ -0,0 +1,17 @@
+package com.example.transactionapi.service.categorization;
+
+import com.example.transactionapi.model.Category;
+
+/**
+ * Assigns a spending category to a transaction that arrives without one.
+ * Implementations must be thread safe and deterministic: the same inputs
+ * always produce the same category.
+ */
+public interface TransactionCategorizer {
+
+    /**
+     * @return the category for the transaction, never null ({@link Category#OTHER}
+     * when nothing matches)
+     */
+    Category categorize(String description, String merchant, String merchantCategoryCode);
+}
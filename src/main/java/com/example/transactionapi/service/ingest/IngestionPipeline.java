@@ -0,0 +1,225 @@
+package com.example.transactionapi.service.ingest;
+
+import com.example.transactionapi.model.Transaction;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
+
+/**
+ * Staged ingestion pipeline. The calling thread acts as the parser stage and
+ * groups transactions into batches which are handed over a bounded queue to a
+ * pool of writer workers. Each worker performs JDBC batch inserts through
+ * {@link TransactionBatchWriter}. The bounded queue applies backpressure to the
+ * parser so memory use stays flat regardless of the input size. The rate of
+ * the most recent run is published as {@code ingest.run.rows.per.second}.
+ */
+@Component
+@Slf4j
+public class IngestionPipeline {
+
+    /** Marker placed on the queue to tell a writer there is no more work. */
+    private static final List<Transaction> END_OF_INPUT = new ArrayList<>();
+
+    private final TransactionBatchWriter batchWriter;
+    private final int batchSize;
+    private final int writerThreads;
+    private final int queueCapacity;
+    private final AtomicLong lastRowsPerSecond = new AtomicLong();
+
+    public IngestionPipeline(TransactionBatchWriter batchWriter,
+                             MeterRegistry meterRegistry,
+                             @Value("${ingest.batch-size:1000}") int batchSize,
+                             @Value("${ingest.writer-threads:4}") int writerThreads,
+                             @Value("${ingest.queue-capacity:16}") int queueCapacity) {
+        if (batchSize < 1 || writerThreads < 1 || queueCapacity < 1) {
+            throw new IllegalArgumentException("Ingest batch size, writer threads and queue capacity must be positive");
+        }
+        this.batchWriter = batchWriter;
+        this.batchSize = batchSize;
+        this.writerThreads = writerThreads;
+        this.queueCapacity = queueCapacity;
+        Gauge.builder("ingest.run.rows.per.second", lastRowsPerSecond, AtomicLong::get).register(meterRegistry);
+    }
+
+    /**
+     * Source of transactions for the parser stage. Implementations push each
+     * parsed transaction into the supplied sink in order.
+     */
+    @FunctionalInterface
+    public interface TransactionSource {
+        void produce(Consumer<Transaction> sink) throws IOException;
+    }
+
+    /**
+     * Runs the pipeline to completion, returning once every produced
+     * transaction has been written. If a writer fails, the parser stage is
+     * aborted and the failure is rethrown.
+     */
+    public IngestionResult run(TransactionSource source) throws IOException {
+        return run(source, false);
+    }
+
+    /**
+     * Runs the pipeline; with {@code skipExisting} each batch is filtered
+     * against the stored externalIds first (see
+     * {@link TransactionBatchWriter#writeNew}).
+     */
+    public IngestionResult run(TransactionSource source, boolean skipExisting) throws IOException {
+        BlockingQueue<List<Transaction>> queue = new ArrayBlockingQueue<>(queueCapacity);
+        AtomicLong rowsWritten = new AtomicLong();
+        AtomicLong batchesWritten = new AtomicLong();
+        AtomicReference<RuntimeException> failure = new AtomicReference<>();
+        AtomicInteger threadIndex = new AtomicInteger();
+        ExecutorService writers = Executors.newFixedThreadPool(writerThreads, r -> {
+            Thread thread = new Thread(r, "ingest-writer-" + threadIndex.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        long start = System.nanoTime();
+        try {
+            List<Future<?>> workers = new ArrayList<>();
+            for (int i = 0; i < writerThreads; i++) {
+                workers.add(writers.submit(() -> drain(queue, skipExisting, rowsWritten, batchesWritten, failure)));
+            }
+            BatchingSink sink = new BatchingSink(queue, failure);
+            try {
+                source.produce(sink);
+                sink.flush();
+            } finally {
+                for (int i = 0; i < writerThreads; i++) {
+                    putUninterruptibly(queue, END_OF_INPUT);
+                }
+                for (Future<?> worker : workers) {
+                    awaitUninterruptibly(worker);
+                }
+            }
+        } finally {
+            writers.shutdownNow();
+        }
+        if (failure.get() != null) {
+            throw failure.get();
+        }
+        long elapsedMillis = (System.nanoTime() - start) / 1_000_000;
+        IngestionResult result = new IngestionResult(rowsWritten.get(), batchesWritten.get(), elapsedMillis);
+        lastRowsPerSecond.set(result.getRowsPerSecond());
+        log.info("Ingested {} transactions in {} batches in {} ms ({} rows/s, {} writers, batch size {})",
+                result.getRowsWritten(), result.getBatchesWritten(), result.getElapsedMillis(),
+                result.getRowsPerSecond(), writerThreads, batchSize);
+        return result;
+    }
+
+    private void drain(BlockingQueue<List<Transaction>> queue,
+                       boolean skipExisting,
+                       AtomicLong rowsWritten,
+                       AtomicLong batchesWritten,
+                       AtomicReference<RuntimeException> failure) {
+        while (true) {
+            List<Transaction> batch;
+            try {
+                batch = queue.take();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+            if (batch == END_OF_INPUT) {
+                return;
+            }
+            if (failure.get() != null) {
+                continue; // keep draining so the parser never blocks on a full queue
+            }
+            try {
+                int written = batch.size();
+                if (skipExisting) {
+                    written = batchWriter.writeNew(batch);
+                } else {
+                    batchWriter.write(batch);
+                }
+                rowsWritten.addAndGet(written);
+                batchesWritten.incrementAndGet();
+            } catch (RuntimeException e) {
+                failure.compareAndSet(null, e);
+            }
+        }
+    }
+
+    /**
+     * Parser-side sink that groups transactions into batches of
+     * {@code batchSize} and blocks when the queue is full.
+     */
+    private final class BatchingSink implements Consumer<Transaction> {
+        private final BlockingQueue<List<Transaction>> queue;
+        private final AtomicReference<RuntimeException> failure;
+        private List<Transaction> current = new ArrayList<>(batchSize);
+
+        private BatchingSink(BlockingQueue<List<Transaction>> queue, AtomicReference<RuntimeException> failure) {
+            this.queue = queue;
+            this.failure = failure;
+        }
+
+        @Override
+        public void accept(Transaction transaction) {
+            current.add(transaction);
+            if (current.size() >= batchSize) {
+                flush();
+            }
+        }
+
+        void flush() {
+            if (current.isEmpty()) {
+                return;
+            }
+            if (failure.get() != null) {
+                throw new IllegalStateException("Ingestion aborted after a writer failure", failure.get());
+            }
+            putUninterruptibly(queue, current);
+            current = new ArrayList<>(batchSize);
+        }
+    }
+
+    private static void putUninterruptibly(BlockingQueue<List<Transaction>> queue, List<Transaction> batch) {
+        boolean interrupted = false;
+        while (true) {
+            try {
+                queue.put(batch);
+                break;
+            } catch (InterruptedException e) {
+                interrupted = true;
+            }
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static void awaitUninterruptibly(Future<?> future) {
+        boolean interrupted = false;
+        while (true) {
+            try {
+                future.get();
+                break;
+            } catch (InterruptedException e) {
+                interrupted = true;
+            } catch (Exception e) {
+                break;
+            }
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,20 @@
+package com.example.transactionapi.service.ingest;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+/**
+ * Outcome of a single ingestion run: how many rows were written, in how many
+ * batches, and how long it took.
+ */
+@Data
+@AllArgsConstructor
+public class IngestionResult {
+    private long rowsWritten;
+    private long batchesWritten;
+    private long elapsedMillis;
+
+    public long getRowsPerSecond() {
+        return elapsedMillis > 0 ? rowsWritten * 1000 / elapsedMillis : rowsWritten;
+    }
+}
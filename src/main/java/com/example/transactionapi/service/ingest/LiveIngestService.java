@@ -0,0 +1,194 @@
+package com.example.transactionapi.service.ingest;
+
+import com.example.transactionapi.model.Category;
+import com.example.transactionapi.model.Customer;
+import com.example.transactionapi.model.Transaction;
+import com.example.transactionapi.repository.CustomerRepository;
+import com.example.transactionapi.service.categorization.TransactionCategorizer;
+import com.example.transactionapi.web.dto.IngestResponse;
+import com.example.transactionapi.web.dto.TransactionRequest;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+
+/**
+ * Accepts transactions pushed through the API. Each request is categorised
+ * the same way as CSV rows (an explicit category wins, otherwise the
+ * {@link TransactionCategorizer} decides) and handed to the
+ * {@link MicroBatchWriter}. Customers must already exist; ids confirmed once
+ * are remembered, since customers are never deleted.
+ * <p>
+ * NDJSON uploads are read line by line and submitted as they are parsed, so
+ * lines from one upload are batched together with other requests' writes.
+ * Outstanding results are awaited every {@link #AWAIT_EVERY} lines to keep
+ * memory flat for large uploads. A line whose batch failed to commit is
+ * reported with the rejected lines and marks the upload incomplete; the
+ * batch was rolled back, so resending the upload stores it. Rejected lines
+ * are counted as {@code ingest.rows.rejected} with {@code source=api} and the
+ * reason.
+ */
+@Service
+@RequiredArgsConstructor
+public class LiveIngestService {
+
+    private static final int AWAIT_EVERY = 1000;
+    private static final int MAX_ERRORS = 100;
+
+    private final CustomerRepository customerRepository;
+    private final TransactionCategorizer categorizer;
+    private final MicroBatchWriter microBatchWriter;
+    private final ObjectMapper objectMapper;
+    private final Validator validator;
+    private final MeterRegistry meterRegistry;
+    private final Set<Long> knownCustomers = ConcurrentHashMap.newKeySet();
+
+    /**
+     * @return a future completing with true when inserted, false for a duplicate externalId
+     * @throws NoSuchElementException if the customer does not exist
+     * @throws java.util.concurrent.RejectedExecutionException if the writer queue is full
+     */
+    public CompletableFuture<Boolean> submit(TransactionRequest request) {
+        Long customerId = request.getCustomerId();
+        if (!knownCustomers.contains(customerId)) {
+            if (!customerRepository.existsById(customerId)) {
+                reject("unknown-customer");
+                throw new NoSuchElementException("Customer not found");
+            }
+            knownCustomers.add(customerId);
+        }
+        Category category = request.getCategory();
+        if (category == null) {
+            category = categorizer.categorize(request.getDescription(), request.getMerchant(), request.getMerchantCategoryCode());
+        }
+        Transaction transaction = Transaction.builder()
+                .externalId(request.getExternalId())
+                .timestamp(request.getTimestamp())
+                .description(request.getDescription())
+                .merchant(request.getMerchant())
+                .merchantCategoryCode(request.getMerchantCategoryCode())
+                .amount(request.getAmount())
+                .category(category)
+                .customer(Customer.builder().id(customerId).build())
+                .build();
+        return microBatchWriter.submit(transaction);
+    }
+
+    /**
+     * Ingests one transaction per non-blank line. Invalid lines are rejected
+     * individually; if the writer queue is full, reading stops and the
+     * response is marked incomplete.
+     */
+    public IngestResponse ingestNdjson(BufferedReader reader) throws IOException {
+        BulkTally tally = new BulkTally();
+        List<PendingLine> pending = new ArrayList<>();
+        boolean complete = true;
+        String line;
+        long lineNumber = 0;
+        while ((line = reader.readLine()) != null) {
+            lineNumber++;
+            if (line.isBlank()) {
+                continue;
+            }
+            TransactionRequest request;
+            try {
+                request = objectMapper.readValue(line, TransactionRequest.class);
+            } catch (JsonProcessingException e) {
+                tally.reject(lineNumber, e.getOriginalMessage());
+                reject("invalid");
+                continue;
+            }
+            Set<ConstraintViolation<TransactionRequest>> violations = validator.validate(request);
+            if (!violations.isEmpty()) {
+                ConstraintViolation<TransactionRequest> violation = violations.iterator().next();
+                tally.reject(lineNumber, violation.getPropertyPath() + " " + violation.getMessage());
+                reject("invalid");
+                continue;
+            }
+            try {
+                pending.add(new PendingLine(lineNumber, submit(request)));
+            } catch (NoSuchElementException e) {
+                tally.reject(lineNumber, e.getMessage());
+                continue;
+            } catch (RejectedExecutionException e) {
+                tally.errors.add("line " + lineNumber + ": " + e.getMessage() + ", stopped reading");
+                complete = false;
+                break;
+            }
+            if (pending.size() >= AWAIT_EVERY) {
+                tally.await(pending);
+            }
+        }
+        tally.await(pending);
+        return new IngestResponse(tally.inserted, tally.duplicates, tally.rejected, tally.errors,
+                complete && tally.failed == 0);
+    }
+
+    private void reject(String reason) {
+        meterRegistry.counter("ingest.rows.rejected", "source", "api", "reason", reason).increment();
+    }
+
+    private final class BulkTally {
+        private long inserted;
+        private long duplicates;
+        private long rejected;
+        private long failed;
+        private final List<String> errors = new ArrayList<>();
+
+        void reject(long lineNumber, String message) {
+            rejected++;
+            if (errors.size() < MAX_ERRORS) {
+                errors.add("line " + lineNumber + ": " + message);
+            }
+        }
+
+        /**
+         * A failed write was rolled back as a whole, so its lines are counted
+         * as rejected and the upload is reported incomplete, to be resent.
+         */
+        void await(List<PendingLine> pending) {
+            for (PendingLine line : pending) {
+                boolean stored;
+                try {
+                    stored = line.result.join();
+                } catch (CompletionException | CancellationException e) {
+                    failed++;
+                    reject(line.lineNumber, "not written (" + e.getCause().getMessage() + "), resend");
+                    LiveIngestService.this.reject("write-failed");
+                    continue;
+                }
+                if (stored) {
+                    inserted++;
+                } else {
+                    duplicates++;
+                }
+            }
+            pending.clear();
+        }
+    }
+
+    private static final class PendingLine {
+        private final long lineNumber;
+        private final CompletableFuture<Boolean> result;
+
+        private PendingLine(long lineNumber, CompletableFuture<Boolean> result) {
+            this.lineNumber = lineNumber;
+            this.result = result;
+        }
+    }
+}
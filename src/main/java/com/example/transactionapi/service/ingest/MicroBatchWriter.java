@@ -0,0 +1,188 @@
+package com.example.transactionapi.service.ingest;
+
+import com.example.transactionapi.model.Transaction;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Coalesces transactions submitted by concurrent API requests into JDBC
+ * batches. Submissions go onto a bounded queue drained by a single writer
+ * thread, which takes whatever is waiting (up to {@code batch-size}), lingers
+ * for at most {@code max-delay-ms} to fill the batch, and writes it through
+ * {@link TransactionBatchWriter}. When the queue stays full for longer than
+ * {@code offer-timeout-ms} the submission is rejected, so callers see
+ * backpressure instead of unbounded memory growth.
+ * <p>
+ * Writes are idempotent on externalId: an id already stored, or repeated
+ * within the batch, is reported as a duplicate and not inserted again. Because
+ * there is only one writer, the check and the insert cannot interleave with
+ * another live write.
+ * <p>
+ * A batch either commits as a whole or not at all (see
+ * {@link TransactionBatchWriter}), so when a write fails every submission in
+ * the batch completes exceptionally and none of them is stored; resending
+ * them is safe.
+ * <p>
+ * Queue depth is published as {@code ingest.live.queue}, duplicates as
+ * {@code ingest.rows.duplicate} and backpressure rejections as
+ * {@code ingest.rows.rejected} with {@code reason=backpressure}.
+ */
+@Component
+@Slf4j
+public class MicroBatchWriter {
+
+    private final TransactionBatchWriter batchWriter;
+    private final int batchSize;
+    private final long maxDelayNanos;
+    private final long offerTimeoutMillis;
+    private final BlockingQueue<Pending> queue;
+    private final Counter duplicateRows;
+    private final Counter backpressureRejections;
+    private Thread writer;
+    private volatile boolean running;
+
+    public MicroBatchWriter(TransactionBatchWriter batchWriter,
+                            MeterRegistry meterRegistry,
+                            @Value("${ingest.live.batch-size:500}") int batchSize,
+                            @Value("${ingest.live.max-delay-ms:2}") long maxDelayMillis,
+                            @Value("${ingest.live.queue-capacity:10000}") int queueCapacity,
+                            @Value("${ingest.live.offer-timeout-ms:50}") long offerTimeoutMillis) {
+        if (batchSize < 1 || queueCapacity < 1 || maxDelayMillis < 0 || offerTimeoutMillis < 0) {
+            throw new IllegalArgumentException("Live ingest batch size and queue capacity must be positive, delays non-negative");
+        }
+        this.batchWriter = batchWriter;
+        this.batchSize = batchSize;
+        this.maxDelayNanos = TimeUnit.MILLISECONDS.toNanos(maxDelayMillis);
+        this.offerTimeoutMillis = offerTimeoutMillis;
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+        this.duplicateRows = meterRegistry.counter("ingest.rows.duplicate");
+        this.backpressureRejections = meterRegistry.counter("ingest.rows.rejected", "source", "api", "reason", "backpressure");
+        Gauge.builder("ingest.live.queue", queue, BlockingQueue::size).register(meterRegistry);
+    }
+
+    @PostConstruct
+    public void start() {
+        running = true;
+        writer = new Thread(this::run, "ingest-live-writer");
+        writer.setDaemon(true);
+        writer.start();
+    }
+
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        running = false;
+        writer.interrupt();
+        writer.join(TimeUnit.SECONDS.toMillis(10));
+    }
+
+    /**
+     * Queues a transaction for the next batch. The future completes with true
+     * once the transaction is committed, or false if its externalId was
+     * already present.
+     *
+     * @throws RejectedExecutionException if the queue stayed full for the offer timeout
+     */
+    public CompletableFuture<Boolean> submit(Transaction transaction) {
+        Pending pending = new Pending(transaction);
+        boolean queued;
+        try {
+            queued = running && queue.offer(pending, offerTimeoutMillis, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            queued = false;
+        }
+        if (!queued) {
+            backpressureRejections.increment();
+            throw new RejectedExecutionException("Live ingest queue is full");
+        }
+        return pending.result;
+    }
+
+    private void run() {
+        List<Pending> batch = new ArrayList<>(batchSize);
+        try {
+            while (running) {
+                collect(batch);
+                write(batch);
+                batch.clear();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        queue.drainTo(batch);
+        IllegalStateException stopped = new IllegalStateException("Live ingest writer stopped");
+        batch.forEach(p -> p.result.completeExceptionally(stopped));
+    }
+
+    /**
+     * Blocks for the first transaction, then takes what is already queued and
+     * waits out the remaining delay only while the batch is still short.
+     */
+    private void collect(List<Pending> batch) throws InterruptedException {
+        batch.add(queue.take());
+        queue.drainTo(batch, batchSize - batch.size());
+        long deadline = System.nanoTime() + maxDelayNanos;
+        while (batch.size() < batchSize) {
+            long remaining = deadline - System.nanoTime();
+            if (remaining <= 0) {
+                break;
+            }
+            Pending next = queue.poll(remaining, TimeUnit.NANOSECONDS);
+            if (next == null) {
+                break;
+            }
+            batch.add(next);
+            queue.drainTo(batch, batchSize - batch.size());
+        }
+    }
+
+    private void write(List<Pending> batch) {
+        try {
+            Map<String, Pending> unique = new LinkedHashMap<>();
+            List<Pending> duplicates = new ArrayList<>();
+            for (Pending pending : batch) {
+                if (unique.putIfAbsent(pending.transaction.getExternalId(), pending) != null) {
+                    duplicates.add(pending);
+                }
+            }
+            for (String externalId : batchWriter.findExistingExternalIds(unique.keySet())) {
+                duplicates.add(unique.remove(externalId));
+            }
+            if (!unique.isEmpty()) {
+                batchWriter.write(unique.values().stream().map(p -> p.transaction).toList());
+            }
+            unique.values().forEach(p -> p.result.complete(true));
+            duplicates.forEach(p -> p.result.complete(false));
+            duplicateRows.increment(duplicates.size());
+        } catch (RuntimeException e) {
+            // Nothing in the batch was committed: post-commit listener failures do not reach here
+            log.error("Live ingest batch of {} transactions failed and was rolled back", batch.size(), e);
+            batch.forEach(p -> p.result.completeExceptionally(e));
+        }
+    }
+
+    private static final class Pending {
+        private final Transaction transaction;
+        private final CompletableFuture<Boolean> result = new CompletableFuture<>();
+
+        private Pending(Transaction transaction) {
+            this.transaction = transaction;
+        }
+    }
+}
@@ -0,0 +1,44 @@
+package com.example.transactionapi.service.ingest;
+
+import com.example.transactionapi.model.Transaction;
+
+import java.util.List;
+
+/**
+ * Callback invoked by {@link TransactionBatchWriter} for every batch of
+ * transactions it writes. Used to keep derived state such as rollups in step
+ * with ingestion. Listeners may be called concurrently from several writer
+ * threads and must not modify the batch. Listeners run in {@code @Order}
+ * order; those maintaining derived state use order 0 so that caches over that
+ * state (ordered last) are invalidated after it is updated.
+ */
+public interface TransactionBatchListener {
+
+    /**
+     * Called inside the transaction that inserts the batch, before it
+     * commits. Listeners whose state lives in the same database update it
+     * here, so it commits or rolls back together with the rows; throwing
+     * rolls the whole batch back.
+     */
+    default void onBatchInserted(List<Transaction> batch) {
+    }
+
+    /**
+     * Called after the batch has been committed. Listeners holding state
+     * elsewhere (in memory, in files or in other databases) update it here.
+     * The rows are stored whatever happens here, so a failure is logged
+     * rather than reported to the writer; such state is checked against the
+     * database and rebuilt when the application starts.
+     */
+    default void onBatchWritten(List<Transaction> batch) {
+    }
+
+    /**
+     * Called after a snapshot restore has filled the tables directly,
+     * without any batch callbacks. Listeners holding state outside the
+     * database rebuild it from the database; those whose state is stored in
+     * tables have it restored along with the transactions.
+     */
+    default void onRestored() {
+    }
+}
@@ -0,0 +1,155 @@
+package com.example.transactionapi.service.ingest;
+
+import com.example.transactionapi.model.Transaction;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.util.ClassUtils;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Timestamp;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Writes batches of transactions with a single JDBC batch insert. Going through
+ * JDBC directly avoids the per-row round trip that JPA incurs with IDENTITY
+ * keys, since Hibernate cannot batch inserts whose ids are generated by the
+ * database. Generated ids are read back in the same round trip and set on the
+ * transactions. Each batch is committed as one unit together with what the
+ * {@link TransactionBatchListener#onBatchInserted} callbacks write, such as
+ * the spend rollups, so a crash or a failing listener never leaves rows that
+ * the rollups miss. The other listeners are notified after the commit; a
+ * failure there is logged and counted as {@code ingest.listener.failures}
+ * but does not fail the write, since the rows are already stored. Commit
+ * time (insert and in-transaction listeners), post-commit listener time and
+ * rows written are published as {@code ingest.batch.write},
+ * {@code ingest.batch.listeners} and {@code ingest.rows.written}, for CSV and
+ * API ingestion alike.
+ */
+@Component
+@Slf4j
+public class TransactionBatchWriter {
+
+    private static final String INSERT_SQL = "INSERT INTO transactions " +
+            "(external_id, timestamp, description, merchant, merchant_category_code, amount_cents, category, customer_id) " +
+            "VALUES (?, ?, ?, ?, ?, ?, ?, ?)";
+    private static final String[] GENERATED_KEYS = {"id"};
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final List<TransactionBatchListener> listeners;
+    private final Timer writeTimer;
+    private final Timer listenersTimer;
+    private final Counter rowsWritten;
+    private final MeterRegistry meterRegistry;
+
+    public TransactionBatchWriter(JdbcTemplate jdbcTemplate,
+                                  TransactionTemplate transactionTemplate,
+                                  List<TransactionBatchListener> listeners,
+                                  MeterRegistry meterRegistry) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.listeners = listeners;
+        this.writeTimer = meterRegistry.timer("ingest.batch.write");
+        this.listenersTimer = meterRegistry.timer("ingest.batch.listeners");
+        this.rowsWritten = meterRegistry.counter("ingest.rows.written");
+        this.meterRegistry = meterRegistry;
+    }
+
+    public void write(List<Transaction> batch) {
+        writeTimer.record(() -> transactionTemplate.executeWithoutResult(status -> {
+            insertRows(batch);
+            for (TransactionBatchListener listener : listeners) {
+                listener.onBatchInserted(batch);
+            }
+        }));
+        rowsWritten.increment(batch.size());
+        listenersTimer.record(() -> {
+            for (TransactionBatchListener listener : listeners) {
+                try {
+                    listener.onBatchWritten(batch);
+                } catch (RuntimeException e) {
+                    String name = ClassUtils.getUserClass(listener).getSimpleName();
+                    log.error("{} failed on a committed batch of {} transactions", name, batch.size(), e);
+                    meterRegistry.counter("ingest.listener.failures", "listener", name).increment();
+                }
+            }
+        });
+    }
+
+    /**
+     * Inserts a batch without notifying the listeners and sets the generated
+     * id on each transaction. Joins the caller's transaction if there is one.
+     */
+    public void insert(List<Transaction> batch) {
+        writeTimer.record(() -> transactionTemplate.executeWithoutResult(status -> insertRows(batch)));
+        rowsWritten.increment(batch.size());
+    }
+
+    private void insertRows(List<Transaction> batch) {
+        jdbcTemplate.execute(con -> con.prepareStatement(INSERT_SQL, GENERATED_KEYS), (PreparedStatement ps) -> {
+            for (Transaction t : batch) {
+                ps.setString(1, t.getExternalId());
+                ps.setTimestamp(2, Timestamp.valueOf(t.getTimestamp()));
+                ps.setString(3, t.getDescription());
+                ps.setString(4, t.getMerchant());
+                ps.setString(5, t.getMerchantCategoryCode());
+                ps.setLong(6, t.getAmount().getCents());
+                ps.setString(7, t.getCategory().name());
+                ps.setLong(8, t.getCustomer().getId());
+                ps.addBatch();
+            }
+            ps.executeBatch();
+            try (ResultSet keys = ps.getGeneratedKeys()) {
+                for (Transaction t : batch) {
+                    if (!keys.next()) {
+                        throw new IllegalStateException("Missing generated id for " + t.getExternalId());
+                    }
+                    t.setId(keys.getLong(1));
+                }
+            }
+            return null;
+        });
+    }
+
+    /**
+     * Writes only the transactions whose externalId is not stored yet. Used
+     * when an interrupted load is replayed, so rows that were committed before
+     * the interruption are not inserted twice.
+     *
+     * @return the number of transactions written
+     */
+    public int writeNew(List<Transaction> batch) {
+        Set<String> existing = findExistingExternalIds(batch.stream().map(Transaction::getExternalId).toList());
+        List<Transaction> fresh = existing.isEmpty()
+                ? batch
+                : batch.stream().filter(t -> !existing.contains(t.getExternalId())).toList();
+        if (!fresh.isEmpty()) {
+            write(fresh);
+        }
+        return fresh.size();
+    }
+
+    /**
+     * Returns which of the given externalIds are already stored, using the
+     * external id index.
+     */
+    public Set<String> findExistingExternalIds(Collection<String> externalIds) {
+        if (externalIds.isEmpty()) {
+            return Collections.emptySet();
+        }
+        String placeholders = String.join(",", Collections.nCopies(externalIds.size(), "?"));
+        return new HashSet<>(jdbcTemplate.queryForList(
+                "SELECT external_id FROM transactions WHERE external_id IN (" + placeholders + ")",
+                String.class, externalIds.toArray()));
+    }
+}
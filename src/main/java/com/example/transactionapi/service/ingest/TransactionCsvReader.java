@@ -0,0 +1,432 @@
+package com.example.transactionapi.service.ingest;
+
+import com.example.transactionapi.model.Category;
+import com.example.transactionapi.model.Money;
+import org.springframework.core.io.Resource;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.time.DateTimeException;
+import java.time.LocalDateTime;
+
+/**
+ * Streaming reader for transaction CSV files in the
+ * externalId,customerName,customerEmail,timestamp,description,merchant,mcc,amount,category
+ * layout. Bytes are pulled from an NIO channel into a reusable buffer and each
+ * record is split in place into field offsets, so no per-field Strings are
+ * created unless a caller asks for one. Amounts and timestamps are decoded
+ * straight from the bytes. Quoted fields follow RFC 4180: they may contain
+ * commas, line breaks and doubled quotes. Unquoted fields are trimmed, as the
+ * previous line-based loader did.
+ * <p>
+ * The first line is treated as a header and skipped. Instances are not thread
+ * safe.
+ */
+public class TransactionCsvReader implements Closeable {
+
+    public static final int EXTERNAL_ID = 0;
+    public static final int CUSTOMER_NAME = 1;
+    public static final int CUSTOMER_EMAIL = 2;
+    public static final int TIMESTAMP = 3;
+    public static final int DESCRIPTION = 4;
+    public static final int MERCHANT = 5;
+    public static final int MCC = 6;
+    public static final int AMOUNT = 7;
+    public static final int CATEGORY = 8;
+
+    /** Number of columns a record needs before it can become a transaction. */
+    public static final int REQUIRED_FIELDS = 8;
+
+    private static final int MAX_FIELDS = 32;
+    private static final int DEFAULT_BUFFER_SIZE = 1 << 20;
+    private static final Category[] CATEGORIES = Category.values();
+    private static final long[] POWERS_OF_TEN = new long[19];
+    private static final byte[][] CATEGORY_NAMES = new byte[CATEGORIES.length][];
+
+    static {
+        POWERS_OF_TEN[0] = 1;
+        for (int i = 1; i < POWERS_OF_TEN.length; i++) {
+            POWERS_OF_TEN[i] = POWERS_OF_TEN[i - 1] * 10;
+        }
+        for (int i = 0; i < CATEGORIES.length; i++) {
+            CATEGORY_NAMES[i] = CATEGORIES[i].name().getBytes(StandardCharsets.US_ASCII);
+        }
+    }
+
+    private final ReadableByteChannel channel;
+    private byte[] bytes;
+    private int limit;
+    private int position;
+    private boolean endOfInput;
+
+    private final int[] fieldStart = new int[MAX_FIELDS];
+    private final int[] fieldEnd = new int[MAX_FIELDS];
+    private final boolean[] fieldEscaped = new boolean[MAX_FIELDS];
+    private int fieldCount;
+    private int recordStart;
+    private int recordEnd;
+    private long recordNumber;
+
+    /** Result of the last {@link #parseDecimal(int)}. */
+    private long parsedUnscaled;
+    private int parsedScale;
+
+    public TransactionCsvReader(ReadableByteChannel channel) throws IOException {
+        this(channel, DEFAULT_BUFFER_SIZE);
+    }
+
+    public TransactionCsvReader(ReadableByteChannel channel, int bufferSize) throws IOException {
+        this.channel = channel;
+        this.bytes = new byte[Math.max(bufferSize, 64)];
+        next(); // skip header
+        recordNumber = 0;
+    }
+
+    /**
+     * Opens a reader over a resource, reading the file channel directly when
+     * the resource lives on the file system.
+     */
+    public static TransactionCsvReader open(Resource resource) throws IOException {
+        ReadableByteChannel channel = resource.isFile()
+                ? FileChannel.open(resource.getFile().toPath(), StandardOpenOption.READ)
+                : Channels.newChannel(resource.getInputStream());
+        return new TransactionCsvReader(channel);
+    }
+
+    /**
+     * Advances to the next non-blank record.
+     *
+     * @return false once the input is exhausted
+     */
+    public boolean next() throws IOException {
+        while (true) {
+            int end = parseRecord(position);
+            if (end < 0) {
+                if (endOfInput && position >= limit) {
+                    fieldCount = 0;
+                    return false;
+                }
+                fill();
+                continue;
+            }
+            recordStart = position;
+            recordEnd = end;
+            position = end;
+            recordNumber++;
+            if (fieldCount == 1 && fieldStart[0] == fieldEnd[0]) {
+                continue; // blank line
+            }
+            return true;
+        }
+    }
+
+    /** Number of fields in the current record. */
+    public int fieldCount() {
+        return fieldCount;
+    }
+
+    /** One-based number of the current record, not counting the header. */
+    public long recordNumber() {
+        return recordNumber;
+    }
+
+    public boolean isBlank(int field) {
+        return field >= fieldCount || fieldStart[field] == fieldEnd[field];
+    }
+
+    /** Decodes a field as a UTF-8 string, collapsing doubled quotes. */
+    public String getString(int field) {
+        if (isBlank(field)) {
+            return "";
+        }
+        String value = new String(bytes, fieldStart[field], fieldEnd[field] - fieldStart[field], StandardCharsets.UTF_8);
+        return fieldEscaped[field] ? value.replace("\"\"", "\"") : value;
+    }
+
+    /**
+     * Decodes a plain decimal such as {@code -1200.50} without creating an
+     * intermediate String. Values too long for a long, or written in exponent
+     * notation, fall back to {@link BigDecimal#BigDecimal(String)}.
+     *
+     * @throws NumberFormatException if the field is not a decimal number
+     */
+    public BigDecimal getDecimal(int field) {
+        if (!parseDecimal(field)) {
+            return new BigDecimal(getString(field));
+        }
+        return BigDecimal.valueOf(parsedUnscaled, parsedScale);
+    }
+
+    /**
+     * Decodes an amount straight into whole cents, rounding half up when the
+     * field has more than two decimal places. No BigDecimal is created unless
+     * the value has more than 18 digits.
+     *
+     * @throws NumberFormatException if the field is not a decimal number or
+     *                               does not fit in a long of cents
+     */
+    public Money getMoney(int field) {
+        try {
+            if (!parseDecimal(field)) {
+                return Money.of(new BigDecimal(getString(field)));
+            }
+            long unscaled = parsedUnscaled;
+            int scale = parsedScale;
+            if (scale <= 2) {
+                return Money.ofCents(Math.multiplyExact(unscaled, POWERS_OF_TEN[2 - scale]));
+            }
+            long divisor = POWERS_OF_TEN[scale - 2];
+            long cents = unscaled / divisor;
+            long remainder = Math.abs(unscaled % divisor);
+            if (remainder * 2 >= divisor) {
+                cents += Long.signum(unscaled);
+            }
+            return Money.ofCents(cents);
+        } catch (ArithmeticException e) {
+            throw new NumberFormatException("Amount out of range '" + getString(field) + "'");
+        }
+    }
+
+    /**
+     * Parses the field into {@link #parsedUnscaled} and {@link #parsedScale}.
+     *
+     * @return false if the value has too many digits for a long or uses
+     *         exponent notation
+     * @throws NumberFormatException if the field is not a decimal number
+     */
+    private boolean parseDecimal(int field) {
+        if (isBlank(field)) {
+            throw new NumberFormatException("Empty amount");
+        }
+        int p = fieldStart[field];
+        int end = fieldEnd[field];
+        boolean negative = false;
+        if (bytes[p] == '-' || bytes[p] == '+') {
+            negative = bytes[p] == '-';
+            p++;
+        }
+        if (p == end || end - p > 18) {
+            return false;
+        }
+        long unscaled = 0;
+        int scale = -1;
+        boolean digits = false;
+        for (; p < end; p++) {
+            byte b = bytes[p];
+            if (b >= '0' && b <= '9') {
+                unscaled = unscaled * 10 + (b - '0');
+                digits = true;
+                if (scale >= 0) {
+                    scale++;
+                }
+            } else if (b == '.' && scale < 0) {
+                scale = 0;
+            } else if (b == 'e' || b == 'E') {
+                return false; // exponent notation such as 1.2E+3 is left to BigDecimal
+            } else {
+                throw new NumberFormatException("Invalid amount '" + getString(field) + "'");
+            }
+        }
+        if (!digits) {
+            throw new NumberFormatException("Invalid amount '" + getString(field) + "'");
+        }
+        parsedUnscaled = negative ? -unscaled : unscaled;
+        parsedScale = Math.max(scale, 0);
+        return true;
+    }
+
+    /**
+     * Decodes a {@code yyyy-MM-dd HH:mm:ss} timestamp directly from the bytes.
+     *
+     * @throws DateTimeException if the field does not match the pattern or
+     *                           holds an out-of-range value
+     */
+    public LocalDateTime getTimestamp(int field) {
+        int p = fieldStart[field];
+        if (field >= fieldCount || fieldEnd[field] - p != 19
+                || bytes[p + 4] != '-' || bytes[p + 7] != '-' || bytes[p + 10] != ' '
+                || bytes[p + 13] != ':' || bytes[p + 16] != ':') {
+            throw new DateTimeException("Invalid timestamp '" + getString(field) + "'");
+        }
+        return LocalDateTime.of(
+                digits(field, p, 4),
+                digits(field, p + 5, 2),
+                digits(field, p + 8, 2),
+                digits(field, p + 11, 2),
+                digits(field, p + 14, 2),
+                digits(field, p + 17, 2));
+    }
+
+    /**
+     * Matches a field case-insensitively against the {@link Category} names.
+     *
+     * @return the category, or null when the field is blank or unknown
+     */
+    public Category getCategory(int field) {
+        if (isBlank(field)) {
+            return null;
+        }
+        int start = fieldStart[field];
+        int length = fieldEnd[field] - start;
+        for (int c = 0; c < CATEGORY_NAMES.length; c++) {
+            byte[] name = CATEGORY_NAMES[c];
+            if (name.length != length) {
+                continue;
+            }
+            int i = 0;
+            while (i < length && upper(bytes[start + i]) == name[i]) {
+                i++;
+            }
+            if (i == length) {
+                return CATEGORIES[c];
+            }
+        }
+        return null;
+    }
+
+    /** The raw text of the current record, for diagnostics. */
+    public String currentLine() {
+        int end = recordEnd;
+        while (end > recordStart && (bytes[end - 1] == '\n' || bytes[end - 1] == '\r')) {
+            end--;
+        }
+        return new String(bytes, recordStart, end - recordStart, StandardCharsets.UTF_8);
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    private int digits(int field, int from, int count) {
+        int value = 0;
+        for (int i = from; i < from + count; i++) {
+            int d = bytes[i] - '0';
+            if (d < 0 || d > 9) {
+                throw new DateTimeException("Invalid timestamp '" + getString(field) + "'");
+            }
+            value = value * 10 + d;
+        }
+        return value;
+    }
+
+    private static byte upper(byte b) {
+        return b >= 'a' && b <= 'z' ? (byte) (b - 32) : b;
+    }
+
+    /**
+     * Splits the record starting at {@code start} into field offsets.
+     *
+     * @return the offset just past the record's line terminator, or -1 if the
+     * buffer does not yet hold the complete record
+     */
+    private int parseRecord(int start) {
+        int p = start;
+        fieldCount = 0;
+        while (true) {
+            while (p < limit && (bytes[p] == ' ' || bytes[p] == '\t')) {
+                p++;
+            }
+            int s;
+            int e;
+            boolean escaped = false;
+            if (p < limit && bytes[p] == '"') {
+                s = ++p;
+                while (true) {
+                    if (p >= limit) {
+                        if (!endOfInput) {
+                            return -1;
+                        }
+                        break; // unterminated quote runs to end of input
+                    }
+                    if (bytes[p] == '"') {
+                        if (p + 1 >= limit && !endOfInput) {
+                            return -1;
+                        }
+                        if (p + 1 < limit && bytes[p + 1] == '"') {
+                            escaped = true;
+                            p += 2;
+                            continue;
+                        }
+                        break;
+                    }
+                    p++;
+                }
+                e = p;
+                if (p < limit) {
+                    p++; // closing quote
+                }
+                while (p < limit && bytes[p] != ',' && bytes[p] != '\n' && bytes[p] != '\r') {
+                    p++;
+                }
+            } else {
+                s = p;
+                while (p < limit && bytes[p] != ',' && bytes[p] != '\n' && bytes[p] != '\r') {
+                    p++;
+                }
+                e = p;
+                while (e > s && (bytes[e - 1] == ' ' || bytes[e - 1] == '\t')) {
+                    e--;
+                }
+            }
+            if (fieldCount < MAX_FIELDS) {
+                fieldStart[fieldCount] = s;
+                fieldEnd[fieldCount] = e;
+                fieldEscaped[fieldCount] = escaped;
+                fieldCount++;
+            }
+            if (p >= limit) {
+                return endOfInput && limit > start ? limit : -1;
+            }
+            byte b = bytes[p++];
+            if (b == ',') {
+                continue;
+            }
+            if (b == '\r') {
+                if (p >= limit && !endOfInput) {
+                    return -1;
+                }
+                if (p < limit && bytes[p] == '\n') {
+                    p++;
+                }
+            }
+            return p;
+        }
+    }
+
+    /**
+     * Moves the unconsumed tail to the front of the buffer and reads more
+     * input behind it, growing the buffer if a single record fills it.
+     */
+    private void fill() throws IOException {
+        int remaining = limit - position;
+        if (position > 0) {
+            System.arraycopy(bytes, position, bytes, 0, remaining);
+        } else if (remaining == bytes.length) {
+            byte[] larger = new byte[bytes.length * 2];
+            System.arraycopy(bytes, 0, larger, 0, remaining);
+            bytes = larger;
+        }
+        position = 0;
+        limit = remaining;
+        ByteBuffer target = ByteBuffer.wrap(bytes, limit, bytes.length - limit);
+        while (target.hasRemaining()) {
+            int read = channel.read(target);
+            if (read < 0) {
+                endOfInput = true;
+                break;
+            }
+            if (read == 0 && target.position() > limit) {
+                break;
+            }
+        }
+        limit = target.position();
+    }
+}
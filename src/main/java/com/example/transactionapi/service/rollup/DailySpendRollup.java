@@ -0,0 +1,115 @@
+package com.example.transactionapi.service.rollup;
+
+import com.example.transactionapi.model.Category;
+import com.example.transactionapi.model.Money;
+import com.example.transactionapi.model.Transaction;
+import com.example.transactionapi.service.ingest.TransactionBatchListener;
+import lombok.RequiredArgsConstructor;
+import lombok.Value;
+import org.springframework.core.annotation.Order;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Date;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Keeps the {@code daily_spend} and {@code monthly_spend} rollups in step with
+ * ingestion. Each batch is first collapsed in memory to one delta per
+ * (customer, day, category), then merged into the daily table with a single
+ * JDBC batch; the daily deltas are collapsed again per month for the monthly
+ * table. Both merges run in the transaction that inserts the batch, so the
+ * rollups and the transactions table commit or roll back together. Merges are
+ * serialised and the lock is held until that transaction completes, so
+ * concurrent writer threads never race to insert the same bucket.
+ */
+@Component
+@Order(0)
+@RequiredArgsConstructor
+public class DailySpendRollup implements TransactionBatchListener {
+
+    private static final String MERGE_SQL = "MERGE INTO daily_spend d " +
+            "USING (VALUES (CAST(? AS BIGINT), CAST(? AS DATE), CAST(? AS VARCHAR(32)), CAST(? AS BIGINT), CAST(? AS BIGINT))) " +
+            "s(customer_id, spend_date, category, total_cents, transaction_count) " +
+            "ON d.customer_id = s.customer_id AND d.spend_date = s.spend_date AND d.category = s.category " +
+            "WHEN MATCHED THEN UPDATE SET total_cents = d.total_cents + s.total_cents, transaction_count = d.transaction_count + s.transaction_count " +
+            "WHEN NOT MATCHED THEN INSERT (customer_id, spend_date, category, total_cents, transaction_count) " +
+            "VALUES (s.customer_id, s.spend_date, s.category, s.total_cents, s.transaction_count)";
+
+    private static final String MERGE_MONTHLY_SQL = MERGE_SQL
+            .replace("daily_spend", "monthly_spend")
+            .replace("spend_date", "spend_month");
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    /** Held from the first merge until the enclosing transaction completes. */
+    private final ReentrantLock lock = new ReentrantLock();
+
+    @Override
+    public void onBatchInserted(List<Transaction> batch) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            transactionTemplate.executeWithoutResult(status -> onBatchInserted(batch));
+            return;
+        }
+        Map<BucketKey, Delta> deltas = new HashMap<>();
+        for (Transaction t : batch) {
+            BucketKey key = new BucketKey(t.getCustomer().getId(), t.getTimestamp().toLocalDate(), t.getCategory());
+            deltas.computeIfAbsent(key, k -> new Delta()).add(t.getAmount());
+        }
+        Map<BucketKey, Delta> monthlyDeltas = new HashMap<>();
+        deltas.forEach((key, delta) -> monthlyDeltas.computeIfAbsent(
+                new BucketKey(key.getCustomerId(), key.getDay().withDayOfMonth(1), key.getCategory()),
+                k -> new Delta()).add(delta));
+        lock.lock();
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                lock.unlock();
+            }
+        });
+        merge(MERGE_SQL, deltas);
+        merge(MERGE_MONTHLY_SQL, monthlyDeltas);
+    }
+
+    private void merge(String sql, Map<BucketKey, Delta> deltas) {
+        List<Map.Entry<BucketKey, Delta>> rows = new ArrayList<>(deltas.entrySet());
+        jdbcTemplate.batchUpdate(sql, rows, rows.size(), (ps, row) -> {
+            ps.setLong(1, row.getKey().getCustomerId());
+            ps.setDate(2, Date.valueOf(row.getKey().getDay()));
+            ps.setString(3, row.getKey().getCategory().name());
+            ps.setLong(4, row.getValue().cents);
+            ps.setLong(5, row.getValue().count);
+        });
+    }
+
+    /** A daily bucket, or a monthly one keyed by the first day of the month. */
+    @Value
+    private static class BucketKey {
+        Long customerId;
+        LocalDate day;
+        Category category;
+    }
+
+    private static class Delta {
+        private long cents;
+        private long count;
+
+        void add(Money amount) {
+            cents = Math.addExact(cents, amount.getCents());
+            count++;
+        }
+
+        void add(Delta other) {
+            cents = Math.addExact(cents, other.cents);
+            count += other.count;
+        }
+    }
+}
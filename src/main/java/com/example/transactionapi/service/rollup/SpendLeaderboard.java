@@ -0,0 +1,95 @@
+package com.example.transactionapi.service.rollup;
+
+import com.example.transactionapi.model.Money;
+import com.example.transactionapi.model.Transaction;
+import com.example.transactionapi.repository.DailySpendRepository;
+import com.example.transactionapi.repository.QueryBounds;
+import com.example.transactionapi.service.ingest.TransactionBatchListener;
+import com.example.transactionapi.web.dto.TopSpender;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.annotation.Order;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.TreeSet;
+
+/**
+ * Continuously maintained all-time spend ranking of customers. Totals are
+ * seeded from the daily rollup on startup and then updated on every ingested
+ * batch, so the top N spenders can be read in O(N) without touching the
+ * database. Only unbounded (all-time) queries can be answered here; date
+ * ranges still go to the rollup. Enabled with {@code leaderboard.enabled=true}.
+ */
+@Component
+@Order(0)
+@ConditionalOnProperty(name = "leaderboard.enabled", havingValue = "true")
+@RequiredArgsConstructor
+public class SpendLeaderboard implements TransactionBatchListener {
+
+    private static final Comparator<TopSpender> RANKING = Comparator
+            .comparing(TopSpender::getTotalSpent).reversed()
+            .thenComparing(TopSpender::getCustomerId);
+
+    private final DailySpendRepository dailySpendRepository;
+
+    private final Map<Long, TopSpender> totals = new HashMap<>();
+    private final NavigableSet<TopSpender> ranking = new TreeSet<>(RANKING);
+
+    @PostConstruct
+    public synchronized void seed() {
+        for (Object[] row : dailySpendRepository.sumAmountPerCustomer(QueryBounds.MIN_DATE, QueryBounds.MAX_DATE, Pageable.unpaged())) {
+            TopSpender entry = new TopSpender((Long) row[0], Money.ofCents((Long) row[1]));
+            totals.put(entry.getCustomerId(), entry);
+            ranking.add(entry);
+        }
+    }
+
+    @Override
+    public synchronized void onRestored() {
+        totals.clear();
+        ranking.clear();
+        seed();
+    }
+
+    @Override
+    public void onBatchWritten(List<Transaction> batch) {
+        Map<Long, Money> deltas = new HashMap<>();
+        for (Transaction t : batch) {
+            deltas.merge(t.getCustomer().getId(), t.getAmount(), Money::plus);
+        }
+        synchronized (this) {
+            deltas.forEach((customerId, delta) -> {
+                TopSpender previous = totals.get(customerId);
+                if (previous != null) {
+                    ranking.remove(previous);
+                }
+                TopSpender updated = new TopSpender(customerId,
+                        previous != null ? previous.getTotalSpent().plus(delta) : delta);
+                totals.put(customerId, updated);
+                ranking.add(updated);
+            });
+        }
+    }
+
+    /**
+     * @return up to {@code count} customers with the highest all-time spend
+     */
+    public synchronized List<TopSpender> top(int count) {
+        List<TopSpender> result = new ArrayList<>(Math.min(count, ranking.size()));
+        Iterator<TopSpender> it = ranking.iterator();
+        while (it.hasNext() && result.size() < count) {
+            TopSpender entry = it.next();
+            result.add(new TopSpender(entry.getCustomerId(), entry.getTotalSpent()));
+        }
+        return result;
+    }
+}
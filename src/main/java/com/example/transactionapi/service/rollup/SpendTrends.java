@@ -0,0 +1,128 @@
+package com.example.transactionapi.service.rollup;
+
+import com.example.transactionapi.model.Category;
+import com.example.transactionapi.model.Money;
+import com.example.transactionapi.repository.DailySpendRepository;
+import com.example.transactionapi.repository.MonthlySpendRepository;
+import com.example.transactionapi.repository.QueryBounds;
+import com.example.transactionapi.repository.RollupRange;
+import com.example.transactionapi.web.dto.CategoryBreakdownEntry;
+import com.example.transactionapi.web.dto.TrendBucket;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Spend over time, per bucket and category, read from the rollups that
+ * {@link DailySpendRollup} keeps current during ingestion; they live in the
+ * primary database whichever analytics engine is selected. Each rollup part
+ * is one grouped query returned in time order and folded into buckets in a
+ * single pass. Monthly trends read whole months from {@code monthly_spend}
+ * and only the partial months at either end of the range from
+ * {@code daily_spend}, as {@link RollupRange} splits them, so a trend of N
+ * months costs about as much as one summary over the same range. Daily and
+ * weekly trends read one daily bucket per day and category.
+ */
+@Component
+@RequiredArgsConstructor
+public class SpendTrends {
+
+    /** Upper limit on the buckets of one trend, about ten years of days. */
+    public static final int MAX_BUCKETS = 3660;
+
+    private final DailySpendRepository dailySpendRepository;
+    private final MonthlySpendRepository monthlySpendRepository;
+
+    /**
+     * Returns one bucket per day, week or month of the range, for one customer
+     * or for everyone when {@code customerId} is null. The first and last
+     * buckets are clipped to the range. An open end of the range starts or
+     * stops at the first or last bucket with spend; buckets in between without
+     * spend are included with a zero total.
+     *
+     * @throws IllegalArgumentException if the range spans more than {@link #MAX_BUCKETS} buckets
+     */
+    @Transactional(readOnly = true)
+    public List<TrendBucket> trend(Long customerId, TrendGranularity granularity, LocalDate from, LocalDate to) {
+        if (from != null && to != null) {
+            checkBucketCount(granularity, from, to);
+        }
+        TreeMap<LocalDate, Map<Category, Long>> totals = new TreeMap<>();
+        if (granularity == TrendGranularity.MONTH) {
+            RollupRange range = RollupRange.of(from, to);
+            if (range.hasHead()) {
+                add(totals, granularity, daily(customerId, range.getHeadFrom(), range.getHeadTo()));
+            }
+            if (range.hasMonths()) {
+                add(totals, granularity, customerId != null
+                        ? monthlySpendRepository.sumAmountByCustomerMonthAndCategory(customerId, range.getMonthFrom(), range.getMonthTo())
+                        : monthlySpendRepository.sumAmountByMonthAndCategory(range.getMonthFrom(), range.getMonthTo()));
+            }
+            if (range.hasTail()) {
+                add(totals, granularity, daily(customerId, range.getTailFrom(), range.getTailTo()));
+            }
+        } else {
+            add(totals, granularity, daily(customerId, QueryBounds.lower(from), QueryBounds.upper(to)));
+        }
+        if (totals.isEmpty() && (from == null || to == null)) {
+            return new ArrayList<>();
+        }
+        LocalDate first = from != null ? from : totals.firstKey();
+        LocalDate last = to != null ? to : granularity.next(totals.lastKey()).minusDays(1);
+        checkBucketCount(granularity, first, last);
+        List<TrendBucket> buckets = new ArrayList<>();
+        for (LocalDate start = granularity.bucketStart(first); !start.isAfter(last); start = granularity.next(start)) {
+            LocalDate end = granularity.next(start).minusDays(1);
+            buckets.add(bucket(start.isBefore(first) ? first : start, end.isAfter(last) ? last : end, totals.get(start)));
+        }
+        return buckets;
+    }
+
+    private List<Object[]> daily(Long customerId, LocalDate from, LocalDate to) {
+        return customerId != null
+                ? dailySpendRepository.sumAmountByCustomerDayAndCategory(customerId, from, to)
+                : dailySpendRepository.sumAmountByDayAndCategory(from, to);
+    }
+
+    private static void add(TreeMap<LocalDate, Map<Category, Long>> totals, TrendGranularity granularity, List<Object[]> rows) {
+        // Rows arrive in time order, so consecutive rows mostly land in the same bucket
+        LocalDate start = null;
+        Map<Category, Long> bucket = null;
+        for (Object[] row : rows) {
+            LocalDate rowStart = granularity.bucketStart((LocalDate) row[0]);
+            if (!rowStart.equals(start)) {
+                start = rowStart;
+                bucket = totals.computeIfAbsent(start, s -> new TreeMap<>(Comparator.comparing(Category::name)));
+            }
+            bucket.merge((Category) row[1], (Long) row[2], Math::addExact);
+        }
+    }
+
+    private static TrendBucket bucket(LocalDate from, LocalDate to, Map<Category, Long> categoryTotals) {
+        List<CategoryBreakdownEntry> breakdown = new ArrayList<>();
+        long totalCents = 0;
+        if (categoryTotals != null) {
+            for (Map.Entry<Category, Long> entry : categoryTotals.entrySet()) {
+                breakdown.add(new CategoryBreakdownEntry(entry.getKey(), Money.ofCents(entry.getValue())));
+                totalCents = Math.addExact(totalCents, entry.getValue());
+            }
+        }
+        return new TrendBucket(from, to, Money.ofCents(totalCents), breakdown);
+    }
+
+    private static void checkBucketCount(TrendGranularity granularity, LocalDate first, LocalDate last) {
+        int count = 0;
+        for (LocalDate start = granularity.bucketStart(first); !start.isAfter(last); start = granularity.next(start)) {
+            if (++count > MAX_BUCKETS) {
+                throw new IllegalArgumentException("A trend can have at most " + MAX_BUCKETS + " buckets");
+            }
+        }
+    }
+}
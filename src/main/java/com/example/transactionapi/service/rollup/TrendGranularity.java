@@ -0,0 +1,47 @@
+package com.example.transactionapi.service.rollup;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.temporal.TemporalAdjusters;
+import java.util.Locale;
+
+/**
+ * Width of the buckets of a spend trend. Weeks are ISO weeks starting on
+ * Monday; months are calendar months.
+ */
+public enum TrendGranularity {
+    DAY, WEEK, MONTH;
+
+    /**
+     * Parses a granularity name in any case, e.g. {@code month}.
+     *
+     * @throws IllegalArgumentException if the name is not a granularity
+     */
+    public static TrendGranularity parse(String name) {
+        return valueOf(name.trim().toUpperCase(Locale.ROOT));
+    }
+
+    /** The first day of the bucket containing the date. */
+    public LocalDate bucketStart(LocalDate date) {
+        switch (this) {
+            case WEEK:
+                return date.with(TemporalAdjusters.previousOrSame(DayOfWeek.MONDAY));
+            case MONTH:
+                return date.withDayOfMonth(1);
+            default:
+                return date;
+        }
+    }
+
+    /** The first day of the bucket after the one starting on {@code start}. */
+    public LocalDate next(LocalDate start) {
+        switch (this) {
+            case WEEK:
+                return start.plusWeeks(1);
+            case MONTH:
+                return start.plusMonths(1);
+            default:
+                return start.plusDays(1);
+        }
+    }
+}
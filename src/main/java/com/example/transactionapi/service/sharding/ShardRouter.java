@@ -0,0 +1,29 @@
+package com.example.transactionapi.service.sharding;
+
+/**
+ * Maps customers to shards by a hash of the customer id. Ids are mixed before
+ * the modulo so that sequential ids, which is how customers are created,
+ * spread evenly instead of striping by their low bits. Changing the number of
+ * shards moves most customers, so {@link TransactionShards} rebuilds every
+ * shard whose contents no longer match.
+ */
+public final class ShardRouter {
+
+    private final int shards;
+
+    public ShardRouter(int shards) {
+        if (shards < 1) {
+            throw new IllegalArgumentException("At least one shard is required");
+        }
+        this.shards = shards;
+    }
+
+    public int shards() {
+        return shards;
+    }
+
+    public int shardOf(long customerId) {
+        long h = customerId * 0x9E3779B97F4A7C15L;
+        return Math.floorMod(h ^ (h >>> 32), shards);
+    }
+}
@@ -0,0 +1,363 @@
+package com.example.transactionapi.service.sharding;
+
+import com.example.transactionapi.model.Category;
+import com.example.transactionapi.model.Customer;
+import com.example.transactionapi.model.Money;
+import com.example.transactionapi.model.Transaction;
+import com.example.transactionapi.service.ingest.TransactionBatchListener;
+import com.example.transactionapi.service.storage.TransactionListing;
+import com.example.transactionapi.web.dto.TransactionView;
+import com.zaxxer.hikari.HikariDataSource;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.flywaydb.core.Flyway;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.jdbc.DataSourceBuilder;
+import org.springframework.core.annotation.Order;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Date;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+
+/**
+ * Customer-sharded copy of the transactions, enabled with
+ * {@code analytics.engine=sharded}. Each of {@code sharding.shards} databases,
+ * reached at {@code sharding.url-template} with {@code {shard}} replaced by
+ * the shard number, holds the customers that {@link ShardRouter} assigns to it
+ * together with their transactions and daily spend rollup, in the schema of
+ * the Flyway migrations. Embedded H2 databases stand in for separate nodes by
+ * default; pointing the template at H2 servers or another JDBC URL moves them
+ * out of process.
+ * <p>
+ * The primary database stays the system of record: ingestion, deduplication
+ * and checkpoints are unchanged, and every committed batch is split by shard
+ * and applied to each shard in one local transaction. On startup each shard's
+ * row count and highest id are compared with what the primary says it should
+ * hold, and shards that differ (new, behind, or laid out for another shard
+ * count) are rebuilt from the primary.
+ * <p>
+ * Per-customer queries go to one shard through {@link #shardFor(long)};
+ * cross-customer queries run on every shard in parallel through
+ * {@link #scatter(Function)} and the caller merges the partial results.
+ */
+@Component
+@Order(0)
+@ConditionalOnProperty(name = "analytics.engine", havingValue = "sharded")
+@Slf4j
+public class TransactionShards implements TransactionBatchListener, TransactionListing {
+
+    private static final int COPY_BATCH = 1000;
+
+    private static final String MERGE_CUSTOMER_SQL = "MERGE INTO customers (id, name, email) KEY (id) VALUES (?, ?, ?)";
+    private static final String INSERT_SQL = "INSERT INTO transactions (id, external_id, timestamp, description, " +
+            "merchant, merchant_category_code, amount_cents, category, customer_id) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?)";
+    private static final String MERGE_DAILY_SPEND_SQL = "MERGE INTO daily_spend d " +
+            "USING (VALUES (CAST(? AS BIGINT), CAST(? AS DATE), CAST(? AS VARCHAR(32)), CAST(? AS BIGINT), CAST(? AS BIGINT))) " +
+            "s(customer_id, spend_date, category, total_cents, transaction_count) " +
+            "ON d.customer_id = s.customer_id AND d.spend_date = s.spend_date AND d.category = s.category " +
+            "WHEN MATCHED THEN UPDATE SET total_cents = d.total_cents + s.total_cents, transaction_count = d.transaction_count + s.transaction_count " +
+            "WHEN NOT MATCHED THEN INSERT (customer_id, spend_date, category, total_cents, transaction_count) " +
+            "VALUES (s.customer_id, s.spend_date, s.category, s.total_cents, s.transaction_count)";
+    private static final String INSERT_DAILY_SPEND_SQL = "INSERT INTO daily_spend " +
+            "(customer_id, spend_date, category, total_cents, transaction_count) VALUES (?, ?, ?, ?, ?)";
+    private static final String PAGE_SQL = "SELECT id, external_id, timestamp, description, merchant, " +
+            "merchant_category_code, amount_cents, category FROM transactions " +
+            "WHERE customer_id = ? AND timestamp BETWEEN ? AND ? " +
+            "AND (timestamp > ? OR (timestamp = ? AND id > ?)) ORDER BY timestamp, id LIMIT ?";
+
+    private final JdbcTemplate primary;
+    private final ShardRouter router;
+    private final String urlTemplate;
+    private final String username;
+    private final String password;
+    private final List<Shard> shards = new ArrayList<>();
+    private final ExecutorService scatterPool;
+
+    public TransactionShards(JdbcTemplate jdbcTemplate,
+                             @Value("${sharding.shards:4}") int shardCount,
+                             @Value("${sharding.url-template:jdbc:h2:mem:shard-{shard};DB_CLOSE_DELAY=-1}") String urlTemplate,
+                             @Value("${sharding.username:sa}") String username,
+                             @Value("${sharding.password:}") String password) {
+        this.primary = jdbcTemplate;
+        this.router = new ShardRouter(shardCount);
+        this.urlTemplate = urlTemplate;
+        this.username = username;
+        this.password = password;
+        AtomicInteger threads = new AtomicInteger();
+        this.scatterPool = Executors.newFixedThreadPool(shardCount, r -> {
+            Thread thread = new Thread(r, "shard-scatter-" + threads.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @PostConstruct
+    public void open() {
+        for (int i = 0; i < router.shards(); i++) {
+            HikariDataSource dataSource = DataSourceBuilder.create()
+                    .type(HikariDataSource.class)
+                    .url(urlTemplate.replace("{shard}", Integer.toString(i)))
+                    .username(username)
+                    .password(password)
+                    .build();
+            dataSource.setPoolName("shard-" + i);
+            shards.add(new Shard(i, dataSource));
+            Flyway.configure().dataSource(dataSource).load().migrate();
+        }
+        rebuild(staleShards());
+    }
+
+    @PreDestroy
+    public void close() {
+        scatterPool.shutdown();
+        shards.forEach(shard -> shard.dataSource.close());
+    }
+
+    public int size() {
+        return router.shards();
+    }
+
+    /** The shard database holding a customer's transactions and rollup. */
+    public JdbcTemplate shardFor(long customerId) {
+        return shards.get(router.shardOf(customerId)).jdbcTemplate;
+    }
+
+    /**
+     * Runs a query on every shard in parallel and returns the results in shard
+     * order. A failure on any shard fails the whole query.
+     */
+    public <T> List<T> scatter(Function<JdbcTemplate, T> query) {
+        List<CompletableFuture<T>> futures = new ArrayList<>(shards.size());
+        for (Shard shard : shards) {
+            futures.add(CompletableFuture.supplyAsync(() -> query.apply(shard.jdbcTemplate), scatterPool));
+        }
+        return gather(futures);
+    }
+
+    /**
+     * Splits the customer ids by shard and runs the query in parallel on each
+     * shard that holds any of them, with that shard's ids.
+     */
+    public <T> List<T> scatter(Collection<Long> customerIds, BiFunction<JdbcTemplate, List<Long>, T> query) {
+        Map<Integer, List<Long>> byShard = new TreeMap<>();
+        for (Long customerId : customerIds) {
+            byShard.computeIfAbsent(router.shardOf(customerId), s -> new ArrayList<>()).add(customerId);
+        }
+        List<CompletableFuture<T>> futures = new ArrayList<>(byShard.size());
+        byShard.forEach((shard, ids) -> futures.add(CompletableFuture.supplyAsync(
+                () -> query.apply(shards.get(shard).jdbcTemplate, ids), scatterPool)));
+        return gather(futures);
+    }
+
+    @Override
+    public void onBatchWritten(List<Transaction> batch) {
+        Map<Integer, List<Transaction>> byShard = new HashMap<>();
+        for (Transaction t : batch) {
+            byShard.computeIfAbsent(router.shardOf(t.getCustomer().getId()), s -> new ArrayList<>()).add(t);
+        }
+        byShard.forEach((shard, transactions) -> shards.get(shard).apply(transactions));
+    }
+
+    /** A restore replaces the primary's contents, so every shard is rebuilt from it. */
+    @Override
+    public void onRestored() {
+        rebuild(shards);
+    }
+
+    @Override
+    public List<TransactionView> page(Long customerId, LocalDateTime from, LocalDateTime to,
+                                      LocalDateTime afterTimestamp, long afterId, int limit) {
+        return shardFor(customerId).query(PAGE_SQL, (rs, rowNum) -> new TransactionView(
+                        rs.getLong(1), rs.getString(2), rs.getObject(3, LocalDateTime.class), rs.getString(4),
+                        rs.getString(5), rs.getString(6), Money.ofCents(rs.getLong(7)), Category.valueOf(rs.getString(8))),
+                customerId, Timestamp.valueOf(from), Timestamp.valueOf(to),
+                Timestamp.valueOf(afterTimestamp), Timestamp.valueOf(afterTimestamp), afterId, limit);
+    }
+
+    private static <T> List<T> gather(List<CompletableFuture<T>> futures) {
+        List<T> results = new ArrayList<>(futures.size());
+        try {
+            for (CompletableFuture<T> future : futures) {
+                results.add(future.join());
+            }
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+        return results;
+    }
+
+    /** Shards whose row count or highest id differs from their share of the primary. */
+    private List<Shard> staleShards() {
+        long[] expectedRows = new long[shards.size()];
+        long[] expectedMaxId = new long[shards.size()];
+        primary.query("SELECT customer_id, COUNT(*), MAX(id) FROM transactions GROUP BY customer_id", rs -> {
+            int shard = router.shardOf(rs.getLong(1));
+            expectedRows[shard] += rs.getLong(2);
+            expectedMaxId[shard] = Math.max(expectedMaxId[shard], rs.getLong(3));
+        });
+        List<Shard> stale = new ArrayList<>();
+        for (Shard shard : shards) {
+            long[] actual = shard.jdbcTemplate.queryForObject("SELECT COUNT(*), COALESCE(MAX(id), 0) FROM transactions",
+                    (rs, rowNum) -> new long[]{rs.getLong(1), rs.getLong(2)});
+            if (actual[0] != expectedRows[shard.index] || actual[1] != expectedMaxId[shard.index]) {
+                log.info("Shard {} holds {} transactions, expected {}", shard.index, actual[0], expectedRows[shard.index]);
+                stale.add(shard);
+            }
+        }
+        return stale;
+    }
+
+    /**
+     * Empties the given shards and copies their customers, transactions and
+     * rollup rows from the primary, streaming each table once for all of them.
+     */
+    private void rebuild(List<Shard> stale) {
+        if (stale.isEmpty()) {
+            return;
+        }
+        Shard[] targets = new Shard[shards.size()];
+        for (Shard shard : stale) {
+            shard.truncate();
+            targets[shard.index] = shard;
+        }
+        copy("SELECT id, name, email FROM customers", 1, MERGE_CUSTOMER_SQL, 3, targets);
+        copy("SELECT id, external_id, timestamp, description, merchant, merchant_category_code, amount_cents, " +
+                "category, customer_id FROM transactions ORDER BY id", 9, INSERT_SQL, 9, targets);
+        copy("SELECT customer_id, spend_date, category, total_cents, transaction_count FROM daily_spend",
+                1, INSERT_DAILY_SPEND_SQL, 5, targets);
+        for (Shard shard : stale) {
+            log.info("Shard {} rebuilt with {} transactions", shard.index,
+                    shard.jdbcTemplate.queryForObject("SELECT COUNT(*) FROM transactions", Long.class));
+        }
+    }
+
+    /**
+     * Streams a primary query and inserts each row into the shard of the
+     * customer id in column {@code customerColumn}, if that shard is a target.
+     */
+    private void copy(String selectSql, int customerColumn, String insertSql, int columns, Shard[] targets) {
+        List<List<Object[]>> pending = new ArrayList<>();
+        for (int i = 0; i < targets.length; i++) {
+            pending.add(new ArrayList<>(COPY_BATCH));
+        }
+        primary.query(selectSql, rs -> {
+            int shard = router.shardOf(rs.getLong(customerColumn));
+            if (targets[shard] == null) {
+                return;
+            }
+            Object[] row = new Object[columns];
+            for (int c = 0; c < columns; c++) {
+                row[c] = rs.getObject(c + 1);
+            }
+            List<Object[]> rows = pending.get(shard);
+            rows.add(row);
+            if (rows.size() == COPY_BATCH) {
+                targets[shard].insertRows(insertSql, rows);
+                rows.clear();
+            }
+        });
+        for (int i = 0; i < targets.length; i++) {
+            if (targets[i] != null && !pending.get(i).isEmpty()) {
+                targets[i].insertRows(insertSql, pending.get(i));
+            }
+        }
+    }
+
+    private static final class Shard {
+        final int index;
+        final HikariDataSource dataSource;
+        final JdbcTemplate jdbcTemplate;
+        final TransactionTemplate transactionTemplate;
+
+        Shard(int index, HikariDataSource dataSource) {
+            this.index = index;
+            this.dataSource = dataSource;
+            this.jdbcTemplate = new JdbcTemplate(dataSource);
+            this.transactionTemplate = new TransactionTemplate(new DataSourceTransactionManager(dataSource));
+        }
+
+        /**
+         * Applies one shard's part of an ingested batch: its customers, the
+         * transactions with the ids the primary assigned, and the rollup
+         * deltas. Serialised per shard so rollup merges never race.
+         */
+        synchronized void apply(List<Transaction> batch) {
+            Map<Long, Customer> customers = new HashMap<>();
+            Map<BucketKey, long[]> deltas = new HashMap<>();
+            for (Transaction t : batch) {
+                customers.putIfAbsent(t.getCustomer().getId(), t.getCustomer());
+                BucketKey key = new BucketKey(t.getCustomer().getId(), t.getTimestamp().toLocalDate(), t.getCategory());
+                long[] delta = deltas.computeIfAbsent(key, k -> new long[2]);
+                delta[0] = Math.addExact(delta[0], t.getAmount().getCents());
+                delta[1]++;
+            }
+            List<Customer> customerRows = new ArrayList<>(customers.values());
+            List<Map.Entry<BucketKey, long[]>> deltaRows = new ArrayList<>(deltas.entrySet());
+            transactionTemplate.executeWithoutResult(status -> {
+                jdbcTemplate.batchUpdate(MERGE_CUSTOMER_SQL, customerRows, customerRows.size(), (ps, c) -> {
+                    ps.setLong(1, c.getId());
+                    ps.setString(2, c.getName());
+                    ps.setString(3, c.getEmail());
+                });
+                jdbcTemplate.batchUpdate(INSERT_SQL, batch, batch.size(), (ps, t) -> {
+                    ps.setLong(1, t.getId());
+                    ps.setString(2, t.getExternalId());
+                    ps.setTimestamp(3, Timestamp.valueOf(t.getTimestamp()));
+                    ps.setString(4, t.getDescription());
+                    ps.setString(5, t.getMerchant());
+                    ps.setString(6, t.getMerchantCategoryCode());
+                    ps.setLong(7, t.getAmount().getCents());
+                    ps.setString(8, t.getCategory().name());
+                    ps.setLong(9, t.getCustomer().getId());
+                });
+                jdbcTemplate.batchUpdate(MERGE_DAILY_SPEND_SQL, deltaRows, deltaRows.size(), (ps, row) -> {
+                    ps.setLong(1, row.getKey().customerId);
+                    ps.setDate(2, Date.valueOf(row.getKey().day));
+                    ps.setString(3, row.getKey().category.name());
+                    ps.setLong(4, row.getValue()[0]);
+                    ps.setLong(5, row.getValue()[1]);
+                });
+            });
+        }
+
+        synchronized void insertRows(String sql, List<Object[]> rows) {
+            transactionTemplate.executeWithoutResult(status -> jdbcTemplate.batchUpdate(sql, rows));
+        }
+
+        synchronized void truncate() {
+            jdbcTemplate.execute("TRUNCATE TABLE transactions");
+            jdbcTemplate.execute("TRUNCATE TABLE daily_spend");
+            jdbcTemplate.execute("DELETE FROM customers");
+        }
+    }
+
+    @lombok.Value
+    private static class BucketKey {
+        Long customerId;
+        LocalDate day;
+        Category category;
+    }
+}
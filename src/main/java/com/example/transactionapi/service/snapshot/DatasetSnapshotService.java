@@ -0,0 +1,264 @@
+package com.example.transactionapi.service.snapshot;
+
+import com.example.transactionapi.model.Category;
+import com.example.transactionapi.model.Customer;
+import com.example.transactionapi.model.DailySpend;
+import com.example.transactionapi.model.IngestCheckpoint;
+import com.example.transactionapi.model.Money;
+import com.example.transactionapi.model.Transaction;
+import com.example.transactionapi.repository.CustomerRepository;
+import com.example.transactionapi.repository.IngestCheckpointRepository;
+import com.example.transactionapi.repository.TransactionRepository;
+import com.example.transactionapi.service.ingest.TransactionBatchListener;
+import com.example.transactionapi.service.ingest.TransactionBatchWriter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Date;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Exports the customers, transactions, daily spend rollup and ingest
+ * checkpoints to a binary snapshot and restores them into an empty database.
+ * Export reads in a single repeatable-read transaction, so concurrent
+ * ingestion cannot tear the snapshot. Restore keeps customer ids, since
+ * transactions refer to them, and inserts every table as stored: nothing is
+ * parsed, categorised or rolled up; the monthly rollup is derived from the
+ * daily one with a single grouped insert. Rows are committed batch by batch
+ * with the secondary indexes dropped, and the indexes are then built in one
+ * pass each, which is far cheaper in H2 than maintaining them per row or
+ * committing one huge transaction. A {@value #RESTORE_CHECKPOINT} checkpoint is held
+ * incomplete for the duration, so a restore that was interrupted is detected
+ * and started over from an empty database. In-memory state is rebuilt
+ * afterwards through {@link TransactionBatchListener#onRestored()}.
+ */
+@Service
+@Slf4j
+public class DatasetSnapshotService {
+
+    /** Checkpoint source marking a restore in progress (complete = false) or done. */
+    public static final String RESTORE_CHECKPOINT = "snapshot-restore";
+
+    /** Secondary indexes as created by the V1 migration, as "name ON table (columns)". */
+    private static final List<String> SECONDARY_INDEXES = List.of(
+            "idx_transactions_customer_timestamp ON transactions (customer_id, timestamp, id)",
+            "idx_transactions_timestamp_category ON transactions (timestamp, category, amount_cents)",
+            "idx_transactions_external_id ON transactions (external_id)",
+            "idx_daily_spend_date_category ON daily_spend (spend_date, category, total_cents)",
+            "idx_daily_spend_date_customer ON daily_spend (spend_date, customer_id, total_cents)");
+
+    private static final String INSERT_CUSTOMER_SQL = "INSERT INTO customers (id, name, email) VALUES (?, ?, ?)";
+    private static final String INSERT_DAILY_SPEND_SQL = "INSERT INTO daily_spend " +
+            "(customer_id, spend_date, category, total_cents, transaction_count) VALUES (?, ?, ?, ?, ?)";
+    private static final String BUILD_MONTHLY_SPEND_SQL = "INSERT INTO monthly_spend " +
+            "(customer_id, spend_month, category, total_cents, transaction_count) " +
+            "SELECT customer_id, CAST(DATE_TRUNC('MONTH', spend_date) AS DATE), category, SUM(total_cents), " +
+            "SUM(transaction_count) FROM daily_spend " +
+            "GROUP BY customer_id, CAST(DATE_TRUNC('MONTH', spend_date) AS DATE), category";
+    private static final String SELECT_TRANSACTIONS_SQL = "SELECT external_id, timestamp, description, merchant, " +
+            "merchant_category_code, amount_cents, category, customer_id FROM transactions ORDER BY timestamp, id";
+    private static final String SELECT_DAILY_SPEND_SQL = "SELECT customer_id, spend_date, category, total_cents, " +
+            "transaction_count FROM daily_spend ORDER BY spend_date, customer_id, category";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate snapshotTemplate;
+    private final CustomerRepository customerRepository;
+    private final TransactionRepository transactionRepository;
+    private final IngestCheckpointRepository checkpointRepository;
+    private final TransactionBatchWriter batchWriter;
+    private final List<TransactionBatchListener> listeners;
+    private final int batchSize;
+
+    public DatasetSnapshotService(JdbcTemplate jdbcTemplate,
+                                  PlatformTransactionManager transactionManager,
+                                  CustomerRepository customerRepository,
+                                  TransactionRepository transactionRepository,
+                                  IngestCheckpointRepository checkpointRepository,
+                                  TransactionBatchWriter batchWriter,
+                                  List<TransactionBatchListener> listeners,
+                                  @Value("${ingest.batch-size:1000}") int batchSize) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.snapshotTemplate = new TransactionTemplate(transactionManager);
+        this.snapshotTemplate.setIsolationLevel(TransactionDefinition.ISOLATION_REPEATABLE_READ);
+        this.snapshotTemplate.setReadOnly(true);
+        this.customerRepository = customerRepository;
+        this.transactionRepository = transactionRepository;
+        this.checkpointRepository = checkpointRepository;
+        this.batchWriter = batchWriter;
+        this.listeners = listeners;
+        this.batchSize = batchSize;
+    }
+
+    /**
+     * Writes the current dataset to {@code target}, replacing any previous
+     * snapshot there once the new one is complete.
+     */
+    public SnapshotResult export(Path target) throws IOException {
+        long start = System.nanoTime();
+        try (SnapshotWriter writer = SnapshotWriter.create(target)) {
+            SnapshotResult result = snapshotTemplate.execute(status -> {
+                try {
+                    return write(writer);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+            result.setElapsedMillis((System.nanoTime() - start) / 1_000_000);
+            log.info("Exported {} customers and {} transactions to {} ({} bytes) in {} ms",
+                    result.getCustomers(), result.getTransactions(), target, result.getBytes(), result.getElapsedMillis());
+            return result;
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    /**
+     * Loads a snapshot into the database after checking its checksum. Partial
+     * data left by an interrupted restore is deleted first.
+     *
+     * @throws IllegalStateException if the database already holds customers or transactions
+     */
+    public SnapshotResult restore(Path source) throws IOException {
+        long start = System.nanoTime();
+        long transactions;
+        try (SnapshotReader reader = SnapshotReader.open(source)) {
+            long checksum = reader.verify();
+            if (isRestoreInterrupted()) {
+                log.warn("A previous snapshot restore was interrupted, deleting its partial data");
+                jdbcTemplate.execute("TRUNCATE TABLE transactions");
+                jdbcTemplate.execute("TRUNCATE TABLE daily_spend");
+                jdbcTemplate.execute("TRUNCATE TABLE monthly_spend");
+                jdbcTemplate.execute("DELETE FROM customers");
+            } else if (customerRepository.count() > 0 || transactionRepository.count() > 0) {
+                throw new IllegalStateException("A snapshot can only be restored into an empty database");
+            }
+            checkpointRepository.save(restoreCheckpoint(checksum, 0, false));
+            long nextId = reader.getCustomers().stream().mapToLong(Customer::getId).max().orElse(0) + 1;
+            jdbcTemplate.execute("ALTER TABLE customers ALTER COLUMN id RESTART WITH " + nextId);
+            SECONDARY_INDEXES.forEach(index -> jdbcTemplate.execute("DROP INDEX IF EXISTS " + index.substring(0, index.indexOf(' '))));
+            transactions = load(reader);
+            SECONDARY_INDEXES.forEach(index -> jdbcTemplate.execute("CREATE INDEX IF NOT EXISTS " + index));
+            checkpointRepository.saveAll(reader.getCheckpoints());
+            checkpointRepository.save(restoreCheckpoint(checksum, transactions, true));
+        }
+        listeners.forEach(TransactionBatchListener::onRestored);
+        SnapshotResult result = new SnapshotResult(customerRepository.count(), transactions,
+                Files.size(source), (System.nanoTime() - start) / 1_000_000);
+        log.info("Restored {} customers and {} transactions from {} in {} ms",
+                result.getCustomers(), result.getTransactions(), source, result.getElapsedMillis());
+        return result;
+    }
+
+    /**
+     * @return true if a restore started but did not finish, leaving partial data
+     */
+    public boolean isRestoreInterrupted() {
+        return checkpointRepository.findById(RESTORE_CHECKPOINT).map(c -> !c.isComplete()).orElse(false);
+    }
+
+    private long load(SnapshotReader reader) throws IOException {
+        jdbcTemplate.batchUpdate(INSERT_CUSTOMER_SQL, reader.getCustomers(), batchSize, (ps, c) -> {
+            ps.setLong(1, c.getId());
+            ps.setString(2, c.getName());
+            ps.setString(3, c.getEmail());
+        });
+        List<Transaction> batch = new ArrayList<>(batchSize);
+        long transactions = reader.readTransactions(t -> {
+            batch.add(t);
+            if (batch.size() == batchSize) {
+                batchWriter.insert(batch);
+                batch.clear();
+            }
+        });
+        if (!batch.isEmpty()) {
+            batchWriter.insert(batch);
+        }
+        List<DailySpend> rollup = new ArrayList<>(batchSize);
+        reader.readDailySpend(d -> {
+            rollup.add(d);
+            if (rollup.size() == batchSize) {
+                insertDailySpend(rollup);
+                rollup.clear();
+            }
+        });
+        insertDailySpend(rollup);
+        jdbcTemplate.update(BUILD_MONTHLY_SPEND_SQL);
+        return transactions;
+    }
+
+    private static IngestCheckpoint restoreCheckpoint(long checksum, long recordsRead, boolean complete) {
+        return IngestCheckpoint.builder()
+                .source(RESTORE_CHECKPOINT)
+                .contentHash(Long.toHexString(checksum))
+                .recordsRead(recordsRead)
+                .complete(complete)
+                .updatedAt(LocalDateTime.now())
+                .build();
+    }
+
+    private void insertDailySpend(List<DailySpend> rows) {
+        if (rows.isEmpty()) {
+            return;
+        }
+        jdbcTemplate.batchUpdate(INSERT_DAILY_SPEND_SQL, rows, rows.size(), (ps, d) -> {
+            ps.setLong(1, d.getCustomerId());
+            ps.setDate(2, Date.valueOf(d.getSpendDate()));
+            ps.setString(3, d.getCategory().name());
+            ps.setLong(4, d.getTotal().getCents());
+            ps.setLong(5, d.getTransactionCount());
+        });
+    }
+
+    private SnapshotResult write(SnapshotWriter writer) throws IOException {
+        List<Customer> customers = jdbcTemplate.query("SELECT id, name, email FROM customers ORDER BY id",
+                (rs, i) -> Customer.builder().id(rs.getLong(1)).name(rs.getString(2)).email(rs.getString(3)).build());
+        Map<Long, Customer> customersById = new HashMap<>();
+        customers.forEach(c -> customersById.put(c.getId(), c));
+        writer.writeHeader(customers, checkpointRepository.findAll());
+        jdbcTemplate.query(SELECT_TRANSACTIONS_SQL, rs -> {
+            String category = rs.getString(7);
+            try {
+                writer.append(Transaction.builder()
+                        .externalId(rs.getString(1))
+                        .timestamp(rs.getTimestamp(2).toLocalDateTime())
+                        .description(rs.getString(3))
+                        .merchant(rs.getString(4))
+                        .merchantCategoryCode(rs.getString(5))
+                        .amount(Money.ofCents(rs.getLong(6)))
+                        .category(category != null ? Category.valueOf(category) : null)
+                        .customer(customersById.get(rs.getLong(8)))
+                        .build());
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+        jdbcTemplate.query(SELECT_DAILY_SPEND_SQL, rs -> {
+            try {
+                writer.appendDailySpend(DailySpend.builder()
+                        .customerId(rs.getLong(1))
+                        .spendDate(rs.getDate(2).toLocalDate())
+                        .category(Category.valueOf(rs.getString(3)))
+                        .total(Money.ofCents(rs.getLong(4)))
+                        .transactionCount(rs.getLong(5))
+                        .build());
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+        long bytes = writer.finish();
+        return new SnapshotResult(customers.size(), writer.getTransactionCount(), bytes, 0);
+    }
+}
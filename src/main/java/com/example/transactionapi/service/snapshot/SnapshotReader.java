@@ -0,0 +1,327 @@
+package com.example.transactionapi.service.snapshot;
+
+import com.example.transactionapi.model.Category;
+import com.example.transactionapi.model.Customer;
+import com.example.transactionapi.model.DailySpend;
+import com.example.transactionapi.model.IngestCheckpoint;
+import com.example.transactionapi.model.Money;
+import com.example.transactionapi.model.Transaction;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+import java.util.zip.CRC32;
+
+/**
+ * Reads a dataset snapshot through memory-mapped regions of the file, so the
+ * decoder works straight on the page cache without copying into heap
+ * buffers. Integers are big-endian; "var" values are unsigned LEB128 and
+ * signed ones are zig-zag encoded first; strings are a var of UTF-8 length + 1
+ * (0 for null) followed by the bytes.
+ * <pre>
+ * header:  int magic "TXNS", int version,
+ *          var n, n category names,
+ *          var n, n × (var id, string name, string email)           customers
+ *          var n, n × (string source, string hash, var recordsRead,
+ *                      string lastExternalId, byte complete)        checkpoints
+ * block:   int length, var rows, 3 dictionaries (var n, n strings) for
+ *          merchant, description and MCC, then per row:
+ *          string externalId, zigzag var seconds since previous row (first
+ *          row: since epoch), var nanos, var merchant, description and MCC
+ *          index (0 = null), var category ordinal + 1, zigzag var cents,
+ *          var customer id
+ *          ... int 0
+ * block:   int length, var rows, then per row: zigzag var days since
+ *          previous row (first row: since epoch), var customer id, var
+ *          category ordinal, zigzag var cents, var transaction count
+ *          ... int 0                                                daily spend
+ * trailer: long transaction count, long daily spend count,
+ *          int CRC32 of everything before it
+ * </pre>
+ * Each block is mapped on its own, so files larger than 2 GB are read in
+ * block-sized windows. Instances are not thread safe.
+ */
+public class SnapshotReader implements Closeable {
+
+    private static final long VERIFY_WINDOW = 1L << 28;
+
+    private final Path path;
+    private final FileChannel channel;
+    private final long size;
+    private final List<Customer> customers = new ArrayList<>();
+    private final Map<Long, Customer> customersById = new HashMap<>();
+    private final List<IngestCheckpoint> checkpoints = new ArrayList<>();
+    private Category[] categories;
+    private long firstBlock;
+    private byte[] scratch = new byte[256];
+
+    private SnapshotReader(Path path) throws IOException {
+        this.path = path;
+        this.channel = FileChannel.open(path, StandardOpenOption.READ);
+        this.size = channel.size();
+    }
+
+    /**
+     * Opens a snapshot and decodes its header.
+     *
+     * @throws IOException if the file is not a snapshot of a supported version
+     */
+    public static SnapshotReader open(Path path) throws IOException {
+        SnapshotReader reader = new SnapshotReader(path);
+        try {
+            reader.readHeader();
+            return reader;
+        } catch (IOException | RuntimeException e) {
+            reader.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Checks the trailing CRC32 against the file contents.
+     *
+     * @return the checksum
+     * @throws IOException if the snapshot is truncated or corrupt
+     */
+    public long verify() throws IOException {
+        long contentSize = size - Integer.BYTES;
+        CRC32 crc = new CRC32();
+        for (long offset = 0; offset < contentSize; offset += VERIFY_WINDOW) {
+            crc.update(channel.map(FileChannel.MapMode.READ_ONLY, offset, Math.min(VERIFY_WINDOW, contentSize - offset)));
+        }
+        int expected = channel.map(FileChannel.MapMode.READ_ONLY, contentSize, Integer.BYTES).getInt();
+        if ((int) crc.getValue() != expected) {
+            throw new IOException("Snapshot " + path + " is corrupt (checksum mismatch)");
+        }
+        return crc.getValue();
+    }
+
+    public List<Customer> getCustomers() {
+        return customers;
+    }
+
+    public List<IngestCheckpoint> getCheckpoints() {
+        return checkpoints;
+    }
+
+    /**
+     * Decodes every transaction in file order into the sink. Transactions
+     * share the {@link Customer} instances returned by {@link #getCustomers()}.
+     *
+     * @return the number of transactions read
+     */
+    public long readTransactions(Consumer<Transaction> sink) throws IOException {
+        long[] count = {0};
+        long end = readBlocks(firstBlock, buffer -> count[0] += readBlock(buffer, sink));
+        checkCount("transactions", count[0], trailer(end).getLong());
+        return count[0];
+    }
+
+    /**
+     * Decodes every daily spend rollup row in file order into the sink.
+     *
+     * @return the number of rows read
+     */
+    public long readDailySpend(Consumer<DailySpend> sink) throws IOException {
+        long[] count = {0};
+        long start = readBlocks(firstBlock, null);
+        long end = readBlocks(start, buffer -> count[0] += readDailySpendBlock(buffer, sink));
+        ByteBuffer trailer = map(end, 2L * Long.BYTES);
+        trailer.getLong();
+        checkCount("daily spend rows", count[0], trailer.getLong());
+        return count[0];
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    private void readHeader() throws IOException {
+        MappedByteBuffer buffer = map(0, Math.min(size, Integer.MAX_VALUE));
+        if (buffer.remaining() < 2 * Integer.BYTES || buffer.getInt() != SnapshotWriter.MAGIC) {
+            throw new IOException(path + " is not a transaction snapshot");
+        }
+        int version = buffer.getInt();
+        if (version != SnapshotWriter.VERSION) {
+            throw new IOException("Unsupported snapshot version " + version + " in " + path);
+        }
+        categories = new Category[(int) readVarLong(buffer)];
+        for (int i = 0; i < categories.length; i++) {
+            String name = readString(buffer);
+            try {
+                categories[i] = Category.valueOf(name);
+            } catch (IllegalArgumentException e) {
+                throw new IOException("Snapshot " + path + " uses unknown category " + name);
+            }
+        }
+        long customerCount = readVarLong(buffer);
+        for (long i = 0; i < customerCount; i++) {
+            Customer customer = Customer.builder()
+                    .id(readVarLong(buffer))
+                    .name(readString(buffer))
+                    .email(readString(buffer))
+                    .build();
+            customers.add(customer);
+            customersById.put(customer.getId(), customer);
+        }
+        long checkpointCount = readVarLong(buffer);
+        for (long i = 0; i < checkpointCount; i++) {
+            checkpoints.add(IngestCheckpoint.builder()
+                    .source(readString(buffer))
+                    .contentHash(readString(buffer))
+                    .recordsRead(readVarLong(buffer))
+                    .lastExternalId(readString(buffer))
+                    .complete(buffer.get() != 0)
+                    .updatedAt(LocalDateTime.now())
+                    .build());
+        }
+        firstBlock = buffer.position();
+    }
+
+    /**
+     * Walks a run of length-prefixed blocks up to its terminator, handing each
+     * mapped block to the decoder (or only skipping when it is null).
+     *
+     * @return the offset just past the terminator
+     */
+    private long readBlocks(long offset, BlockDecoder decoder) throws IOException {
+        while (true) {
+            int length = map(offset, Integer.BYTES).getInt();
+            offset += Integer.BYTES;
+            if (length == 0) {
+                return offset;
+            }
+            if (decoder != null) {
+                decoder.decode(map(offset, length));
+            }
+            offset += length;
+        }
+    }
+
+    /** Maps the trailer given the offset just past the transaction blocks. */
+    private ByteBuffer trailer(long transactionsEnd) throws IOException {
+        return map(readBlocks(transactionsEnd, null), 2L * Long.BYTES);
+    }
+
+    private void checkCount(String what, long read, long expected) throws IOException {
+        if (read != expected) {
+            throw new IOException("Snapshot " + path + " holds " + read + " " + what + ", trailer says " + expected);
+        }
+    }
+
+    private int readDailySpendBlock(ByteBuffer buffer, Consumer<DailySpend> sink) throws IOException {
+        int rows = (int) readVarLong(buffer);
+        long day = 0;
+        for (int i = 0; i < rows; i++) {
+            day += unZigZag(readVarLong(buffer));
+            long customerId = readVarLong(buffer);
+            int category = (int) readVarLong(buffer);
+            if (category >= categories.length) {
+                throw new IOException("Snapshot " + path + " has an invalid category in its daily spend rollup");
+            }
+            sink.accept(DailySpend.builder()
+                    .spendDate(LocalDate.ofEpochDay(day))
+                    .customerId(customerId)
+                    .category(categories[category])
+                    .total(Money.ofCents(unZigZag(readVarLong(buffer))))
+                    .transactionCount(readVarLong(buffer))
+                    .build());
+        }
+        return rows;
+    }
+
+    private int readBlock(ByteBuffer buffer, Consumer<Transaction> sink) throws IOException {
+        int rows = (int) readVarLong(buffer);
+        String[] merchants = readDictionary(buffer);
+        String[] descriptions = readDictionary(buffer);
+        String[] mccs = readDictionary(buffer);
+        long second = 0;
+        for (int i = 0; i < rows; i++) {
+            String externalId = readString(buffer);
+            second += unZigZag(readVarLong(buffer));
+            int nanos = (int) readVarLong(buffer);
+            String merchant = merchants[(int) readVarLong(buffer)];
+            String description = descriptions[(int) readVarLong(buffer)];
+            String mcc = mccs[(int) readVarLong(buffer)];
+            int category = (int) readVarLong(buffer);
+            long cents = unZigZag(readVarLong(buffer));
+            Customer customer = customersById.get(readVarLong(buffer));
+            if (customer == null) {
+                throw new IOException("Snapshot " + path + " references a customer missing from its header");
+            }
+            sink.accept(Transaction.builder()
+                    .externalId(externalId)
+                    .timestamp(LocalDateTime.ofEpochSecond(second, nanos, ZoneOffset.UTC))
+                    .merchant(merchant)
+                    .description(description)
+                    .merchantCategoryCode(mcc)
+                    .category(category == 0 ? null : categories[category - 1])
+                    .amount(Money.ofCents(cents))
+                    .customer(customer)
+                    .build());
+        }
+        return rows;
+    }
+
+    private String[] readDictionary(ByteBuffer buffer) {
+        String[] values = new String[(int) readVarLong(buffer) + 1];
+        for (int i = 1; i < values.length; i++) {
+            values[i] = readString(buffer);
+        }
+        return values;
+    }
+
+    private MappedByteBuffer map(long offset, long length) throws IOException {
+        if (offset + length > size) {
+            throw new IOException("Snapshot " + path + " is truncated");
+        }
+        return channel.map(FileChannel.MapMode.READ_ONLY, offset, length);
+    }
+
+    private String readString(ByteBuffer buffer) {
+        int length = (int) readVarLong(buffer) - 1;
+        if (length < 0) {
+            return null;
+        }
+        if (length > scratch.length) {
+            scratch = new byte[Math.max(length, scratch.length * 2)];
+        }
+        buffer.get(scratch, 0, length);
+        return new String(scratch, 0, length, StandardCharsets.UTF_8);
+    }
+
+    private static long readVarLong(ByteBuffer buffer) {
+        long value = 0;
+        int shift = 0;
+        byte b;
+        do {
+            b = buffer.get();
+            value |= (long) (b & 0x7F) << shift;
+            shift += 7;
+        } while (b < 0);
+        return value;
+    }
+
+    private static long unZigZag(long value) {
+        return (value >>> 1) ^ -(value & 1);
+    }
+
+    @FunctionalInterface
+    private interface BlockDecoder {
+        void decode(ByteBuffer block) throws IOException;
+    }
+}
@@ -0,0 +1,17 @@
+package com.example.transactionapi.service.snapshot;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+/**
+ * Outcome of a snapshot export or restore: what it covered, the snapshot size
+ * and how long it took.
+ */
+@Data
+@AllArgsConstructor
+public class SnapshotResult {
+    private long customers;
+    private long transactions;
+    private long bytes;
+    private long elapsedMillis;
+}
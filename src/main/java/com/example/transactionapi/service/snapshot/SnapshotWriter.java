@@ -0,0 +1,346 @@
+package com.example.transactionapi.service.snapshot;
+
+import com.example.transactionapi.model.Category;
+import com.example.transactionapi.model.Customer;
+import com.example.transactionapi.model.DailySpend;
+import com.example.transactionapi.model.IngestCheckpoint;
+import com.example.transactionapi.model.Transaction;
+
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.CRC32;
+
+/**
+ * Writes a dataset snapshot in the layout described by {@link SnapshotReader}.
+ * Transactions are buffered into blocks of {@link #BLOCK_ROWS}; each block
+ * carries its own merchant, description and MCC dictionaries and stores
+ * timestamps as deltas from the previous row, so rows appended in time order
+ * cost a few bytes each. The daily spend rollup follows in the same block
+ * framing, so a restore can load it as stored instead of recomputing it. The
+ * file is written beside the target and moved into place by {@link #finish()},
+ * so a reader never sees a partial snapshot. Instances are not thread safe.
+ */
+public class SnapshotWriter implements Closeable {
+
+    static final int MAGIC = 0x54584E53; // "TXNS"
+    static final int VERSION = 1;
+    static final int BLOCK_ROWS = 65_536;
+
+    private final Path target;
+    private final Path temp;
+    private final FileChannel channel;
+    private final OutputStream out;
+    private final CRC32 crc = new CRC32();
+    private final ByteSink header = new ByteSink(1 << 16);
+    private final ByteSink rows = new ByteSink(1 << 20);
+    private final ByteSink block = new ByteSink(1 << 16);
+    private final List<Transaction> pending = new ArrayList<>(BLOCK_ROWS);
+    private final List<DailySpend> pendingDailySpend = new ArrayList<>(BLOCK_ROWS);
+    private long transactionCount;
+    private long dailySpendCount;
+    private boolean transactionsEnded;
+    private long bytesWritten;
+    private boolean finished;
+
+    private SnapshotWriter(Path target) throws IOException {
+        this.target = target;
+        this.temp = target.resolveSibling(target.getFileName() + ".tmp");
+        this.channel = FileChannel.open(temp, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING);
+        this.out = new BufferedOutputStream(Channels.newOutputStream(channel), 1 << 16);
+    }
+
+    public static SnapshotWriter create(Path target) throws IOException {
+        Path parent = target.toAbsolutePath().getParent();
+        if (parent != null) {
+            Files.createDirectories(parent);
+        }
+        return new SnapshotWriter(target);
+    }
+
+    /**
+     * Writes the file header: category names, every customer and the ingest
+     * checkpoints. Must be called once, before the first transaction.
+     */
+    public void writeHeader(Collection<Customer> customers, Collection<IngestCheckpoint> checkpoints) throws IOException {
+        header.clear();
+        header.writeInt(MAGIC);
+        header.writeInt(VERSION);
+        Category[] categories = Category.values();
+        header.writeVarLong(categories.length);
+        for (Category category : categories) {
+            header.writeString(category.name());
+        }
+        header.writeVarLong(customers.size());
+        for (Customer customer : customers) {
+            header.writeVarLong(customer.getId());
+            header.writeString(customer.getName());
+            header.writeString(customer.getEmail());
+        }
+        header.writeVarLong(checkpoints.size());
+        for (IngestCheckpoint checkpoint : checkpoints) {
+            header.writeString(checkpoint.getSource());
+            header.writeString(checkpoint.getContentHash());
+            header.writeVarLong(checkpoint.getRecordsRead());
+            header.writeString(checkpoint.getLastExternalId());
+            header.writeByte(checkpoint.isComplete() ? 1 : 0);
+        }
+        emit(header);
+    }
+
+    public void append(Transaction transaction) throws IOException {
+        if (transactionsEnded) {
+            throw new IllegalStateException("Transactions must be appended before the daily spend rollup");
+        }
+        pending.add(transaction);
+        if (pending.size() == BLOCK_ROWS) {
+            flushBlock();
+        }
+    }
+
+    public void appendDailySpend(DailySpend dailySpend) throws IOException {
+        endTransactions();
+        pendingDailySpend.add(dailySpend);
+        if (pendingDailySpend.size() == BLOCK_ROWS) {
+            flushDailySpendBlock();
+        }
+    }
+
+    /**
+     * Writes the last blocks and the trailer, forces the file to disk and
+     * moves it over the target.
+     *
+     * @return the size of the snapshot in bytes
+     */
+    public long finish() throws IOException {
+        endTransactions();
+        flushDailySpendBlock();
+        block.clear();
+        block.writeInt(0); // end of daily spend blocks
+        block.writeLong(transactionCount);
+        block.writeLong(dailySpendCount);
+        emit(block);
+        block.clear();
+        block.writeInt((int) crc.getValue());
+        out.write(block.bytes, 0, block.size);
+        bytesWritten += block.size;
+        out.flush();
+        channel.force(true);
+        out.close();
+        Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        finished = true;
+        return bytesWritten;
+    }
+
+    public long getTransactionCount() {
+        return transactionCount;
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (!finished) {
+            out.close();
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    private void endTransactions() throws IOException {
+        if (!transactionsEnded) {
+            flushBlock();
+            block.clear();
+            block.writeInt(0); // end of transaction blocks
+            emit(block);
+            transactionsEnded = true;
+        }
+    }
+
+    /**
+     * Encodes the pending rows as {@code length, rowCount, dictionaries, rows}.
+     * Dictionaries are built while the rows are encoded, so the rows go to a
+     * separate buffer and are written after them.
+     */
+    private void flushBlock() throws IOException {
+        if (pending.isEmpty()) {
+            return;
+        }
+        Dictionary merchants = new Dictionary();
+        Dictionary descriptions = new Dictionary();
+        Dictionary mccs = new Dictionary();
+        rows.clear();
+        long previousSecond = 0;
+        for (Transaction t : pending) {
+            if (t.getTimestamp() == null || t.getAmount() == null || t.getCustomer() == null) {
+                throw new IllegalArgumentException("Transaction " + t.getExternalId() + " has no timestamp, amount or customer");
+            }
+            long second = t.getTimestamp().toEpochSecond(ZoneOffset.UTC);
+            rows.writeString(t.getExternalId());
+            rows.writeVarLong(zigZag(second - previousSecond));
+            rows.writeVarLong(t.getTimestamp().getNano());
+            rows.writeVarLong(merchants.indexOf(t.getMerchant()));
+            rows.writeVarLong(descriptions.indexOf(t.getDescription()));
+            rows.writeVarLong(mccs.indexOf(t.getMerchantCategoryCode()));
+            rows.writeVarLong(t.getCategory() != null ? t.getCategory().ordinal() + 1 : 0);
+            rows.writeVarLong(zigZag(t.getAmount().getCents()));
+            rows.writeVarLong(t.getCustomer().getId());
+            previousSecond = second;
+        }
+        block.clear();
+        block.writeInt(0); // length, patched below
+        block.writeVarLong(pending.size());
+        merchants.writeTo(block);
+        descriptions.writeTo(block);
+        mccs.writeTo(block);
+        block.write(rows.bytes, 0, rows.size);
+        block.patchInt(0, block.size - Integer.BYTES);
+        emit(block);
+        transactionCount += pending.size();
+        pending.clear();
+    }
+
+    /** Encodes pending rollup rows as {@code length, rowCount, rows}. */
+    private void flushDailySpendBlock() throws IOException {
+        if (pendingDailySpend.isEmpty()) {
+            return;
+        }
+        block.clear();
+        block.writeInt(0); // length, patched below
+        block.writeVarLong(pendingDailySpend.size());
+        long previousDay = 0;
+        for (DailySpend d : pendingDailySpend) {
+            long day = d.getSpendDate().toEpochDay();
+            block.writeVarLong(zigZag(day - previousDay));
+            block.writeVarLong(d.getCustomerId());
+            block.writeVarLong(d.getCategory().ordinal());
+            block.writeVarLong(zigZag(d.getTotal().getCents()));
+            block.writeVarLong(d.getTransactionCount());
+            previousDay = day;
+        }
+        block.patchInt(0, block.size - Integer.BYTES);
+        emit(block);
+        dailySpendCount += pendingDailySpend.size();
+        pendingDailySpend.clear();
+    }
+
+    private void emit(ByteSink sink) throws IOException {
+        crc.update(sink.bytes, 0, sink.size);
+        out.write(sink.bytes, 0, sink.size);
+        bytesWritten += sink.size;
+    }
+
+    static long zigZag(long value) {
+        return (value << 1) ^ (value >> 63);
+    }
+
+    /** Block-local string table; index 0 stands for null. */
+    private static final class Dictionary {
+        private final Map<String, Integer> indexes = new HashMap<>();
+        private final List<String> values = new ArrayList<>();
+
+        int indexOf(String value) {
+            if (value == null) {
+                return 0;
+            }
+            Integer index = indexes.get(value);
+            if (index == null) {
+                values.add(value);
+                index = values.size();
+                indexes.put(value, index);
+            }
+            return index;
+        }
+
+        void writeTo(ByteSink sink) {
+            sink.writeVarLong(values.size());
+            for (String value : values) {
+                sink.writeString(value);
+            }
+        }
+    }
+
+    /** Growable byte buffer with the primitive encodings used by the format. */
+    private static final class ByteSink {
+        private byte[] bytes;
+        private int size;
+
+        ByteSink(int initialCapacity) {
+            bytes = new byte[initialCapacity];
+        }
+
+        void clear() {
+            size = 0;
+        }
+
+        void writeByte(int b) {
+            ensure(1);
+            bytes[size++] = (byte) b;
+        }
+
+        void writeInt(int value) {
+            ensure(Integer.BYTES);
+            patchInt(size, value);
+            size += Integer.BYTES;
+        }
+
+        void patchInt(int offset, int value) {
+            bytes[offset] = (byte) (value >>> 24);
+            bytes[offset + 1] = (byte) (value >>> 16);
+            bytes[offset + 2] = (byte) (value >>> 8);
+            bytes[offset + 3] = (byte) value;
+        }
+
+        void writeLong(long value) {
+            writeInt((int) (value >>> 32));
+            writeInt((int) value);
+        }
+
+        /** Unsigned LEB128. */
+        void writeVarLong(long value) {
+            ensure(10);
+            while ((value & ~0x7FL) != 0) {
+                bytes[size++] = (byte) ((value & 0x7F) | 0x80);
+                value >>>= 7;
+            }
+            bytes[size++] = (byte) value;
+        }
+
+        /** UTF-8 bytes prefixed by length + 1, with 0 meaning null. */
+        void writeString(String value) {
+            if (value == null) {
+                writeVarLong(0);
+                return;
+            }
+            byte[] utf8 = value.getBytes(StandardCharsets.UTF_8);
+            writeVarLong(utf8.length + 1L);
+            write(utf8, 0, utf8.length);
+        }
+
+        void write(byte[] source, int offset, int length) {
+            ensure(length);
+            System.arraycopy(source, offset, bytes, size, length);
+            size += length;
+        }
+
+        private void ensure(int extra) {
+            if (size + extra > bytes.length) {
+                byte[] larger = new byte[Math.max(bytes.length * 2, size + extra)];
+                System.arraycopy(bytes, 0, larger, 0, size);
+                bytes = larger;
+            }
+        }
+    }
+}
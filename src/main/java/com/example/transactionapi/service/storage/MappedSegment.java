@@ -0,0 +1,527 @@
+package com.example.transactionapi.service.storage;
+
+import com.example.transactionapi.model.Transaction;
+
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.IntBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.ZoneOffset;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * One append-only segment of the {@link MappedTransactionStore}: a file of
+ * fixed-width records mapped outside the heap, plus a side file holding each
+ * row's strings. Record layout (48 bytes, big-endian like any
+ * {@link ByteBuffer}):
+ * <pre>
+ *  0 long id           8 long epoch second (UTC)   16 long amount in cents
+ * 24 long text offset 32 int customer id          36 int nanos
+ * 40 byte category ordinal, 7 bytes padding
+ * </pre>
+ * The first {@value #HEADER_BYTES} bytes hold the committed row count, the
+ * time range and the highest id, which are written after the rows so a crash
+ * never exposes a partial record. The text file stores externalId,
+ * description, merchant and MCC per row as length-prefixed UTF-8 (-1 for null).
+ * <p>
+ * Rows are found per customer through an index: while the segment is active
+ * it is a small on-heap list per customer, bounded by the segment capacity.
+ * When the segment fills up it is sealed: row numbers are sorted by
+ * (customer, time, id) into a mapped {@code .idx} file, and only one
+ * (customer, offset) pair per distinct customer stays on the heap.
+ * <p>
+ * Appends are serialised by the store. Readers never lock except to copy the
+ * active customer index; they see rows up to the volatile count.
+ */
+final class MappedSegment implements Closeable {
+
+    static final int RECORD_BYTES = 48;
+    static final int HEADER_BYTES = 64;
+
+    private static final int MAGIC = 0x54584D53; // "TXMS"
+    private static final int VERSION = 1;
+
+    private static final int H_MAGIC = 0;
+    private static final int H_VERSION = 4;
+    private static final int H_CAPACITY = 8;
+    private static final int H_COUNT = 12;
+    private static final int H_MIN_SECOND = 16;
+    private static final int H_MAX_SECOND = 24;
+    private static final int H_MAX_ID = 32;
+
+    private static final int ID = 0;
+    private static final int SECOND = 8;
+    private static final int AMOUNT = 16;
+    private static final int TEXT = 24;
+    private static final int CUSTOMER = 32;
+    private static final int NANOS = 36;
+    private static final int CATEGORY = 40;
+
+    final int number;
+    final int capacity;
+
+    private final Path dataFile;
+    private final Path textFile;
+    private final Path indexFile;
+    private final FileChannel dataChannel;
+    private final FileChannel textChannel;
+    private final MappedByteBuffer records;
+    private long textSize;
+
+    private volatile int count;
+    private volatile long minSecond;
+    private volatile long maxSecond;
+    private volatile long maxId;
+
+    /** Active index: row numbers per customer in append order. Null once sealed. */
+    private Map<Integer, int[]> activeRows;
+    private Map<Integer, Integer> activeSizes;
+
+    /** Sealed index: distinct customers ascending, their start in {@link #sealedRows}, one trailing entry. */
+    private volatile int[] customerIds;
+    private volatile int[] customerOffsets;
+    private volatile IntBuffer sealedRows;
+    private FileChannel indexChannel;
+
+    private MappedSegment(Path directory, int number, int capacity, boolean create) throws IOException {
+        this.number = number;
+        this.dataFile = directory.resolve(String.format("segment-%06d.dat", number));
+        this.textFile = directory.resolve(String.format("segment-%06d.txt", number));
+        this.indexFile = directory.resolve(String.format("segment-%06d.idx", number));
+        this.dataChannel = FileChannel.open(dataFile, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        this.textChannel = FileChannel.open(textFile, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        if (create) {
+            this.capacity = capacity;
+            this.records = dataChannel.map(FileChannel.MapMode.READ_WRITE, 0, HEADER_BYTES + (long) capacity * RECORD_BYTES);
+            records.putInt(H_MAGIC, MAGIC);
+            records.putInt(H_VERSION, VERSION);
+            records.putInt(H_CAPACITY, capacity);
+            writeHeader(0, Long.MAX_VALUE, Long.MIN_VALUE, 0);
+        } else {
+            MappedByteBuffer header = dataChannel.map(FileChannel.MapMode.READ_ONLY, 0, HEADER_BYTES);
+            if (header.getInt(H_MAGIC) != MAGIC || header.getInt(H_VERSION) != VERSION) {
+                throw new IOException(dataFile + " is not a transaction segment of a supported version");
+            }
+            this.capacity = header.getInt(H_CAPACITY);
+            this.records = dataChannel.map(FileChannel.MapMode.READ_WRITE, 0, HEADER_BYTES + (long) this.capacity * RECORD_BYTES);
+            this.count = records.getInt(H_COUNT);
+            this.minSecond = records.getLong(H_MIN_SECOND);
+            this.maxSecond = records.getLong(H_MAX_SECOND);
+            this.maxId = records.getLong(H_MAX_ID);
+        }
+        this.textSize = textChannel.size();
+        if (count == this.capacity) {
+            seal();
+        } else {
+            rebuildActiveIndex();
+        }
+    }
+
+    static MappedSegment create(Path directory, int number, int capacity) throws IOException {
+        return new MappedSegment(directory, number, capacity, true);
+    }
+
+    static MappedSegment open(Path directory, int number) throws IOException {
+        return new MappedSegment(directory, number, 0, false);
+    }
+
+    int count() {
+        return count;
+    }
+
+    int remaining() {
+        return capacity - count;
+    }
+
+    long maxId() {
+        return maxId;
+    }
+
+    /** The highest customer id with a row in this segment, or 0 when empty. */
+    synchronized int maxCustomerId() {
+        if (activeRows == null) {
+            return customerIds[customerIds.length - 1];
+        }
+        int max = 0;
+        for (int customerId : activeRows.keySet()) {
+            max = Math.max(max, customerId);
+        }
+        return max;
+    }
+
+    /** True if no row can fall in {@code [fromSecond, toSecondExclusive)}. */
+    boolean outside(long fromSecond, long toSecondExclusive) {
+        return count == 0 || maxSecond < fromSecond || minSecond >= toSecondExclusive;
+    }
+
+    /**
+     * Appends {@code transactions[from, to)}, which must fit. The rows and
+     * their text are written before the header count is advanced.
+     */
+    void append(List<Transaction> transactions, int from, int to) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(64 * (to - from));
+        DataOutputStream text = new DataOutputStream(bytes);
+        long textStart = textSize;
+        int row = count;
+        long min = minSecond;
+        long max = maxSecond;
+        long highestId = maxId;
+        for (int i = from; i < to; i++, row++) {
+            Transaction t = transactions.get(i);
+            long second = t.getTimestamp().toEpochSecond(ZoneOffset.UTC);
+            int position = HEADER_BYTES + row * RECORD_BYTES;
+            records.putLong(position + ID, t.getId());
+            records.putLong(position + SECOND, second);
+            records.putLong(position + AMOUNT, t.getAmount().getCents());
+            records.putLong(position + TEXT, textStart + text.size());
+            records.putInt(position + CUSTOMER, Math.toIntExact(t.getCustomer().getId()));
+            records.putInt(position + NANOS, t.getTimestamp().getNano());
+            records.put(position + CATEGORY, (byte) t.getCategory().ordinal());
+            writeString(text, t.getExternalId());
+            writeString(text, t.getDescription());
+            writeString(text, t.getMerchant());
+            writeString(text, t.getMerchantCategoryCode());
+            min = Math.min(min, second);
+            max = Math.max(max, second);
+            highestId = Math.max(highestId, t.getId());
+        }
+        ByteBuffer buffer = ByteBuffer.wrap(bytes.toByteArray());
+        while (buffer.hasRemaining()) {
+            textChannel.write(buffer, textStart + buffer.position());
+        }
+        textSize = textStart + buffer.limit();
+        for (int r = count; r < row; r++) {
+            indexActive(r);
+        }
+        writeHeader(row, min, max, highestId);
+        if (row == capacity) {
+            seal();
+        }
+    }
+
+    /**
+     * Adds the amounts of rows in {@code [fromSecond, toSecondExclusive)} to
+     * {@code sums} by category ordinal, or by customer id when
+     * {@code byCustomer}, and counts them. Keys beyond the arrays are skipped.
+     */
+    void sum(long fromSecond, long toSecondExclusive, boolean byCustomer, long[] sums, long[] counts) {
+        if (outside(fromSecond, toSecondExclusive)) {
+            return;
+        }
+        boolean all = minSecond >= fromSecond && maxSecond < toSecondExclusive;
+        int rows = count;
+        for (int row = 0; row < rows; row++) {
+            int position = HEADER_BYTES + row * RECORD_BYTES;
+            if (!all) {
+                long second = records.getLong(position + SECOND);
+                if (second < fromSecond || second >= toSecondExclusive) {
+                    continue;
+                }
+            }
+            int key = byCustomer ? records.getInt(position + CUSTOMER) : records.get(position + CATEGORY);
+            if (key >= sums.length) {
+                continue;
+            }
+            sums[key] = Math.addExact(sums[key], records.getLong(position + AMOUNT));
+            counts[key]++;
+        }
+    }
+
+    /** Adds one customer's amounts in range to {@code sums} by category, as above. */
+    void sumForCustomer(int customerId, long fromSecond, long toSecondExclusive, long[] sums, long[] counts) {
+        if (outside(fromSecond, toSecondExclusive)) {
+            return;
+        }
+        RowRange range = customerRows(customerId);
+        for (int i = range.from; i < range.to; i++) {
+            int position = HEADER_BYTES + range.row(i) * RECORD_BYTES;
+            long second = records.getLong(position + SECOND);
+            if (second >= fromSecond && second < toSecondExclusive) {
+                int category = records.get(position + CATEGORY);
+                sums[category] = Math.addExact(sums[category], records.getLong(position + AMOUNT));
+                counts[category]++;
+            }
+        }
+    }
+
+    /**
+     * Collects up to {@code limit} of a customer's rows with time in
+     * {@code [fromSecond, toSecond]} that sort after (afterSecond, afterNanos,
+     * afterId), as row numbers in (time, id) order.
+     */
+    int[] customerPage(int customerId, long fromSecond, long toSecond,
+                       long afterSecond, int afterNanos, long afterId, int limit) {
+        if (outside(fromSecond, toSecond + 1)) {
+            return new int[0];
+        }
+        RowRange range = customerRows(customerId);
+        Integer[] matches = new Integer[range.to - range.from];
+        int found = 0;
+        for (int i = range.from; i < range.to; i++) {
+            int row = range.row(i);
+            long second = second(row);
+            if (second < fromSecond || second > toSecond) {
+                continue;
+            }
+            int order = Long.compare(second, afterSecond);
+            if (order == 0) {
+                order = Integer.compare(nanos(row), afterNanos);
+            }
+            if (order == 0) {
+                order = Long.compare(id(row), afterId);
+            }
+            if (order > 0) {
+                matches[found++] = row;
+                // The sealed index is already in (time, id) order
+                if (range.sorted && found == limit) {
+                    break;
+                }
+            }
+        }
+        Integer[] page = Arrays.copyOf(matches, found);
+        if (!range.sorted) {
+            Arrays.sort(page, this::compareRows);
+        }
+        int[] result = new int[Math.min(found, limit)];
+        for (int i = 0; i < result.length; i++) {
+            result[i] = page[i];
+        }
+        return result;
+    }
+
+    long id(int row) {
+        return records.getLong(HEADER_BYTES + row * RECORD_BYTES + ID);
+    }
+
+    long second(int row) {
+        return records.getLong(HEADER_BYTES + row * RECORD_BYTES + SECOND);
+    }
+
+    int nanos(int row) {
+        return records.getInt(HEADER_BYTES + row * RECORD_BYTES + NANOS);
+    }
+
+    long amount(int row) {
+        return records.getLong(HEADER_BYTES + row * RECORD_BYTES + AMOUNT);
+    }
+
+    int category(int row) {
+        return records.get(HEADER_BYTES + row * RECORD_BYTES + CATEGORY);
+    }
+
+    int customer(int row) {
+        return records.getInt(HEADER_BYTES + row * RECORD_BYTES + CUSTOMER);
+    }
+
+    /** Reads a row's externalId, description, merchant and MCC, in that order. */
+    String[] text(int row) {
+        long offset = records.getLong(HEADER_BYTES + row * RECORD_BYTES + TEXT);
+        String[] values = new String[4];
+        try {
+            ByteBuffer length = ByteBuffer.allocate(Integer.BYTES);
+            for (int i = 0; i < values.length; i++) {
+                length.clear();
+                readFully(length, offset);
+                offset += Integer.BYTES;
+                int size = length.getInt(0);
+                if (size >= 0) {
+                    ByteBuffer value = ByteBuffer.allocate(size);
+                    readFully(value, offset);
+                    offset += size;
+                    values[i] = new String(value.array(), StandardCharsets.UTF_8);
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return values;
+    }
+
+    /** Flushes the mapped rows and the text file to disk. */
+    void force() throws IOException {
+        records.force();
+        textChannel.force(false);
+    }
+
+    @Override
+    public void close() throws IOException {
+        dataChannel.close();
+        textChannel.close();
+        if (indexChannel != null) {
+            indexChannel.close();
+        }
+    }
+
+    /** Closes the segment and removes its files. */
+    void delete() throws IOException {
+        close();
+        Files.deleteIfExists(dataFile);
+        Files.deleteIfExists(textFile);
+        Files.deleteIfExists(indexFile);
+    }
+
+    private void writeHeader(int rows, long min, long max, long highestId) {
+        records.putLong(H_MIN_SECOND, min);
+        records.putLong(H_MAX_SECOND, max);
+        records.putLong(H_MAX_ID, highestId);
+        records.putInt(H_COUNT, rows);
+        minSecond = min;
+        maxSecond = max;
+        maxId = highestId;
+        count = rows;
+    }
+
+    private int compareRows(int a, int b) {
+        int order = Long.compare(second(a), second(b));
+        if (order == 0) {
+            order = Integer.compare(nanos(a), nanos(b));
+        }
+        return order != 0 ? order : Long.compare(id(a), id(b));
+    }
+
+    private void rebuildActiveIndex() {
+        activeRows = new HashMap<>();
+        activeSizes = new HashMap<>();
+        for (int row = 0; row < count; row++) {
+            indexActive(row);
+        }
+    }
+
+    private synchronized void indexActive(int row) {
+        int customerId = customer(row);
+        int size = activeSizes.getOrDefault(customerId, 0);
+        int[] rows = activeRows.get(customerId);
+        if (rows == null || rows.length == size) {
+            rows = rows == null ? new int[8] : Arrays.copyOf(rows, rows.length * 2);
+            activeRows.put(customerId, rows);
+        }
+        rows[size] = row;
+        activeSizes.put(customerId, size + 1);
+    }
+
+    private synchronized RowRange customerRows(int customerId) {
+        if (activeRows != null) {
+            int[] rows = activeRows.get(customerId);
+            int size = activeSizes.getOrDefault(customerId, 0);
+            return new RowRange(rows != null ? Arrays.copyOf(rows, size) : new int[0], null, 0, size, false);
+        }
+        int r = Arrays.binarySearch(customerIds, customerId);
+        if (r < 0) {
+            return new RowRange(new int[0], null, 0, 0, true);
+        }
+        return new RowRange(null, sealedRows, customerOffsets[r], customerOffsets[r + 1], true);
+    }
+
+    /**
+     * Writes the (customer, time, id) ordered row numbers to the index file,
+     * unless a complete one is already there, and keeps only the customer
+     * directory on the heap.
+     */
+    private synchronized void seal() throws IOException {
+        records.force();
+        long indexBytes = (long) capacity * Integer.BYTES;
+        if (!Files.exists(indexFile) || Files.size(indexFile) != indexBytes) {
+            Integer[] order = new Integer[capacity];
+            for (int i = 0; i < capacity; i++) {
+                order[i] = i;
+            }
+            Arrays.sort(order, (a, b) -> {
+                int byCustomer = Integer.compare(customer(a), customer(b));
+                return byCustomer != 0 ? byCustomer : compareRows(a, b);
+            });
+            Path temp = indexFile.resolveSibling(indexFile.getFileName() + ".tmp");
+            try (FileChannel out = FileChannel.open(temp, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                    StandardOpenOption.TRUNCATE_EXISTING)) {
+                ByteBuffer buffer = ByteBuffer.allocate(1 << 16);
+                for (Integer row : order) {
+                    if (!buffer.hasRemaining()) {
+                        buffer.flip();
+                        out.write(buffer);
+                        buffer.clear();
+                    }
+                    buffer.putInt(row);
+                }
+                buffer.flip();
+                out.write(buffer);
+                out.force(true);
+            }
+            Files.move(temp, indexFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        }
+        indexChannel = FileChannel.open(indexFile, StandardOpenOption.READ);
+        IntBuffer rows = indexChannel.map(FileChannel.MapMode.READ_ONLY, 0, indexBytes).asIntBuffer();
+        int distinct = 0;
+        for (int i = 0; i < capacity; i++) {
+            if (i == 0 || customer(rows.get(i)) != customer(rows.get(i - 1))) {
+                distinct++;
+            }
+        }
+        int[] ids = new int[distinct];
+        int[] offsets = new int[distinct + 1];
+        int r = -1;
+        for (int i = 0; i < capacity; i++) {
+            int customerId = customer(rows.get(i));
+            if (r < 0 || ids[r] != customerId) {
+                ids[++r] = customerId;
+                offsets[r] = i;
+            }
+        }
+        offsets[distinct] = capacity;
+        customerIds = ids;
+        customerOffsets = offsets;
+        sealedRows = rows;
+        activeRows = null;
+        activeSizes = null;
+    }
+
+    private void readFully(ByteBuffer buffer, long position) throws IOException {
+        while (buffer.hasRemaining()) {
+            if (textChannel.read(buffer, position + buffer.position()) < 0) {
+                throw new IOException("Unexpected end of " + textFile);
+            }
+        }
+    }
+
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        if (value == null) {
+            out.writeInt(-1);
+            return;
+        }
+        byte[] utf8 = value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(utf8.length);
+        out.write(utf8);
+    }
+
+    /** A customer's rows: either a heap copy (active) or a slice of the mapped index (sealed). */
+    private static final class RowRange {
+        final int[] heapRows;
+        final IntBuffer mappedRows;
+        final int from;
+        final int to;
+        final boolean sorted;
+
+        RowRange(int[] heapRows, IntBuffer mappedRows, int from, int to, boolean sorted) {
+            this.heapRows = heapRows;
+            this.mappedRows = mappedRows;
+            this.from = from;
+            this.to = to;
+            this.sorted = sorted;
+        }
+
+        int row(int i) {
+            return heapRows != null ? heapRows[i] : mappedRows.get(i);
+        }
+    }
+}
@@ -0,0 +1,335 @@
+package com.example.transactionapi.service.storage;
+
+import com.example.transactionapi.model.Category;
+import com.example.transactionapi.model.Customer;
+import com.example.transactionapi.model.Money;
+import com.example.transactionapi.model.Transaction;
+import com.example.transactionapi.service.ingest.TransactionBatchListener;
+import com.example.transactionapi.web.dto.TransactionView;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.annotation.Order;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * Off-heap copy of the transactions table, enabled with
+ * {@code analytics.engine=mapped}. Rows live in append-only
+ * {@link MappedSegment} files of {@code storage.mapped.segment-rows} fixed-width
+ * records under {@code storage.mapped.directory}, mapped into memory and left
+ * to the page cache, so the dataset can outgrow both the heap and physical
+ * RAM. The heap holds one customer directory per sealed segment plus the index
+ * of the one active segment, which is bounded by the segment size.
+ * <p>
+ * The store is kept current from ingested batches and survives restarts. On
+ * startup its row count and highest id are compared with the transactions
+ * table; if they differ (a crash between the database commit and the append,
+ * or a fresh database) the segments are rebuilt from the table and replace
+ * the old ones.
+ * <p>
+ * Writers are serialised; readers take the current segment array from a
+ * volatile field and never lock.
+ */
+@Component
+@Order(0)
+@ConditionalOnProperty(name = "analytics.engine", havingValue = "mapped")
+@Slf4j
+public class MappedTransactionStore implements TransactionBatchListener, TransactionListing {
+
+    private static final Category[] CATEGORIES = Category.values();
+    private static final int SEED_CHUNK = 65_536;
+    private static final String SEED_SQL = "SELECT id, external_id, timestamp, description, merchant, " +
+            "merchant_category_code, amount_cents, category, customer_id FROM transactions ORDER BY id";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final Path directory;
+    private final int segmentRows;
+
+    private volatile MappedSegment[] segments = new MappedSegment[0];
+    private volatile int maxCustomerId;
+
+    public MappedTransactionStore(JdbcTemplate jdbcTemplate,
+                                  @Value("${storage.mapped.directory:./data/segments}") String directory,
+                                  @Value("${storage.mapped.segment-rows:1048576}") int segmentRows) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.directory = Paths.get(directory);
+        this.segmentRows = segmentRows;
+    }
+
+    @PostConstruct
+    public synchronized void open() throws IOException {
+        Files.createDirectories(directory);
+        List<MappedSegment> opened = new ArrayList<>();
+        try (Stream<Path> files = Files.list(directory)) {
+            for (Path file : (Iterable<Path>) files.sorted()::iterator) {
+                String name = file.getFileName().toString();
+                if (name.startsWith("segment-") && name.endsWith(".dat")) {
+                    opened.add(MappedSegment.open(directory, Integer.parseInt(name.substring(8, name.length() - 4))));
+                }
+            }
+        }
+        install(opened.toArray(new MappedSegment[0]));
+        long[] table = jdbcTemplate.queryForObject("SELECT COUNT(*), COALESCE(MAX(id), 0) FROM transactions",
+                (rs, rowNum) -> new long[]{rs.getLong(1), rs.getLong(2)});
+        long tableRows = table[0];
+        if (size() == tableRows && maxId() == table[1]) {
+            log.info("Mapped store opened with {} transactions in {} segments", tableRows, segments.length);
+            return;
+        }
+        log.info("Mapped store holds {} transactions, the database {}; rebuilding", size(), tableRows);
+        rebuild();
+    }
+
+    @PreDestroy
+    public synchronized void close() throws IOException {
+        for (MappedSegment segment : segments) {
+            segment.force();
+            segment.close();
+        }
+        segments = new MappedSegment[0];
+    }
+
+    @Override
+    public synchronized void onBatchWritten(List<Transaction> batch) {
+        try {
+            append(batch);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /** A restore replaces the table contents, so the segments are rebuilt from it. */
+    @Override
+    public synchronized void onRestored() {
+        try {
+            rebuild();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    public long size() {
+        long size = 0;
+        for (MappedSegment segment : segments) {
+            size += segment.count();
+        }
+        return size;
+    }
+
+    public int maxCustomerId() {
+        return maxCustomerId;
+    }
+
+    /**
+     * Adds amounts in {@code [fromSecond, toSecondExclusive)} (UTC epoch
+     * seconds) to {@code sums} and {@code counts} by category ordinal, for one
+     * customer or for everyone when {@code customerId} is null. Segments whose
+     * time range misses the window are skipped without touching their pages.
+     */
+    public void sumByCategory(Long customerId, long fromSecond, long toSecondExclusive, long[] sums, long[] counts) {
+        for (MappedSegment segment : segments) {
+            if (customerId == null) {
+                segment.sum(fromSecond, toSecondExclusive, false, sums, counts);
+            } else {
+                segment.sumForCustomer(Math.toIntExact(customerId), fromSecond, toSecondExclusive, sums, counts);
+            }
+        }
+    }
+
+    /**
+     * Adds amounts in range to {@code sums} and {@code counts} by customer id.
+     * Rows of customers beyond the arrays, appended after the caller sized
+     * them from {@link #maxCustomerId()}, are left out.
+     */
+    public void sumByCustomer(long fromSecond, long toSecondExclusive, long[] sums, long[] counts) {
+        for (MappedSegment segment : segments) {
+            segment.sum(fromSecond, toSecondExclusive, true, sums, counts);
+        }
+    }
+
+    /**
+     * Each segment contributes at most {@code limit} candidates and only the
+     * rows returned have their text read.
+     */
+    @Override
+    public List<TransactionView> page(Long customerId, LocalDateTime from, LocalDateTime to,
+                                      LocalDateTime afterTimestamp, long afterId, int limit) {
+        int id = Math.toIntExact(customerId);
+        long fromSecond = from.toEpochSecond(ZoneOffset.UTC);
+        long toSecond = to.toEpochSecond(ZoneOffset.UTC);
+        long afterSecond = afterTimestamp.toEpochSecond(ZoneOffset.UTC);
+        int afterNanos = afterTimestamp.getNano();
+        List<RowRef> candidates = new ArrayList<>();
+        for (MappedSegment segment : segments) {
+            for (int row : segment.customerPage(id, fromSecond, toSecond, afterSecond, afterNanos, afterId, limit)) {
+                LocalDateTime timestamp = LocalDateTime.ofEpochSecond(segment.second(row), segment.nanos(row), ZoneOffset.UTC);
+                // Rows in the last second of the range may still lie past "to" by their nanos
+                if (!timestamp.isAfter(to) && !timestamp.isBefore(from)) {
+                    candidates.add(new RowRef(segment, row, timestamp, segment.id(row)));
+                }
+            }
+        }
+        candidates.sort(Comparator.comparing((RowRef r) -> r.timestamp).thenComparingLong(r -> r.id));
+        List<TransactionView> page = new ArrayList<>(Math.min(limit, candidates.size()));
+        for (RowRef ref : candidates.subList(0, Math.min(limit, candidates.size()))) {
+            String[] text = ref.segment.text(ref.row);
+            page.add(new TransactionView(ref.id, text[0], ref.timestamp, text[1], text[2], text[3],
+                    Money.ofCents(ref.segment.amount(ref.row)), CATEGORIES[ref.segment.category(ref.row)]));
+        }
+        return page;
+    }
+
+    private long maxId() {
+        long max = 0;
+        for (MappedSegment segment : segments) {
+            max = Math.max(max, segment.maxId());
+        }
+        return max;
+    }
+
+    private void append(List<Transaction> batch) throws IOException {
+        MappedSegment[] current = segments;
+        int nextNumber = current.length > 0 ? current[current.length - 1].number + 1 : 0;
+        appendTo(current, nextNumber, batch, true);
+        maxCustomerId = Math.max(maxCustomerId, maxCustomerId(batch));
+    }
+
+    /**
+     * Appends the batch to the last segment of {@code current}, creating
+     * segments numbered from {@code firstNumber} as each one fills.
+     *
+     * @param publish whether each grown array is installed for readers
+     * @return the segments holding the batch
+     */
+    private MappedSegment[] appendTo(MappedSegment[] current, int firstNumber, List<Transaction> batch,
+                                     boolean publish) throws IOException {
+        int from = 0;
+        while (from < batch.size()) {
+            MappedSegment active = current.length > 0 ? current[current.length - 1] : null;
+            if (active == null || active.remaining() == 0) {
+                int number = active == null ? firstNumber : active.number + 1;
+                active = MappedSegment.create(directory, number, segmentRows);
+                current = Arrays.copyOf(current, current.length + 1);
+                current[current.length - 1] = active;
+                if (publish) {
+                    segments = current;
+                }
+            }
+            int to = Math.min(batch.size(), from + active.remaining());
+            active.append(batch, from, to);
+            from = to;
+        }
+        return current;
+    }
+
+    private static int maxCustomerId(List<Transaction> batch) {
+        int max = 0;
+        for (Transaction t : batch) {
+            max = Math.max(max, Math.toIntExact(t.getCustomer().getId()));
+        }
+        return max;
+    }
+
+    /**
+     * Streams the transactions table, in id order, into new segments numbered
+     * after the current ones, then installs them and deletes the old ones.
+     * Readers keep querying the old segments while the new ones are built; a
+     * query that took the old array just before the swap can still fail when
+     * its segments are closed. If the rebuild fails the new segments are
+     * deleted and the old ones stay in place. Should the process die part way,
+     * the next start finds more rows than the table holds and rebuilds again.
+     */
+    private void rebuild() throws IOException {
+        MappedSegment[] old = segments;
+        int firstNumber = old.length > 0 ? old[old.length - 1].number + 1 : 0;
+        List<Transaction> chunk = new ArrayList<>(SEED_CHUNK);
+        MappedSegment[][] fresh = {new MappedSegment[0]};
+        int[] maxCustomer = {0};
+        try {
+            jdbcTemplate.query(SEED_SQL, rs -> {
+                chunk.add(Transaction.builder()
+                        .id(rs.getLong(1))
+                        .externalId(rs.getString(2))
+                        .timestamp(rs.getObject(3, LocalDateTime.class))
+                        .description(rs.getString(4))
+                        .merchant(rs.getString(5))
+                        .merchantCategoryCode(rs.getString(6))
+                        .amount(Money.ofCents(rs.getLong(7)))
+                        .category(Category.valueOf(rs.getString(8)))
+                        .customer(Customer.builder().id(rs.getLong(9)).build())
+                        .build());
+                if (chunk.size() == SEED_CHUNK) {
+                    fresh[0] = flush(fresh[0], firstNumber, chunk, maxCustomer);
+                }
+            });
+            fresh[0] = flush(fresh[0], firstNumber, chunk, maxCustomer);
+            for (MappedSegment segment : fresh[0]) {
+                segment.force();
+            }
+        } catch (IOException | RuntimeException e) {
+            for (MappedSegment segment : fresh[0]) {
+                segment.delete();
+            }
+            throw e;
+        }
+        // Readers skip customers beyond the bound, so it may briefly not match the array
+        maxCustomerId = maxCustomer[0];
+        segments = fresh[0];
+        for (MappedSegment segment : old) {
+            segment.delete();
+        }
+        log.info("Mapped store rebuilt with {} transactions in {} segments", size(), fresh[0].length);
+    }
+
+    private MappedSegment[] flush(MappedSegment[] current, int firstNumber, List<Transaction> chunk, int[] maxCustomer) {
+        try {
+            current = appendTo(current, firstNumber, chunk, false);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        maxCustomer[0] = Math.max(maxCustomer[0], maxCustomerId(chunk));
+        chunk.clear();
+        return current;
+    }
+
+    private void install(MappedSegment[] opened) {
+        int max = 0;
+        for (MappedSegment segment : opened) {
+            if (segment.count() > 0) {
+                max = Math.max(max, segment.maxCustomerId());
+            }
+        }
+        maxCustomerId = max;
+        segments = opened;
+    }
+
+    private static final class RowRef {
+        final MappedSegment segment;
+        final int row;
+        final LocalDateTime timestamp;
+        final long id;
+
+        RowRef(MappedSegment segment, int row, LocalDateTime timestamp, long id) {
+            this.segment = segment;
+            this.row = row;
+            this.timestamp = timestamp;
+            this.id = id;
+        }
+    }
+}
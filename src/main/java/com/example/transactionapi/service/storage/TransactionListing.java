@@ -0,0 +1,23 @@
+package com.example.transactionapi.service.storage;
+
+import com.example.transactionapi.web.dto.TransactionView;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Alternative source for the per-customer transaction listing. When a bean of
+ * this type is present, {@link com.example.transactionapi.service.TransactionService}
+ * reads listing pages from it instead of the transactions table.
+ */
+public interface TransactionListing {
+
+    /**
+     * Returns up to {@code limit} of a customer's transactions with a timestamp
+     * in {@code [from, to]} that sort after (afterTimestamp, afterId), ordered
+     * by (timestamp, id), with the same semantics as
+     * {@link com.example.transactionapi.repository.TransactionRepository#findPageByCustomer}.
+     */
+    List<TransactionView> page(Long customerId, LocalDateTime from, LocalDateTime to,
+                               LocalDateTime afterTimestamp, long afterId, int limit);
+}
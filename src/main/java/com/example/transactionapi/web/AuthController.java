@@ -6,28 +6,48 @@ import com.example.transactionapi.web.dto.AuthenticationResponse;
 import com.example.transactionapi.web.dto.RegisterRequest;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.util.concurrent.RejectedExecutionException;
+
 /**
  * Controller exposing authentication endpoints for user registration and login.
+ * Both hash a password; when the hashing pool is saturated they answer 429
+ * straight away instead of queueing behind other logins.
  */
 @RestController
 @RequestMapping("/api/v1/auth")
 @RequiredArgsConstructor
 public class AuthController {
 
+    private static final String RETRY_AFTER_SECONDS = "1";
+
     private final AuthenticationService authenticationService;
 
     @PostMapping("/register")
     public ResponseEntity<AuthenticationResponse> register(@Valid @RequestBody RegisterRequest request) {
-        AuthenticationResponse response = authenticationService.register(request);
-        return ResponseEntity.ok(response);
+        try {
+            return ResponseEntity.ok(authenticationService.register(request));
+        } catch (RejectedExecutionException e) {
+            return tooManyRequests();
+        }
     }
 
     @PostMapping("/login")
     public ResponseEntity<AuthenticationResponse> login(@Valid @RequestBody AuthenticationRequest request) {
-        AuthenticationResponse response = authenticationService.authenticate(request);
-        return ResponseEntity.ok(response);
+        try {
+            return ResponseEntity.ok(authenticationService.authenticate(request));
+        } catch (RejectedExecutionException e) {
+            return tooManyRequests();
+        }
+    }
+
+    private static ResponseEntity<AuthenticationResponse> tooManyRequests() {
+        return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                .header(HttpHeaders.RETRY_AFTER, RETRY_AFTER_SECONDS)
+                .build();
     }
 }
\ No newline at end of file
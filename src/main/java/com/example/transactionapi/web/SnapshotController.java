@@ -0,0 +1,36 @@
+package com.example.transactionapi.web;
+
+import com.example.transactionapi.service.snapshot.DatasetSnapshotService;
+import com.example.transactionapi.service.snapshot.SnapshotResult;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.io.IOException;
+import java.nio.file.Path;
+
+/**
+ * REST controller for exporting the dataset to a binary snapshot. Requires
+ * ADMIN role. The snapshot is always written to {@code snapshot.location};
+ * new instances restore it on startup when
+ * {@code snapshot.restore-on-startup} is set.
+ */
+@RestController
+@RequestMapping("/api/v1/admin")
+@RequiredArgsConstructor
+public class SnapshotController {
+
+    private final DatasetSnapshotService snapshotService;
+
+    @Value("${snapshot.location:./data/transactions.snapshot}")
+    private Path snapshotLocation;
+
+    @PostMapping("/snapshot")
+    @PreAuthorize("hasRole('ADMIN')")
+    public SnapshotResult export() throws IOException {
+        return snapshotService.export(snapshotLocation);
+    }
+}
@@ -3,31 +3,53 @@ package com.example.transactionapi.web;
 import com.example.transactionapi.model.AppUser;
 import com.example.transactionapi.model.Role;
 import com.example.transactionapi.repository.AppUserRepository;
-import com.example.transactionapi.repository.TransactionRepository;
+import com.example.transactionapi.service.TransactionCursor;
 import com.example.transactionapi.service.TransactionService;
+import com.example.transactionapi.service.cache.CachedSummary;
+import com.example.transactionapi.service.cache.SummaryCache;
+import com.example.transactionapi.service.cache.SummaryKey;
+import com.example.transactionapi.service.rollup.TrendGranularity;
 import com.example.transactionapi.web.dto.*;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.validation.ConstraintViolationException;
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.Max;
 import jakarta.validation.constraints.Min;
 import lombok.RequiredArgsConstructor;
 import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
 import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
 import java.util.List;
 
 /**
  * REST controller exposing endpoints to retrieve aggregated transaction data.
+ * Summary endpoints are served through the {@link SummaryCache} and carry an
+ * ETag; a request whose {@code If-None-Match} matches receives 304 with no
+ * body. Request parameters outside their {@code @Min}/{@code @Max} bounds
+ * receive 400.
  */
 @RestController
 @RequestMapping("/api/v1")
 @RequiredArgsConstructor
+@Validated
 public class TransactionController {
 
+    private static final String NDJSON_VALUE = "application/x-ndjson";
+
     private final TransactionService transactionService;
+    private final SummaryCache summaryCache;
     private final AppUserRepository userRepository;
-    private final TransactionRepository transactionRepository;
+    private final ObjectMapper objectMapper;
 
     /**
      * Returns a summary of spending for a specific customer. Users can only
@@ -38,8 +60,8 @@ public class TransactionController {
     public ResponseEntity<CustomerSummary> getCustomerSummary(@PathVariable Long customerId,
                                                               @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
                                                               @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
-        CustomerSummary summary = transactionService.getCustomerSummary(customerId, from, to);
-        return ResponseEntity.ok(summary);
+        return withETag(summaryCache.get(SummaryKey.customerSummary(customerId, from, to),
+                () -> transactionService.getCustomerSummary(customerId, from, to)));
     }
 
     /**
@@ -49,8 +71,34 @@ public class TransactionController {
     @PreAuthorize("hasRole('ADMIN')")
     public ResponseEntity<OverallSummary> getOverallSummary(@RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
                                                             @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
-        OverallSummary summary = transactionService.getOverallSummary(from, to);
-        return ResponseEntity.ok(summary);
+        return withETag(summaryCache.get(SummaryKey.overallSummary(from, to),
+                () -> transactionService.getOverallSummary(from, to)));
+    }
+
+    /**
+     * Returns a customer's spend per bucket and category, with buckets of a
+     * {@code day}, {@code week} (from Monday) or {@code month}. Optional
+     * {@code from}/{@code to} limit the period. Users can only access their
+     * own data unless they have the ADMIN role.
+     */
+    @GetMapping("/customers/{customerId}/trend")
+    @PreAuthorize("#customerId == principal.id or hasRole('ADMIN')")
+    public ResponseEntity<SpendTrend> getCustomerTrend(@PathVariable Long customerId,
+                                                       @RequestParam(defaultValue = "month") String granularity,
+                                                       @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+                                                       @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+        return trend(customerId, granularity, from, to);
+    }
+
+    /**
+     * Returns the spend trend across all customers. Requires ADMIN role.
+     */
+    @GetMapping("/summary/trend")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<SpendTrend> getOverallTrend(@RequestParam(defaultValue = "month") String granularity,
+                                                      @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+                                                      @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+        return trend(null, granularity, from, to);
     }
 
     /**
@@ -61,8 +109,8 @@ public class TransactionController {
     public ResponseEntity<List<TopSpender>> getTopSpenders(@RequestParam(defaultValue = "5") @Min(1) int count,
                                                            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
                                                            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
-        List<TopSpender> topSpenders = transactionService.getTopSpenders(count, from, to);
-        return ResponseEntity.ok(topSpenders);
+        return withETag(summaryCache.get(SummaryKey.topSpenders(count, from, to),
+                () -> transactionService.getTopSpenders(count, from, to)));
     }
 
     /**
@@ -82,37 +130,148 @@ public class TransactionController {
             if (!isAdmin) {
                 return ResponseEntity.status(403).build();
             }
-            List<TopCategory> result = transactionService.getTopCategoriesOverall(count, from, to);
-            return ResponseEntity.ok(result);
+            return withETag(summaryCache.get(SummaryKey.topCategories(null, count, from, to),
+                    () -> transactionService.getTopCategoriesOverall(count, from, to)));
         }
         if (!isAdmin && !customerId.equals(principal.getId())) {
             return ResponseEntity.status(403).build();
         }
-        List<TopCategory> result = transactionService.getTopCategoriesForCustomer(customerId, count, from, to);
-        return ResponseEntity.ok(result);
+        return withETag(summaryCache.get(SummaryKey.topCategories(customerId, count, from, to),
+                () -> transactionService.getTopCategoriesForCustomer(customerId, count, from, to)));
     }
 
     /**
-     * Returns raw transactions for a customer. Users can view only their own
-     * transactions; admins can view any customer's transactions. Pagination
-     * could be added via query parameters but is omitted for brevity.
+     * Returns a page of raw transactions for a customer in (timestamp, id)
+     * order. Pass the returned nextCursor as the cursor parameter to fetch the
+     * following page. Users can view only their own transactions; admins can
+     * view any customer's transactions.
      */
-    @GetMapping("/customers/{customerId}/transactions")
+    @GetMapping(value = "/customers/{customerId}/transactions", produces = MediaType.APPLICATION_JSON_VALUE)
     @PreAuthorize("#customerId == principal.id or hasRole('ADMIN')")
-    public ResponseEntity<?> getTransactions(@PathVariable Long customerId,
-                                             @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
-                                             @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
-        if (from != null && to != null) {
-            return ResponseEntity.ok(transactionRepository.findByCustomerIdAndTimestampBetween(customerId,
-                    from.atStartOfDay(), to.atTime(23, 59, 59)));
-        } else if (from != null) {
-            return ResponseEntity.ok(transactionRepository.findByCustomerIdAndTimestampBetween(customerId,
-                    from.atStartOfDay(), LocalDateTime.MAX));
-        } else if (to != null) {
-            return ResponseEntity.ok(transactionRepository.findByCustomerIdAndTimestampBetween(customerId,
-                    LocalDateTime.MIN, to.atTime(23, 59, 59)));
-        } else {
-            return ResponseEntity.ok(transactionRepository.findByCustomerId(customerId));
+    public ResponseEntity<TransactionPage> getTransactions(@PathVariable Long customerId,
+                                                           @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+                                                           @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+                                                           @RequestParam(required = false) String cursor,
+                                                           @RequestParam(defaultValue = "100") @Min(1) @Max(TransactionService.MAX_PAGE_SIZE) int limit) {
+        TransactionCursor position;
+        try {
+            position = cursor != null ? TransactionCursor.decode(cursor) : null;
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+        return ResponseEntity.ok(transactionService.getTransactionPage(customerId, from, to, position, limit));
+    }
+
+    /**
+     * Streams every matching transaction as newline-delimited JSON when the
+     * client sends {@code Accept: application/x-ndjson}. Rows are fetched and
+     * written one keyset page at a time, so memory use stays constant however
+     * long the customer's history is.
+     */
+    @GetMapping(value = "/customers/{customerId}/transactions", produces = NDJSON_VALUE)
+    @PreAuthorize("#customerId == principal.id or hasRole('ADMIN')")
+    public ResponseEntity<StreamingResponseBody> streamTransactions(@PathVariable Long customerId,
+                                                                    @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+                                                                    @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+        StreamingResponseBody body = out -> {
+            TransactionCursor position = null;
+            do {
+                TransactionPage page = transactionService.getTransactionPage(customerId, from, to, position,
+                        TransactionService.MAX_PAGE_SIZE);
+                for (TransactionView view : page.getItems()) {
+                    out.write(objectMapper.writeValueAsBytes(view));
+                    out.write('\n');
+                }
+                out.flush();
+                position = page.getNextCursor() != null ? TransactionCursor.decode(page.getNextCursor()) : null;
+            } while (position != null);
+        };
+        return ResponseEntity.ok().contentType(MediaType.parseMediaType(NDJSON_VALUE)).body(body);
+    }
+
+    /**
+     * Returns the summaries of many customers over one optional date range, as
+     * a JSON array in the order the ids were given. Ids are summarised in
+     * batches of {@link TransactionService#MAX_SUMMARY_BATCH}, each answered by
+     * one grouped query, and every batch is written out before the next is
+     * read, so the list can be as long as the caller needs. Unknown and
+     * repeated ids are skipped. Requires ADMIN role.
+     */
+    @PostMapping(value = "/customers/summaries", produces = MediaType.APPLICATION_JSON_VALUE)
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<StreamingResponseBody> getCustomerSummaries(@Valid @RequestBody CustomerSummariesRequest request) {
+        StreamingResponseBody body = out -> {
+            out.write('[');
+            boolean[] first = {true};
+            forEachSummaryBatch(request, batch -> {
+                for (CustomerSummary summary : batch) {
+                    if (!first[0]) {
+                        out.write(',');
+                    }
+                    first[0] = false;
+                    out.write(objectMapper.writeValueAsBytes(summary));
+                }
+                out.flush();
+            });
+            out.write(']');
+        };
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_JSON).body(body);
+    }
+
+    /**
+     * The same summaries as newline-delimited JSON, one per line, when the
+     * client sends {@code Accept: application/x-ndjson}.
+     */
+    @PostMapping(value = "/customers/summaries", produces = NDJSON_VALUE)
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<StreamingResponseBody> streamCustomerSummaries(@Valid @RequestBody CustomerSummariesRequest request) {
+        StreamingResponseBody body = out -> forEachSummaryBatch(request, batch -> {
+            for (CustomerSummary summary : batch) {
+                out.write(objectMapper.writeValueAsBytes(summary));
+                out.write('\n');
+            }
+            out.flush();
+        });
+        return ResponseEntity.ok().contentType(MediaType.parseMediaType(NDJSON_VALUE)).body(body);
+    }
+
+    /**
+     * Parameter constraints are checked on the method call, which reports a
+     * violation as an exception rather than a binding error.
+     */
+    @ExceptionHandler(ConstraintViolationException.class)
+    public ResponseEntity<Void> handleConstraintViolation(ConstraintViolationException e) {
+        return ResponseEntity.badRequest().build();
+    }
+
+    private void forEachSummaryBatch(CustomerSummariesRequest request, SummaryBatchWriter writer) throws IOException {
+        List<Long> ids = new ArrayList<>(new LinkedHashSet<>(request.getCustomerIds()));
+        for (int from = 0; from < ids.size(); from += TransactionService.MAX_SUMMARY_BATCH) {
+            List<Long> batch = ids.subList(from, Math.min(ids.size(), from + TransactionService.MAX_SUMMARY_BATCH));
+            writer.write(transactionService.getCustomerSummaries(batch, request.getFrom(), request.getTo()));
         }
     }
-}
\ No newline at end of file
+
+    @FunctionalInterface
+    private interface SummaryBatchWriter {
+        void write(List<CustomerSummary> batch) throws IOException;
+    }
+
+    private ResponseEntity<SpendTrend> trend(Long customerId, String granularity, LocalDate from, LocalDate to) {
+        try {
+            TrendGranularity width = TrendGranularity.parse(granularity);
+            return withETag(summaryCache.get(SummaryKey.trend(customerId, width, from, to),
+                    () -> transactionService.getSpendTrend(customerId, width, from, to)));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    /**
+     * Spring compares the ETag with {@code If-None-Match} when writing the
+     * response and turns a match into a 304 without serialising the body.
+     */
+    private static <T> ResponseEntity<T> withETag(CachedSummary<T> cached) {
+        return ResponseEntity.ok().eTag(cached.getEtag()).body(cached.getValue());
+    }
+}
@@ -0,0 +1,87 @@
+package com.example.transactionapi.web;
+
+import com.example.transactionapi.service.ingest.LiveIngestService;
+import com.example.transactionapi.web.dto.IngestResponse;
+import com.example.transactionapi.web.dto.TransactionRequest;
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.RejectedExecutionException;
+
+/**
+ * REST controller for pushing transactions into the system. Requires ADMIN
+ * role. Writes are idempotent on externalId, so a client may safely resend a
+ * request after a 503.
+ */
+@RestController
+@RequestMapping("/api/v1")
+@RequiredArgsConstructor
+public class TransactionIngestController {
+
+    private static final String NDJSON_VALUE = "application/x-ndjson";
+    private static final String RETRY_AFTER_SECONDS = "1";
+
+    private final LiveIngestService liveIngestService;
+
+    /**
+     * Ingests a single transaction. Returns 201 when it was stored, 200 when
+     * its externalId already existed and 503 when the writer is saturated or
+     * its batch failed and was rolled back.
+     */
+    @PostMapping(value = "/transactions", consumes = MediaType.APPLICATION_JSON_VALUE)
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<IngestResponse> ingest(@Valid @RequestBody TransactionRequest request) {
+        boolean inserted;
+        try {
+            inserted = liveIngestService.submit(request).join();
+        } catch (NoSuchElementException e) {
+            return ResponseEntity.badRequest().body(new IngestResponse(0, 0, 1, List.of(e.getMessage()), true));
+        } catch (RejectedExecutionException e) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                    .header(HttpHeaders.RETRY_AFTER, RETRY_AFTER_SECONDS)
+                    .body(new IngestResponse(0, 0, 0, List.of(e.getMessage()), false));
+        } catch (CompletionException e) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                    .header(HttpHeaders.RETRY_AFTER, RETRY_AFTER_SECONDS)
+                    .body(new IngestResponse(0, 0, 1, List.of("not written (" + e.getCause().getMessage() + "), resend"), false));
+        }
+        if (inserted) {
+            return ResponseEntity.status(HttpStatus.CREATED).body(new IngestResponse(1, 0, 0, List.of(), true));
+        }
+        return ResponseEntity.ok(new IngestResponse(0, 1, 0, List.of(), true));
+    }
+
+    /**
+     * Ingests newline-delimited JSON, one transaction per line. Invalid lines
+     * are reported without failing the upload. If the writer saturates part
+     * way through, the counts so far are returned with 503 and the upload can
+     * be resent as a whole. The same applies when some lines could not be
+     * written; they are listed among the errors.
+     */
+    @PostMapping(value = "/transactions", consumes = NDJSON_VALUE)
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<IngestResponse> ingestBulk(InputStream body) throws IOException {
+        IngestResponse response = liveIngestService.ingestNdjson(
+                new BufferedReader(new InputStreamReader(body, StandardCharsets.UTF_8)));
+        if (!response.isComplete()) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                    .header(HttpHeaders.RETRY_AFTER, RETRY_AFTER_SECONDS)
+                    .body(response);
+        }
+        return ResponseEntity.ok(response);
+    }
+}
@@ -1,11 +1,10 @@
 package com.example.transactionapi.web.dto;
 
 import com.example.transactionapi.model.Category;
+import com.example.transactionapi.model.Money;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 
-import java.math.BigDecimal;
-
 /**
  * Represents a single category and its aggregated amount.
  */
@@ -13,5 +12,5 @@ import java.math.BigDecimal;
 @AllArgsConstructor
 public class CategoryBreakdownEntry {
     private Category category;
-    private BigDecimal total;
+    private Money total;
 }
\ No newline at end of file
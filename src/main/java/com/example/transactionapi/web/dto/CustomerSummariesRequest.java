@@ -0,0 +1,24 @@
+package com.example.transactionapi.web.dto;
+
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Request body for bulk customer summaries. Every customer is summarised over
+ * the same optional date range; a missing bound leaves that side open.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CustomerSummariesRequest {
+    @NotEmpty
+    private List<@NotNull Long> customerIds;
+    private LocalDate from;
+    private LocalDate to;
+}
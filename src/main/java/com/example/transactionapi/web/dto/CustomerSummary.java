@@ -1,11 +1,11 @@
 package com.example.transactionapi.web.dto;
 
 import com.example.transactionapi.model.Category;
+import com.example.transactionapi.model.Money;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
 
-import java.math.BigDecimal;
 import java.util.List;
 
 /**
@@ -18,7 +18,7 @@ import java.util.List;
 public class CustomerSummary {
     private Long customerId;
     private String periodDescription;
-    private BigDecimal totalSpent;
+    private Money totalSpent;
     private List<CategoryBreakdownEntry> breakdown;
     private Category topCategory;
 }
\ No newline at end of file
@@ -0,0 +1,24 @@
+package com.example.transactionapi.web.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.util.List;
+
+/**
+ * Outcome of an ingestion request. Duplicates are transactions whose
+ * externalId was already stored; rejected lines failed parsing or validation
+ * or could not be written, and are described in errors (the first few
+ * only). Complete is false when an upload stopped early because the writer
+ * queue was full, or when some lines could not be written; resending it is
+ * safe since stored externalIds are skipped.
+ */
+@Data
+@AllArgsConstructor
+public class IngestResponse {
+    private long inserted;
+    private long duplicates;
+    private long rejected;
+    private List<String> errors;
+    private boolean complete;
+}
@@ -0,0 +1,24 @@
+package com.example.transactionapi.web.dto;
+
+import com.example.transactionapi.model.Money;
+import com.example.transactionapi.service.rollup.TrendGranularity;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+
+import java.util.List;
+
+/**
+ * Spend over a time period split into day, week or month buckets, for one
+ * customer or, when the customer id is null, across all customers.
+ */
+@Data
+@Builder
+@AllArgsConstructor
+public class SpendTrend {
+    private Long customerId;
+    private String periodDescription;
+    private TrendGranularity granularity;
+    private Money totalSpent;
+    private List<TrendBucket> buckets;
+}
@@ -1,11 +1,10 @@
 package com.example.transactionapi.web.dto;
 
 import com.example.transactionapi.model.Category;
+import com.example.transactionapi.model.Money;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 
-import java.math.BigDecimal;
-
 /**
  * Represents a category and its total spend, used to list top categories.
  */
@@ -13,5 +12,5 @@ import java.math.BigDecimal;
 @AllArgsConstructor
 public class TopCategory {
     private Category category;
-    private BigDecimal totalSpent;
+    private Money totalSpent;
 }
\ No newline at end of file
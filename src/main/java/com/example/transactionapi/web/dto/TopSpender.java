@@ -1,10 +1,9 @@
 package com.example.transactionapi.web.dto;
 
+import com.example.transactionapi.model.Money;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 
-import java.math.BigDecimal;
-
 /**
  * Represents a customer and their total spend, used in top spender lists.
  */
@@ -12,5 +11,5 @@ import java.math.BigDecimal;
 @AllArgsConstructor
 public class TopSpender {
     private Long customerId;
-    private BigDecimal totalSpent;
+    private Money totalSpent;
 }
\ No newline at end of file
@@ -0,0 +1,18 @@
+package com.example.transactionapi.web.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.util.List;
+
+/**
+ * One page of a customer's transactions in (timestamp, id) order. When more
+ * transactions follow, nextCursor holds an opaque token to pass back as the
+ * cursor parameter; otherwise it is null.
+ */
+@Data
+@AllArgsConstructor
+public class TransactionPage {
+    private List<TransactionView> items;
+    private String nextCursor;
+}
@@ -0,0 +1,36 @@
+package com.example.transactionapi.web.dto;
+
+import com.example.transactionapi.model.Category;
+import com.example.transactionapi.model.Money;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotNull;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * A transaction pushed through the ingestion API, either as a JSON body or as
+ * one line of an NDJSON upload. Category is optional and is derived from the
+ * description, merchant and MCC when omitted.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class TransactionRequest {
+    @NotBlank
+    private String externalId;
+    @NotNull
+    private Long customerId;
+    @NotNull
+    private LocalDateTime timestamp;
+    private String description;
+    private String merchant;
+    private String merchantCategoryCode;
+    @NotNull
+    private Money amount;
+    private Category category;
+}
@@ -0,0 +1,25 @@
+package com.example.transactionapi.web.dto;
+
+import com.example.transactionapi.model.Category;
+import com.example.transactionapi.model.Money;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+/**
+ * Slim, read-only projection of a transaction for listing endpoints. Selected
+ * directly by the repository so no entity or lazy customer proxy is loaded.
+ */
+@Data
+@AllArgsConstructor
+public class TransactionView {
+    private Long id;
+    private String externalId;
+    private LocalDateTime timestamp;
+    private String description;
+    private String merchant;
+    private String merchantCategoryCode;
+    private Money amount;
+    private Category category;
+}
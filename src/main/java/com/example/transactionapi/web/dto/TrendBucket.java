@@ -0,0 +1,21 @@
+package com.example.transactionapi.web.dto;
+
+import com.example.transactionapi.model.Money;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Spend within one bucket of a trend. {@code from} and {@code to} are the
+ * inclusive days the bucket covers, clipped to the requested range.
+ */
+@Data
+@AllArgsConstructor
+public class TrendBucket {
+    private LocalDate from;
+    private LocalDate to;
+    private Money totalSpent;
+    private List<CategoryBreakdownEntry> breakdown;
+}
@@ -0,0 +1,51 @@
+-- Schema as previously generated by Hibernate from the entity mappings.
+-- Index names are asserted by QueryPlanTest.
+
+CREATE TABLE customers (
+    id BIGINT GENERATED BY DEFAULT AS IDENTITY,
+    email VARCHAR(255),
+    name VARCHAR(255),
+    PRIMARY KEY (id)
+);
+
+CREATE TABLE users (
+    id BIGINT GENERATED BY DEFAULT AS IDENTITY,
+    password VARCHAR(255) NOT NULL,
+    role VARCHAR(255) CHECK (role IN ('ROLE_USER', 'ROLE_ADMIN')),
+    username VARCHAR(255) NOT NULL UNIQUE,
+    PRIMARY KEY (id)
+);
+
+CREATE TABLE transactions (
+    id BIGINT GENERATED BY DEFAULT AS IDENTITY,
+    external_id VARCHAR(255),
+    timestamp TIMESTAMP(6),
+    description VARCHAR(255),
+    merchant VARCHAR(255),
+    merchant_category_code VARCHAR(255),
+    amount_cents BIGINT,
+    category VARCHAR(255) CHECK (category IN ('FOOD', 'TRANSPORT', 'UTILITIES', 'ENTERTAINMENT', 'SHOPPING',
+        'HEALTHCARE', 'COMMUNICATION', 'EDUCATION', 'TRAVEL', 'INCOME', 'OTHER')),
+    customer_id BIGINT,
+    PRIMARY KEY (id),
+    CONSTRAINT fk_transactions_customer FOREIGN KEY (customer_id) REFERENCES customers (id)
+);
+
+CREATE INDEX idx_transactions_customer_timestamp ON transactions (customer_id, timestamp, id);
+CREATE INDEX idx_transactions_timestamp_category ON transactions (timestamp, category, amount_cents);
+CREATE INDEX idx_transactions_external_id ON transactions (external_id);
+
+CREATE TABLE daily_spend (
+    id BIGINT GENERATED BY DEFAULT AS IDENTITY,
+    customer_id BIGINT NOT NULL,
+    spend_date DATE NOT NULL,
+    category VARCHAR(255) NOT NULL CHECK (category IN ('FOOD', 'TRANSPORT', 'UTILITIES', 'ENTERTAINMENT', 'SHOPPING',
+        'HEALTHCARE', 'COMMUNICATION', 'EDUCATION', 'TRAVEL', 'INCOME', 'OTHER')),
+    total_cents BIGINT NOT NULL,
+    transaction_count BIGINT NOT NULL,
+    PRIMARY KEY (id),
+    CONSTRAINT uk_daily_spend_customer_date_category UNIQUE (customer_id, spend_date, category)
+);
+
+CREATE INDEX idx_daily_spend_date_category ON daily_spend (spend_date, category, total_cents);
+CREATE INDEX idx_daily_spend_date_customer ON daily_spend (spend_date, customer_id, total_cents);
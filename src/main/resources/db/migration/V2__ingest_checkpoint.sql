@@ -0,0 +1,10 @@
+-- One row per CSV source: what was loaded, so a restart can skip or resume it.
+CREATE TABLE ingest_checkpoint (
+    source VARCHAR(1024) NOT NULL,
+    content_hash VARCHAR(64) NOT NULL,
+    records_read BIGINT NOT NULL,
+    last_external_id VARCHAR(255),
+    complete BOOLEAN NOT NULL,
+    updated_at TIMESTAMP(6) NOT NULL,
+    PRIMARY KEY (source)
+);
@@ -0,0 +1,22 @@
+-- Monthly partitions of the spend rollup: one row per customer, category and
+-- calendar month (spend_month is the first day of the month). Ranges that
+-- cover whole months read these instead of every daily bucket.
+CREATE TABLE monthly_spend (
+    id BIGINT GENERATED BY DEFAULT AS IDENTITY,
+    customer_id BIGINT NOT NULL,
+    spend_month DATE NOT NULL,
+    category VARCHAR(255) NOT NULL CHECK (category IN ('FOOD', 'TRANSPORT', 'UTILITIES', 'ENTERTAINMENT', 'SHOPPING',
+        'HEALTHCARE', 'COMMUNICATION', 'EDUCATION', 'TRAVEL', 'INCOME', 'OTHER')),
+    total_cents BIGINT NOT NULL,
+    transaction_count BIGINT NOT NULL,
+    PRIMARY KEY (id),
+    CONSTRAINT uk_monthly_spend_customer_month_category UNIQUE (customer_id, spend_month, category)
+);
+
+CREATE INDEX idx_monthly_spend_month_category ON monthly_spend (spend_month, category, total_cents);
+CREATE INDEX idx_monthly_spend_month_customer ON monthly_spend (spend_month, customer_id, total_cents);
+
+INSERT INTO monthly_spend (customer_id, spend_month, category, total_cents, transaction_count)
+SELECT customer_id, CAST(DATE_TRUNC('MONTH', spend_date) AS DATE), category, SUM(total_cents), SUM(transaction_count)
+FROM daily_spend
+GROUP BY customer_id, CAST(DATE_TRUNC('MONTH', spend_date) AS DATE), category;
@@ -0,0 +1,173 @@
+package com.example.transactionapi;
+
+import com.example.transactionapi.model.Category;
+import com.example.transactionapi.model.Customer;
+import com.example.transactionapi.model.Money;
+import com.example.transactionapi.model.Transaction;
+import com.example.transactionapi.repository.DailySpendRepository;
+import com.example.transactionapi.repository.MonthlySpendRepository;
+import com.example.transactionapi.repository.QueryBounds;
+import com.example.transactionapi.service.TransactionService;
+import com.example.transactionapi.service.analytics.ColumnarSpendAnalytics;
+import com.example.transactionapi.service.analytics.JpaSpendAnalytics;
+import com.example.transactionapi.service.analytics.SpendAnalytics;
+import com.example.transactionapi.service.ingest.TransactionBatchWriter;
+import com.example.transactionapi.service.snapshot.DatasetSnapshotService;
+import com.example.transactionapi.web.dto.CategoryBreakdownEntry;
+import com.example.transactionapi.web.dto.TopCategory;
+import com.example.transactionapi.web.dto.TopSpender;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * The columnar engine must return the same figures as the daily rollup it
+ * replaces, for open and bounded ranges. The parallel threshold is lowered so
+ * the small sample dataset is still split across fork-join partitions.
+ * Restoring a snapshot over the data of an interrupted restore must leave the
+ * store holding the restored rows once. Categories with equal totals are
+ * ranked by name, as the default engine ranks them, in both the top-category
+ * list and the summaries.
+ */
+@SpringBootTest(properties = {
+        "analytics.engine=columnar",
+        "analytics.parallelism=4",
+        "analytics.parallel-threshold=1",
+        "spring.datasource.url=jdbc:h2:mem:columnar;DB_CLOSE_DELAY=-1;DB_CLOSE_ON_EXIT=FALSE"
+})
+class ColumnarSpendAnalyticsTest {
+
+    private static final LocalDate FROM = LocalDate.of(2025, 1, 5);
+    private static final LocalDate TO = LocalDate.of(2025, 3, 1);
+
+    @Autowired
+    private SpendAnalytics spendAnalytics;
+
+    @Autowired
+    private DailySpendRepository dailySpendRepository;
+
+    @Autowired
+    private DatasetSnapshotService snapshotService;
+
+    @Autowired
+    private TransactionBatchWriter batchWriter;
+
+    @Autowired
+    private TransactionService transactionService;
+
+    @Autowired
+    private MonthlySpendRepository monthlySpendRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void testColumnarEngineIsSelected() {
+        assertThat(spendAnalytics).isInstanceOf(ColumnarSpendAnalytics.class);
+    }
+
+    @Test
+    void testCategoryTotalsMatchRollup() {
+        assertThat(asMap(spendAnalytics.totalsByCategory(null, null, null)))
+                .isEqualTo(rollupMap(dailySpendRepository.sumAmountByCategory(QueryBounds.MIN_DATE, QueryBounds.MAX_DATE)));
+        assertThat(asMap(spendAnalytics.totalsByCategory(null, FROM, TO)))
+                .isEqualTo(rollupMap(dailySpendRepository.sumAmountByCategory(FROM, TO)));
+        assertThat(asMap(spendAnalytics.totalsByCategory(1L, FROM, null)))
+                .isEqualTo(rollupMap(dailySpendRepository.sumAmountByCustomerAndCategory(1L, FROM, QueryBounds.MAX_DATE)));
+    }
+
+    @Test
+    void testTopSpendersMatchRollup() {
+        List<TopSpender> top = spendAnalytics.topSpenders(3, FROM, TO);
+        List<Object[]> expected = dailySpendRepository.sumAmountPerCustomer(FROM, TO, PageRequest.of(0, 3));
+        assertThat(top).hasSameSizeAs(expected);
+        for (int i = 0; i < top.size(); i++) {
+            assertThat(top.get(i).getCustomerId()).isEqualTo(expected.get(i)[0]);
+            assertThat(top.get(i).getTotalSpent()).isEqualTo(Money.ofCents((Long) expected.get(i)[1]));
+        }
+    }
+
+    @Test
+    void testTopCategoriesAreOrdered() {
+        List<TopCategory> top = spendAnalytics.topCategories(null, 3, null, null);
+        assertThat(top).hasSize(3);
+        assertThat(top.get(0).getTotalSpent()).isGreaterThanOrEqualTo(top.get(1).getTotalSpent());
+        assertThat(top.get(1).getTotalSpent()).isGreaterThanOrEqualTo(top.get(2).getTotalSpent());
+    }
+
+    @Test
+    void testTopCategoryTiesAreOrderedByName() {
+        LocalDate day = LocalDate.of(2030, 6, 1);
+        batchWriter.write(List.of(
+                transaction("TIE-1", day, Category.TRAVEL),
+                transaction("TIE-2", day, Category.FOOD),
+                transaction("TIE-3", day, Category.ENTERTAINMENT)));
+
+        List<TopCategory> expected = jpaReference().topCategories(1L, 3, day, day);
+        assertThat(expected).extracting(TopCategory::getCategory)
+                .containsExactly(Category.ENTERTAINMENT, Category.FOOD, Category.TRAVEL);
+        assertThat(spendAnalytics.topCategories(1L, 3, day, day)).isEqualTo(expected);
+        Category reference = expected.get(0).getCategory();
+        assertThat(transactionService.getCustomerSummary(1L, day, day).getTopCategory()).isEqualTo(reference);
+        assertThat(transactionService.getOverallSummary(day, day).getTopCategory()).isEqualTo(reference);
+    }
+
+    @Test
+    void testInterruptedRestoreIsNotCountedTwice() throws IOException {
+        Path snapshot = directory.resolve("data.snapshot");
+        snapshotService.export(snapshot);
+        // Leave the restore checkpoint incomplete, as a restore killed part way would
+        jdbcTemplate.update("MERGE INTO ingest_checkpoint (source, content_hash, records_read, complete, updated_at) " +
+                "KEY (source) VALUES (?, '0', 0, FALSE, CURRENT_TIMESTAMP)", DatasetSnapshotService.RESTORE_CHECKPOINT);
+        assertThat(snapshotService.isRestoreInterrupted()).isTrue();
+
+        snapshotService.restore(snapshot);
+
+        assertThat(asMap(spendAnalytics.totalsByCategory(null, null, null)))
+                .isEqualTo(rollupMap(dailySpendRepository.sumAmountByCategory(QueryBounds.MIN_DATE, QueryBounds.MAX_DATE)));
+    }
+
+    /** The default engine over the same rollups, for comparison. */
+    private SpendAnalytics jpaReference() {
+        return new JpaSpendAnalytics(dailySpendRepository, monthlySpendRepository, Optional.empty());
+    }
+
+    private static Transaction transaction(String externalId, LocalDate day, Category category) {
+        return Transaction.builder()
+                .externalId(externalId)
+                .timestamp(day.atTime(12, 0))
+                .description("Tie")
+                .amount(Money.ofCents(5_000))
+                .category(category)
+                .customer(Customer.builder().id(1L).build())
+                .build();
+    }
+
+    private static Map<Category, Money> asMap(List<CategoryBreakdownEntry> entries) {
+        Map<Category, Money> map = new HashMap<>();
+        entries.forEach(e -> map.put(e.getCategory(), e.getTotal()));
+        return map;
+    }
+
+    private static Map<Category, Money> rollupMap(List<Object[]> rows) {
+        Map<Category, Money> map = new HashMap<>();
+        rows.forEach(row -> map.put((Category) row[0], Money.ofCents((Long) row[1])));
+        return map;
+    }
+}
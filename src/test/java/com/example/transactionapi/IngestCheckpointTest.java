@@ -0,0 +1,118 @@
+package com.example.transactionapi;
+
+import com.example.transactionapi.config.DataLoader;
+import com.example.transactionapi.repository.CustomerRepository;
+import com.example.transactionapi.repository.TransactionRepository;
+import com.example.transactionapi.service.rollup.DailySpendRollup;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.SpyBean;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.doCallRealMethod;
+
+/**
+ * Restarting the loader against an already loaded database must not reload
+ * the CSV, and a CSV that has been appended to must only contribute its new
+ * records. A load that fails part way must resume to the same rollup as an
+ * uninterrupted one. Batches are small so appended records span several.
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:checkpoint;DB_CLOSE_DELAY=-1;DB_CLOSE_ON_EXIT=FALSE",
+        "ingest.batch-size=2"
+})
+class IngestCheckpointTest {
+
+    private static Path csv;
+
+    @Autowired
+    private DataLoader dataLoader;
+
+    @Autowired
+    private TransactionRepository transactionRepository;
+
+    @Autowired
+    private CustomerRepository customerRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @SpyBean
+    private DailySpendRollup rollup;
+
+    @DynamicPropertySource
+    static void csvLocation(DynamicPropertyRegistry registry) throws IOException {
+        csv = Files.createTempFile("transactions", ".csv");
+        csv.toFile().deleteOnExit();
+        try (InputStream in = new ClassPathResource("data/transactions.csv").getInputStream()) {
+            Files.write(csv, in.readAllBytes());
+        }
+        registry.add("ingest.csv-location", () -> "file:" + csv);
+    }
+
+    @Test
+    void testUnchangedFileIsNotReloaded() throws IOException {
+        long before = transactionRepository.count();
+
+        dataLoader.loadData();
+
+        assertThat(transactionRepository.count()).isEqualTo(before);
+    }
+
+    @Test
+    void testAppendedRecordsAreLoadedOnce() throws IOException {
+        long transactions = transactionRepository.count();
+        long customers = customerRepository.count();
+        Files.writeString(csv, """
+
+                APPEND-1,John Doe,john@example.com,2025-06-01 09:00:00,Coffee,Vida,5814,35.00,FOOD
+                APPEND-2,Nia Dube,nia@example.com,2025-06-02 10:00:00,Taxi ride,Bolt,4121,60.00,
+                """, StandardOpenOption.APPEND);
+
+        dataLoader.loadData();
+        dataLoader.loadData();
+
+        assertThat(transactionRepository.count()).isEqualTo(transactions + 2);
+        assertThat(customerRepository.count()).isEqualTo(customers + 1);
+    }
+
+    @Test
+    void testLoadInterruptedAtRollupResumesWithoutLosingRollups() throws IOException {
+        long transactions = transactionRepository.count();
+        Files.writeString(csv, """
+
+                RESUME-1,John Doe,john@example.com,2025-07-01 09:00:00,Coffee,Vida,5814,35.00,FOOD
+                RESUME-2,John Doe,john@example.com,2025-07-02 09:00:00,Coffee,Vida,5814,20.00,FOOD
+                RESUME-3,John Doe,john@example.com,2025-07-03 09:00:00,Taxi ride,Bolt,4121,60.00,
+                """, StandardOpenOption.APPEND);
+        // The first batch is stored and rolled up, the next fails at the rollup step
+        doCallRealMethod().doThrow(new IllegalStateException("rollup failed")).when(rollup).onBatchInserted(anyList());
+        try {
+            assertThatThrownBy(dataLoader::loadData).isInstanceOf(IllegalStateException.class);
+        } finally {
+            doCallRealMethod().when(rollup).onBatchInserted(anyList());
+        }
+        assertThat(transactionRepository.count()).isLessThan(transactions + 3);
+
+        dataLoader.loadData();
+
+        assertThat(transactionRepository.count()).isEqualTo(transactions + 3);
+        assertThat(jdbcTemplate.queryForObject("SELECT SUM(total_cents) FROM daily_spend", Long.class))
+                .isEqualTo(jdbcTemplate.queryForObject("SELECT SUM(amount_cents) FROM transactions", Long.class));
+        assertThat(jdbcTemplate.queryForObject("SELECT SUM(total_cents) FROM monthly_spend", Long.class))
+                .isEqualTo(jdbcTemplate.queryForObject("SELECT SUM(amount_cents) FROM transactions", Long.class));
+    }
+}
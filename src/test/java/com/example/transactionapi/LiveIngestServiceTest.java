@@ -0,0 +1,104 @@
+package com.example.transactionapi;
+
+import com.example.transactionapi.model.Category;
+import com.example.transactionapi.model.Money;
+import com.example.transactionapi.repository.TransactionRepository;
+import com.example.transactionapi.service.ingest.LiveIngestService;
+import com.example.transactionapi.service.rollup.DailySpendRollup;
+import com.example.transactionapi.web.dto.IngestResponse;
+import com.example.transactionapi.web.dto.TransactionRequest;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.SpyBean;
+
+import java.io.BufferedReader;
+import java.io.StringReader;
+import java.time.LocalDateTime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.doCallRealMethod;
+import static org.mockito.Mockito.doThrow;
+
+@SpringBootTest(properties = "spring.datasource.url=jdbc:h2:mem:live-ingest;DB_CLOSE_DELAY=-1;DB_CLOSE_ON_EXIT=FALSE")
+class LiveIngestServiceTest {
+
+    @Autowired
+    private LiveIngestService liveIngestService;
+
+    @Autowired
+    private TransactionRepository transactionRepository;
+
+    @SpyBean
+    private DailySpendRollup rollup;
+
+    @Test
+    void testResubmittedExternalIdIsNotStoredTwice() {
+        TransactionRequest request = TransactionRequest.builder()
+                .externalId("LIVE-1")
+                .customerId(1L)
+                .timestamp(LocalDateTime.of(2025, 6, 1, 9, 30))
+                .description("Uber trip")
+                .merchant("Uber")
+                .amount(Money.ofCents(8_950))
+                .build();
+        long before = transactionRepository.count();
+
+        assertThat(liveIngestService.submit(request).join()).isTrue();
+        assertThat(liveIngestService.submit(request).join()).isFalse();
+        assertThat(transactionRepository.count()).isEqualTo(before + 1);
+        assertThat(transactionRepository.findAll())
+                .filteredOn(t -> "LIVE-1".equals(t.getExternalId()))
+                .singleElement()
+                .satisfies(t -> assertThat(t.getCategory()).isEqualTo(Category.TRANSPORT));
+    }
+
+    @Test
+    void testNdjsonUploadReportsDuplicatesAndInvalidLines() throws Exception {
+        String body = """
+                {"externalId":"BULK-1","customerId":1,"timestamp":"2025-06-02T10:00:00","amount":12.50,"category":"FOOD"}
+                {"externalId":"BULK-2","customerId":1,"timestamp":"2025-06-02T11:00:00","amount":40.00,"category":"SHOPPING"}
+
+                {"externalId":"BULK-1","customerId":1,"timestamp":"2025-06-02T10:00:00","amount":12.50,"category":"FOOD"}
+                {"externalId":"BULK-3","customerId":1,"amount":5.00}
+                not json
+                {"externalId":"BULK-4","customerId":999999,"timestamp":"2025-06-02T12:00:00","amount":1.00}
+                """;
+
+        IngestResponse response = liveIngestService.ingestNdjson(new BufferedReader(new StringReader(body)));
+
+        assertThat(response.getInserted()).isEqualTo(2);
+        assertThat(response.getDuplicates()).isEqualTo(1);
+        assertThat(response.getRejected()).isEqualTo(3);
+        assertThat(response.getErrors()).hasSize(3).first().asString().startsWith("line 5:");
+        assertThat(response.isComplete()).isTrue();
+    }
+
+    @Test
+    void testFailedWriteIsReportedPerLine() throws Exception {
+        String body = """
+                {"externalId":"FAIL-1","customerId":1,"timestamp":"2025-06-03T10:00:00","amount":12.50,"category":"FOOD"}
+                {"externalId":"FAIL-2","customerId":1,"timestamp":"2025-06-03T11:00:00","amount":40.00,"category":"SHOPPING"}
+                """;
+        long before = transactionRepository.count();
+        doThrow(new IllegalStateException("rollup failed")).when(rollup).onBatchInserted(anyList());
+        IngestResponse response;
+        try {
+            response = liveIngestService.ingestNdjson(new BufferedReader(new StringReader(body)));
+        } finally {
+            doCallRealMethod().when(rollup).onBatchInserted(anyList());
+        }
+
+        assertThat(response.getInserted()).isZero();
+        assertThat(response.getRejected()).isEqualTo(2);
+        assertThat(response.getErrors()).first().asString().startsWith("line 1: not written");
+        assertThat(response.isComplete()).isFalse();
+        assertThat(transactionRepository.count()).isEqualTo(before);
+
+        // The batch was rolled back, so resending stores it
+        response = liveIngestService.ingestNdjson(new BufferedReader(new StringReader(body)));
+        assertThat(response.getInserted()).isEqualTo(2);
+        assertThat(response.isComplete()).isTrue();
+    }
+}
@@ -0,0 +1,147 @@
+package com.example.transactionapi;
+
+import com.example.transactionapi.model.Category;
+import com.example.transactionapi.model.Money;
+import com.example.transactionapi.repository.DailySpendRepository;
+import com.example.transactionapi.repository.QueryBounds;
+import com.example.transactionapi.repository.TransactionRepository;
+import com.example.transactionapi.service.analytics.MappedSpendAnalytics;
+import com.example.transactionapi.service.analytics.SpendAnalytics;
+import com.example.transactionapi.service.storage.MappedTransactionStore;
+import com.example.transactionapi.web.dto.CategoryBreakdownEntry;
+import com.example.transactionapi.web.dto.TopSpender;
+import com.example.transactionapi.web.dto.TransactionView;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * The mapped engine must return the same figures as the daily rollup and the
+ * same listing pages as the repository. Segments are sized well below the
+ * sample dataset so most of it is served from sealed segments, and the store
+ * is reopened from its files to check they survive a restart and a rebuild
+ * does not leave the old segment files behind. The segment
+ * files live in a temporary directory; the context is closed after the class
+ * so the store unmaps them before the directory is deleted.
+ */
+@SpringBootTest(properties = {
+        "analytics.engine=mapped",
+        "storage.mapped.segment-rows=8",
+        "spring.datasource.url=jdbc:h2:mem:mapped;DB_CLOSE_DELAY=-1;DB_CLOSE_ON_EXIT=FALSE"
+})
+@DirtiesContext
+class MappedTransactionStoreTest {
+
+    private static final LocalDate FROM = LocalDate.of(2025, 1, 5);
+    private static final LocalDate TO = LocalDate.of(2025, 3, 1);
+
+    @TempDir
+    static Path segments;
+
+    @DynamicPropertySource
+    static void segmentDirectory(DynamicPropertyRegistry registry) {
+        registry.add("storage.mapped.directory", () -> segments.toString());
+    }
+
+    @Autowired
+    private SpendAnalytics spendAnalytics;
+
+    @Autowired
+    private MappedTransactionStore store;
+
+    @Autowired
+    private DailySpendRepository dailySpendRepository;
+
+    @Autowired
+    private TransactionRepository transactionRepository;
+
+    @Test
+    void testMappedEngineIsSelected() {
+        assertThat(spendAnalytics).isInstanceOf(MappedSpendAnalytics.class);
+        assertThat(store.size()).isEqualTo(transactionRepository.count());
+    }
+
+    @Test
+    void testTotalsMatchRollupAfterReopen() throws Exception {
+        assertTotalsMatchRollup();
+        store.close();
+        store.open();
+        assertThat(store.size()).isEqualTo(transactionRepository.count());
+        assertTotalsMatchRollup();
+    }
+
+    @Test
+    void testRebuildReplacesSegments() throws Exception {
+        store.onRestored();
+        assertThat(store.size()).isEqualTo(transactionRepository.count());
+        assertTotalsMatchRollup();
+        store.close();
+        store.open();
+        assertThat(store.size()).isEqualTo(transactionRepository.count());
+    }
+
+    @Test
+    void testPagesMatchRepository() {
+        LocalDateTime from = QueryBounds.lowerTimestamp(null);
+        LocalDateTime to = QueryBounds.upperTimestamp(null);
+        List<TransactionView> expected = transactionRepository.findPageByCustomer(1L, from, to, from, 0L,
+                PageRequest.of(0, 1000));
+        assertThat(expected).isNotEmpty();
+        List<TransactionView> paged = new ArrayList<>();
+        LocalDateTime afterTimestamp = from;
+        long afterId = 0;
+        List<TransactionView> page;
+        do {
+            page = store.page(1L, from, to, afterTimestamp, afterId, 2);
+            paged.addAll(page);
+            if (!page.isEmpty()) {
+                afterTimestamp = page.get(page.size() - 1).getTimestamp();
+                afterId = page.get(page.size() - 1).getId();
+            }
+        } while (page.size() == 2);
+        assertThat(paged).isEqualTo(expected);
+    }
+
+    private void assertTotalsMatchRollup() {
+        assertThat(asMap(spendAnalytics.totalsByCategory(null, null, null)))
+                .isEqualTo(rollupMap(dailySpendRepository.sumAmountByCategory(QueryBounds.MIN_DATE, QueryBounds.MAX_DATE)));
+        assertThat(asMap(spendAnalytics.totalsByCategory(null, FROM, TO)))
+                .isEqualTo(rollupMap(dailySpendRepository.sumAmountByCategory(FROM, TO)));
+        assertThat(asMap(spendAnalytics.totalsByCategory(1L, FROM, null)))
+                .isEqualTo(rollupMap(dailySpendRepository.sumAmountByCustomerAndCategory(1L, FROM, QueryBounds.MAX_DATE)));
+        List<TopSpender> top = spendAnalytics.topSpenders(3, FROM, TO);
+        List<Object[]> expected = dailySpendRepository.sumAmountPerCustomer(FROM, TO, PageRequest.of(0, 3));
+        assertThat(top).hasSameSizeAs(expected);
+        for (int i = 0; i < top.size(); i++) {
+            assertThat(top.get(i).getCustomerId()).isEqualTo(expected.get(i)[0]);
+            assertThat(top.get(i).getTotalSpent()).isEqualTo(Money.ofCents((Long) expected.get(i)[1]));
+        }
+    }
+
+    private static Map<Category, Money> asMap(List<CategoryBreakdownEntry> entries) {
+        Map<Category, Money> map = new HashMap<>();
+        entries.forEach(e -> map.put(e.getCategory(), e.getTotal()));
+        return map;
+    }
+
+    private static Map<Category, Money> rollupMap(List<Object[]> rows) {
+        Map<Category, Money> map = new HashMap<>();
+        rows.forEach(row -> map.put((Category) row[0], Money.ofCents((Long) row[1])));
+        return map;
+    }
+}
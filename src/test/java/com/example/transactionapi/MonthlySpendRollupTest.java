@@ -0,0 +1,120 @@
+package com.example.transactionapi;
+
+import com.example.transactionapi.model.Category;
+import com.example.transactionapi.model.Money;
+import com.example.transactionapi.repository.DailySpendRepository;
+import com.example.transactionapi.repository.QueryBounds;
+import com.example.transactionapi.repository.RollupRange;
+import com.example.transactionapi.service.analytics.SpendAnalytics;
+import com.example.transactionapi.web.dto.CategoryBreakdownEntry;
+import com.example.transactionapi.web.dto.TopSpender;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.LocalDate;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * The monthly rollup must hold exactly the daily buckets summed per month,
+ * and ranges split into daily head, whole months and daily tail must give
+ * the same figures as summing every daily bucket in range.
+ */
+@SpringBootTest(properties =
+        "spring.datasource.url=jdbc:h2:mem:monthly;DB_CLOSE_DELAY=-1;DB_CLOSE_ON_EXIT=FALSE")
+class MonthlySpendRollupTest {
+
+    @Autowired
+    private SpendAnalytics spendAnalytics;
+
+    @Autowired
+    private DailySpendRepository dailySpendRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void testRangeSplitTouchesOnlyWholeMonthsInRange() {
+        RollupRange oneMonth = RollupRange.of(LocalDate.of(2025, 3, 1), LocalDate.of(2025, 3, 31));
+        assertThat(oneMonth.hasHead()).isFalse();
+        assertThat(oneMonth.hasTail()).isFalse();
+        assertThat(oneMonth.getMonthFrom()).isEqualTo(oneMonth.getMonthTo()).isEqualTo(LocalDate.of(2025, 3, 1));
+
+        RollupRange partial = RollupRange.of(LocalDate.of(2025, 1, 15), LocalDate.of(2025, 4, 10));
+        assertThat(partial.getHeadFrom()).isEqualTo(LocalDate.of(2025, 1, 15));
+        assertThat(partial.getHeadTo()).isEqualTo(LocalDate.of(2025, 1, 31));
+        assertThat(partial.getMonthFrom()).isEqualTo(LocalDate.of(2025, 2, 1));
+        assertThat(partial.getMonthTo()).isEqualTo(LocalDate.of(2025, 3, 1));
+        assertThat(partial.getTailFrom()).isEqualTo(LocalDate.of(2025, 4, 1));
+        assertThat(partial.getTailTo()).isEqualTo(LocalDate.of(2025, 4, 10));
+
+        RollupRange withinMonth = RollupRange.of(LocalDate.of(2025, 2, 3), LocalDate.of(2025, 2, 20));
+        assertThat(withinMonth.hasMonths()).isFalse();
+        assertThat(withinMonth.hasTail()).isFalse();
+
+        RollupRange open = RollupRange.of(null, null);
+        assertThat(open.hasHead()).isFalse();
+        assertThat(open.hasTail()).isFalse();
+        assertThat(open.hasMonths()).isTrue();
+    }
+
+    @Test
+    void testMonthlyRollupMatchesDailyRollup() {
+        List<Map<String, Object>> fromDaily = jdbcTemplate.queryForList(
+                "SELECT customer_id, CAST(DATE_TRUNC('MONTH', spend_date) AS DATE) AS spend_month, category, " +
+                "SUM(total_cents) AS total_cents, SUM(transaction_count) AS transaction_count FROM daily_spend " +
+                "GROUP BY customer_id, CAST(DATE_TRUNC('MONTH', spend_date) AS DATE), category " +
+                "ORDER BY customer_id, spend_month, category");
+        List<Map<String, Object>> monthly = jdbcTemplate.queryForList(
+                "SELECT customer_id, spend_month, category, total_cents, transaction_count FROM monthly_spend " +
+                "ORDER BY customer_id, spend_month, category");
+        assertThat(monthly).isNotEmpty().hasSameSizeAs(fromDaily);
+        for (int i = 0; i < monthly.size(); i++) {
+            assertThat(monthly.get(i).toString()).isEqualTo(fromDaily.get(i).toString());
+        }
+    }
+
+    @Test
+    void testSplitRangesMatchDailyBuckets() {
+        LocalDate[][] ranges = {
+                {LocalDate.of(2025, 1, 15), LocalDate.of(2025, 4, 10)},
+                {LocalDate.of(2025, 2, 1), LocalDate.of(2025, 2, 28)},
+                {LocalDate.of(2025, 2, 3), LocalDate.of(2025, 2, 20)},
+                {LocalDate.of(2025, 1, 20), null},
+                {null, LocalDate.of(2025, 2, 14)}
+        };
+        for (LocalDate[] range : ranges) {
+            LocalDate lower = QueryBounds.lower(range[0]);
+            LocalDate upper = QueryBounds.upper(range[1]);
+            assertThat(asMap(spendAnalytics.totalsByCategory(null, range[0], range[1])))
+                    .isEqualTo(rollupMap(dailySpendRepository.sumAmountByCategory(lower, upper)));
+            assertThat(asMap(spendAnalytics.totalsByCategory(1L, range[0], range[1])))
+                    .isEqualTo(rollupMap(dailySpendRepository.sumAmountByCustomerAndCategory(1L, lower, upper)));
+            List<TopSpender> top = spendAnalytics.topSpenders(3, range[0], range[1]);
+            List<Object[]> expected = dailySpendRepository.sumAmountPerCustomer(lower, upper, PageRequest.of(0, 3));
+            assertThat(top).hasSameSizeAs(expected);
+            for (int i = 0; i < top.size(); i++) {
+                assertThat(top.get(i).getCustomerId()).isEqualTo(expected.get(i)[0]);
+                assertThat(top.get(i).getTotalSpent()).isEqualTo(Money.ofCents((Long) expected.get(i)[1]));
+            }
+        }
+    }
+
+    private static Map<Category, Money> asMap(List<CategoryBreakdownEntry> entries) {
+        Map<Category, Money> map = new HashMap<>();
+        entries.forEach(e -> map.put(e.getCategory(), e.getTotal()));
+        return map;
+    }
+
+    private static Map<Category, Money> rollupMap(List<Object[]> rows) {
+        Map<Category, Money> map = new HashMap<>();
+        rows.forEach(row -> map.put((Category) row[0], Money.ofCents((Long) row[1])));
+        return map;
+    }
+}
@@ -0,0 +1,95 @@
+package com.example.transactionapi;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Guards the indexing scheme: each statement mirrors the SQL generated for a
+ * repository query, and H2's EXPLAIN output must show the expected index
+ * rather than a table scan. If a query or index changes, update both sides.
+ */
+@SpringBootTest
+class QueryPlanTest {
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private String explain(String sql) {
+        return jdbcTemplate.queryForObject("EXPLAIN " + sql, String.class).toUpperCase();
+    }
+
+    @Test
+    void testTransactionPageUsesCustomerTimestampIndex() {
+        // TransactionRepository.findPageByCustomer
+        String plan = explain("SELECT t.id, t.timestamp FROM transactions t WHERE t.customer_id = 1 " +
+                "AND t.timestamp BETWEEN TIMESTAMP '2025-01-01 00:00:00' AND TIMESTAMP '2025-12-31 23:59:59' " +
+                "AND (t.timestamp > TIMESTAMP '2025-01-01 00:00:00' OR (t.timestamp = TIMESTAMP '2025-01-01 00:00:00' AND t.id > 0)) " +
+                "ORDER BY t.timestamp, t.id FETCH FIRST 101 ROWS ONLY");
+        assertThat(plan).contains("IDX_TRANSACTIONS_CUSTOMER_TIMESTAMP").doesNotContain("TABLESCAN");
+    }
+
+    @Test
+    void testTimeRangeCategoryScanUsesTimestampCategoryIndex() {
+        String plan = explain("SELECT t.category, SUM(t.amount_cents) FROM transactions t " +
+                "WHERE t.timestamp BETWEEN TIMESTAMP '2025-01-01 00:00:00' AND TIMESTAMP '2025-01-31 23:59:59' " +
+                "GROUP BY t.category");
+        assertThat(plan).contains("IDX_TRANSACTIONS_TIMESTAMP_CATEGORY").doesNotContain("TABLESCAN");
+    }
+
+    @Test
+    void testCustomerRollupUsesCustomerDateIndex() {
+        // DailySpendRepository.sumAmountByCustomerAndCategory
+        String plan = explain("SELECT d.category, SUM(d.total_cents) FROM daily_spend d WHERE d.customer_id = 1 " +
+                "AND d.spend_date BETWEEN DATE '2025-01-01' AND DATE '2025-03-31' GROUP BY d.category");
+        assertThat(plan).contains("UK_DAILY_SPEND_CUSTOMER_DATE_CATEGORY").doesNotContain("TABLESCAN");
+    }
+
+    @Test
+    void testBulkCustomerRollupUsesCustomerDateIndex() {
+        // DailySpendRepository.sumAmountByCustomersAndCategory
+        String plan = explain("SELECT d.customer_id, d.category, SUM(d.total_cents) FROM daily_spend d " +
+                "WHERE d.customer_id IN (1, 2, 3) AND d.spend_date BETWEEN DATE '2025-01-01' AND DATE '2025-03-31' " +
+                "GROUP BY d.customer_id, d.category");
+        assertThat(plan).contains("UK_DAILY_SPEND_CUSTOMER_DATE_CATEGORY").doesNotContain("TABLESCAN");
+    }
+
+    @Test
+    void testOverallRollupUsesDateCategoryIndex() {
+        // DailySpendRepository.sumAmountByCategory
+        String plan = explain("SELECT d.category, SUM(d.total_cents) FROM daily_spend d " +
+                "WHERE d.spend_date BETWEEN DATE '2025-01-01' AND DATE '2025-03-31' GROUP BY d.category");
+        assertThat(plan).contains("IDX_DAILY_SPEND_DATE_CATEGORY").doesNotContain("TABLESCAN");
+    }
+
+    @Test
+    void testTopSpendersRollupUsesDateCustomerIndex() {
+        // DailySpendRepository.sumAmountPerCustomer
+        String plan = explain("SELECT d.customer_id, SUM(d.total_cents) AS total FROM daily_spend d " +
+                "WHERE d.spend_date BETWEEN DATE '2025-01-01' AND DATE '2025-03-31' " +
+                "GROUP BY d.customer_id ORDER BY total DESC, d.customer_id FETCH FIRST 5 ROWS ONLY");
+        assertThat(plan).contains("IDX_DAILY_SPEND_DATE_CUSTOMER").doesNotContain("TABLESCAN");
+    }
+
+    @Test
+    void testMonthlyRollupUsesMonthIndexes() {
+        // MonthlySpendRepository.sumAmountByCustomerAndCategory
+        String customerPlan = explain("SELECT m.category, SUM(m.total_cents) FROM monthly_spend m WHERE m.customer_id = 1 " +
+                "AND m.spend_month BETWEEN DATE '2025-01-01' AND DATE '2025-03-01' GROUP BY m.category");
+        assertThat(customerPlan).contains("UK_MONTHLY_SPEND_CUSTOMER_MONTH_CATEGORY").doesNotContain("TABLESCAN");
+        // MonthlySpendRepository.sumAmountByCategory
+        String overallPlan = explain("SELECT m.category, SUM(m.total_cents) FROM monthly_spend m " +
+                "WHERE m.spend_month BETWEEN DATE '2025-01-01' AND DATE '2025-03-01' GROUP BY m.category");
+        assertThat(overallPlan).contains("IDX_MONTHLY_SPEND_MONTH_CATEGORY").doesNotContain("TABLESCAN");
+    }
+
+    @Test
+    void testDuplicateCheckUsesExternalIdIndex() {
+        // TransactionBatchWriter.findExistingExternalIds
+        String plan = explain("SELECT external_id FROM transactions WHERE external_id IN ('T1', 'T2', 'T3')");
+        assertThat(plan).contains("IDX_TRANSACTIONS_EXTERNAL_ID").doesNotContain("TABLESCAN");
+    }
+}
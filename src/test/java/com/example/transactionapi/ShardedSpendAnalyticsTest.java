@@ -0,0 +1,124 @@
+package com.example.transactionapi;
+
+import com.example.transactionapi.model.Category;
+import com.example.transactionapi.model.Money;
+import com.example.transactionapi.repository.DailySpendRepository;
+import com.example.transactionapi.repository.QueryBounds;
+import com.example.transactionapi.repository.TransactionRepository;
+import com.example.transactionapi.service.TransactionService;
+import com.example.transactionapi.service.analytics.ShardedSpendAnalytics;
+import com.example.transactionapi.service.analytics.SpendAnalytics;
+import com.example.transactionapi.service.sharding.ShardRouter;
+import com.example.transactionapi.service.sharding.TransactionShards;
+import com.example.transactionapi.web.dto.CategoryBreakdownEntry;
+import com.example.transactionapi.web.dto.TopSpender;
+import com.example.transactionapi.web.dto.TransactionView;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.PageRequest;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Three embedded H2 shards stand in for separate nodes. Each must hold only
+ * its own customers, and routed and scatter/gather queries must return the
+ * same figures and listing pages as the primary database.
+ */
+@SpringBootTest(properties = {
+        "analytics.engine=sharded",
+        "sharding.shards=3",
+        "sharding.url-template=jdbc:h2:mem:sharded-test-{shard};DB_CLOSE_DELAY=-1",
+        "spring.datasource.url=jdbc:h2:mem:sharded;DB_CLOSE_DELAY=-1;DB_CLOSE_ON_EXIT=FALSE"
+})
+class ShardedSpendAnalyticsTest {
+
+    private static final LocalDate FROM = LocalDate.of(2025, 1, 5);
+    private static final LocalDate TO = LocalDate.of(2025, 3, 1);
+
+    @Autowired
+    private SpendAnalytics spendAnalytics;
+
+    @Autowired
+    private TransactionShards shards;
+
+    @Autowired
+    private TransactionService transactionService;
+
+    @Autowired
+    private DailySpendRepository dailySpendRepository;
+
+    @Autowired
+    private TransactionRepository transactionRepository;
+
+    @Test
+    void testCustomersArePartitionedAcrossShards() {
+        assertThat(spendAnalytics).isInstanceOf(ShardedSpendAnalytics.class);
+        ShardRouter router = new ShardRouter(3);
+        List<List<Long>> customerIds = shards.scatter(jdbc ->
+                jdbc.queryForList("SELECT DISTINCT customer_id FROM transactions", Long.class));
+        long rows = shards.scatter(jdbc -> jdbc.queryForObject("SELECT COUNT(*) FROM transactions", Long.class))
+                .stream().mapToLong(Long::longValue).sum();
+        assertThat(rows).isEqualTo(transactionRepository.count());
+        for (int shard = 0; shard < customerIds.size(); shard++) {
+            for (Long customerId : customerIds.get(shard)) {
+                assertThat(router.shardOf(customerId)).isEqualTo(shard);
+            }
+        }
+    }
+
+    @Test
+    void testScatterGatherMatchesPrimary() {
+        assertThat(asMap(spendAnalytics.totalsByCategory(null, null, null)))
+                .isEqualTo(rollupMap(dailySpendRepository.sumAmountByCategory(QueryBounds.MIN_DATE, QueryBounds.MAX_DATE)));
+        assertThat(asMap(spendAnalytics.totalsByCategory(null, FROM, TO)))
+                .isEqualTo(rollupMap(dailySpendRepository.sumAmountByCategory(FROM, TO)));
+        assertThat(asMap(spendAnalytics.totalsByCategory(1L, FROM, null)))
+                .isEqualTo(rollupMap(dailySpendRepository.sumAmountByCustomerAndCategory(1L, FROM, QueryBounds.MAX_DATE)));
+        List<TopSpender> top = spendAnalytics.topSpenders(3, null, null);
+        List<Object[]> expected = dailySpendRepository.sumAmountPerCustomer(QueryBounds.MIN_DATE, QueryBounds.MAX_DATE,
+                PageRequest.of(0, 3));
+        assertThat(top).hasSameSizeAs(expected);
+        for (int i = 0; i < top.size(); i++) {
+            assertThat(top.get(i).getCustomerId()).isEqualTo(expected.get(i)[0]);
+            assertThat(top.get(i).getTotalSpent()).isEqualTo(Money.ofCents((Long) expected.get(i)[1]));
+        }
+    }
+
+    @Test
+    void testBulkTotalsAreGatheredFromEachCustomerShard() {
+        List<Long> customerIds = List.of(5L, 1L, 4L, 2L, 3L);
+        Map<Long, List<CategoryBreakdownEntry>> totals = spendAnalytics.totalsByCustomerAndCategory(customerIds, FROM, TO);
+        for (Long customerId : customerIds) {
+            Map<Category, Money> expected = rollupMap(dailySpendRepository.sumAmountByCustomerAndCategory(customerId, FROM, TO));
+            assertThat(asMap(totals.getOrDefault(customerId, List.of()))).isEqualTo(expected);
+        }
+    }
+
+    @Test
+    void testListingIsRoutedToTheCustomerShard() {
+        LocalDateTime from = QueryBounds.lowerTimestamp(null);
+        LocalDateTime to = QueryBounds.upperTimestamp(null);
+        List<TransactionView> expected = transactionRepository.findPageByCustomer(1L, from, to, from, 0L,
+                PageRequest.of(0, 1000));
+        assertThat(transactionService.getTransactionPage(1L, null, null, null, 1000).getItems()).isEqualTo(expected);
+    }
+
+    private static Map<Category, Money> asMap(List<CategoryBreakdownEntry> entries) {
+        Map<Category, Money> map = new HashMap<>();
+        entries.forEach(e -> map.put(e.getCategory(), e.getTotal()));
+        return map;
+    }
+
+    private static Map<Category, Money> rollupMap(List<Object[]> rows) {
+        Map<Category, Money> map = new HashMap<>();
+        rows.forEach(row -> map.put((Category) row[0], Money.ofCents((Long) row[1])));
+        return map;
+    }
+}
@@ -0,0 +1,112 @@
+package com.example.transactionapi;
+
+import com.example.transactionapi.model.Category;
+import com.example.transactionapi.model.Customer;
+import com.example.transactionapi.model.DailySpend;
+import com.example.transactionapi.model.IngestCheckpoint;
+import com.example.transactionapi.model.Money;
+import com.example.transactionapi.model.Transaction;
+import com.example.transactionapi.service.snapshot.SnapshotReader;
+import com.example.transactionapi.service.snapshot.SnapshotWriter;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class SnapshotFormatTest {
+
+    private static final int ROWS = 70_000; // more than one block
+    private static final DailySpend[] ROLLUP = {
+            DailySpend.builder().customerId(3L).spendDate(LocalDate.of(2025, 1, 1)).category(Category.FOOD)
+                    .total(Money.ofCents(12_550)).transactionCount(3).build(),
+            DailySpend.builder().customerId(7L).spendDate(LocalDate.of(2024, 12, 30)).category(Category.INCOME)
+                    .total(Money.ofCents(-900_000)).transactionCount(1).build()
+    };
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void testRoundTripAcrossBlocks() throws IOException {
+        Path file = directory.resolve("data.snapshot");
+        List<Transaction> written = write(file);
+
+        List<Transaction> read = new ArrayList<>();
+        List<DailySpend> rollup = new ArrayList<>();
+        try (SnapshotReader reader = SnapshotReader.open(file)) {
+            reader.verify();
+            assertThat(reader.getCustomers()).extracting(Customer::getEmail)
+                    .containsExactly("ann@example.com", "ben@example.com");
+            assertThat(reader.getCheckpoints()).singleElement()
+                    .satisfies(c -> assertThat(c.getLastExternalId()).isEqualTo("TXN9"));
+            assertThat(reader.readTransactions(read::add)).isEqualTo(ROWS);
+            assertThat(reader.readDailySpend(rollup::add)).isEqualTo(2);
+        }
+        assertThat(rollup).containsExactly(ROLLUP);
+        assertThat(read).isEqualTo(written);
+        // merchants, descriptions and MCCs are dictionary indexes, timestamps small deltas
+        assertThat(file.toFile().length()).isLessThan(ROWS * 20L);
+    }
+
+    @Test
+    void testCorruptionIsDetected() throws IOException {
+        Path file = directory.resolve("data.snapshot");
+        write(file);
+        try (RandomAccessFile raw = new RandomAccessFile(file.toFile(), "rw")) {
+            raw.seek(raw.length() / 2);
+            int b = raw.read();
+            raw.seek(raw.length() / 2);
+            raw.write(b ^ 0xFF);
+        }
+
+        try (SnapshotReader reader = SnapshotReader.open(file)) {
+            assertThatThrownBy(reader::verify).isInstanceOf(IOException.class).hasMessageContaining("corrupt");
+        }
+    }
+
+    private static List<Transaction> write(Path file) throws IOException {
+        List<Customer> customers = List.of(
+                Customer.builder().id(3L).name("Ann").email("ann@example.com").build(),
+                Customer.builder().id(7L).name("Ben").email("ben@example.com").build());
+        IngestCheckpoint checkpoint = IngestCheckpoint.builder()
+                .source("transactions.csv").contentHash("ab").recordsRead(9).lastExternalId("TXN9").complete(true)
+                .updatedAt(LocalDateTime.now())
+                .build();
+        String[] merchants = {"Woolworths", "Uber", null};
+        Category[] categories = Category.values();
+        LocalDateTime timestamp = LocalDateTime.of(2024, 12, 31, 23, 59, 30);
+        List<Transaction> transactions = new ArrayList<>();
+        try (SnapshotWriter writer = SnapshotWriter.create(file)) {
+            writer.writeHeader(customers, List.of(checkpoint));
+            for (int i = 0; i < ROWS; i++) {
+                timestamp = timestamp.plusSeconds(i % 5 == 0 ? 86_400 : 17).withNano(i % 1000 == 0 ? 123_000_000 : 0);
+                Transaction t = Transaction.builder()
+                        .externalId("TXN" + i)
+                        .timestamp(timestamp)
+                        .description(i % 3 == 0 ? "Card purchase" : "Refund ñ")
+                        .merchant(merchants[i % merchants.length])
+                        .merchantCategoryCode(i % 2 == 0 ? "5411" : null)
+                        .amount(Money.ofCents(i % 7 == 0 ? -i : i))
+                        .category(i % 11 == 0 ? null : categories[i % categories.length])
+                        .customer(customers.get(i % 2))
+                        .build();
+                writer.append(t);
+                transactions.add(t);
+            }
+            for (DailySpend dailySpend : ROLLUP) {
+                writer.appendDailySpend(dailySpend);
+            }
+            writer.finish();
+        }
+        return transactions;
+    }
+}
@@ -0,0 +1,74 @@
+package com.example.transactionapi;
+
+import com.example.transactionapi.model.Category;
+import com.example.transactionapi.model.Customer;
+import com.example.transactionapi.model.Money;
+import com.example.transactionapi.model.Transaction;
+import com.example.transactionapi.service.cache.CachedSummary;
+import com.example.transactionapi.service.cache.SummaryCache;
+import com.example.transactionapi.service.cache.SummaryKey;
+import com.example.transactionapi.web.dto.TopSpender;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SummaryCacheTest {
+
+    private static final LocalDate JAN_1 = LocalDate.of(2025, 1, 1);
+    private static final LocalDate JAN_31 = LocalDate.of(2025, 1, 31);
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final SummaryCache cache = new SummaryCache(new ObjectMapper(), meterRegistry, 100, 300);
+    private final AtomicInteger loads = new AtomicInteger();
+
+    @Test
+    void testHitsReuseValueAndETag() {
+        CachedSummary<List<TopSpender>> first = cache.get(SummaryKey.topSpenders(1, null, null), this::load);
+        CachedSummary<List<TopSpender>> second = cache.get(SummaryKey.topSpenders(1, null, null), this::load);
+        assertThat(loads).hasValue(1);
+        assertThat(second.getEtag()).isEqualTo(first.getEtag()).startsWith("\"").endsWith("\"");
+        assertThat(meterRegistry.get("cache.gets").tag("cache", "summaries").tag("result", "hit").functionCounter().count())
+                .isEqualTo(1.0);
+    }
+
+    @Test
+    void testIngestEvictsOnlyAffectedEntries() {
+        SummaryKey customerOneJanuary = SummaryKey.customerSummary(1L, JAN_1, JAN_31);
+        SummaryKey customerTwoJanuary = SummaryKey.customerSummary(2L, JAN_1, JAN_31);
+        SummaryKey overallJanuary = SummaryKey.overallSummary(JAN_1, JAN_31);
+        SummaryKey overallFebruary = SummaryKey.overallSummary(JAN_31.plusDays(1), null);
+        for (SummaryKey key : List.of(customerOneJanuary, customerTwoJanuary, overallJanuary, overallFebruary)) {
+            cache.get(key, this::load);
+        }
+
+        cache.onBatchWritten(List.of(transaction(1L, JAN_1.plusDays(9))));
+
+        loads.set(0);
+        cache.get(customerTwoJanuary, this::load);
+        cache.get(overallFebruary, this::load);
+        assertThat(loads).hasValue(0);
+        cache.get(customerOneJanuary, this::load);
+        cache.get(overallJanuary, this::load);
+        assertThat(loads).hasValue(2);
+    }
+
+    private List<TopSpender> load() {
+        loads.incrementAndGet();
+        return List.of(new TopSpender(1L, Money.ofCents(12_345)));
+    }
+
+    private static Transaction transaction(long customerId, LocalDate day) {
+        return Transaction.builder()
+                .timestamp(day.atTime(12, 0))
+                .amount(Money.ofCents(100))
+                .category(Category.FOOD)
+                .customer(Customer.builder().id(customerId).build())
+                .build();
+    }
+}
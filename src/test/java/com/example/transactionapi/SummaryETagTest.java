@@ -0,0 +1,78 @@
+package com.example.transactionapi;
+
+import com.example.transactionapi.model.AppUser;
+import com.example.transactionapi.model.Category;
+import com.example.transactionapi.model.Customer;
+import com.example.transactionapi.model.Money;
+import com.example.transactionapi.model.Role;
+import com.example.transactionapi.model.Transaction;
+import com.example.transactionapi.service.ingest.TransactionBatchWriter;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.user;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * A summary request revalidated with a matching {@code If-None-Match} gets
+ * 304 and no body, until a batch for that customer and period changes the
+ * summary and with it the ETag.
+ */
+@SpringBootTest(properties = "spring.datasource.url=jdbc:h2:mem:summary-etag;DB_CLOSE_DELAY=-1;DB_CLOSE_ON_EXIT=FALSE")
+@AutoConfigureMockMvc
+class SummaryETagTest {
+
+    private static final AppUser CUSTOMER = AppUser.builder()
+            .id(1L).username("customer").password("unused").role(Role.ROLE_USER).build();
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private TransactionBatchWriter batchWriter;
+
+    @Test
+    void testMatchingETagIsNotModifiedUntilABatchChangesTheSummary() throws Exception {
+        String etag = mockMvc.perform(summary())
+                .andExpect(status().isOk())
+                .andExpect(header().exists(HttpHeaders.ETAG))
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+        mockMvc.perform(summary().header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isNotModified())
+                .andExpect(content().string(""));
+
+        batchWriter.write(List.of(Transaction.builder()
+                .externalId("ETAG-1")
+                .timestamp(LocalDateTime.of(2031, 1, 10, 9, 0))
+                .description("Lunch")
+                .amount(Money.ofCents(1_250))
+                .category(Category.FOOD)
+                .customer(Customer.builder().id(1L).build())
+                .build()));
+
+        String changed = mockMvc.perform(summary().header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+        assertThat(changed).isNotEqualTo(etag);
+    }
+
+    private static MockHttpServletRequestBuilder summary() {
+        return get("/api/v1/customers/1/summary")
+                .param("from", "2031-01-01")
+                .param("to", "2031-01-31")
+                .with(user(CUSTOMER));
+    }
+}
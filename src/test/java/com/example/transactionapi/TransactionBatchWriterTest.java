@@ -0,0 +1,99 @@
+package com.example.transactionapi;
+
+import com.example.transactionapi.model.Category;
+import com.example.transactionapi.model.Customer;
+import com.example.transactionapi.model.Money;
+import com.example.transactionapi.model.Transaction;
+import com.example.transactionapi.repository.TransactionRepository;
+import com.example.transactionapi.service.cache.SummaryCache;
+import com.example.transactionapi.service.ingest.TransactionBatchWriter;
+import com.example.transactionapi.service.rollup.DailySpendRollup;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.SpyBean;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.doCallRealMethod;
+import static org.mockito.Mockito.doThrow;
+
+/**
+ * The rollup merge runs in the transaction that inserts the batch, so a batch
+ * is either stored and rolled up or not stored at all. Listeners notified
+ * after the commit cannot fail a write whose rows are already stored.
+ */
+@SpringBootTest(properties = "spring.datasource.url=jdbc:h2:mem:batch-writer;DB_CLOSE_DELAY=-1;DB_CLOSE_ON_EXIT=FALSE")
+class TransactionBatchWriterTest {
+
+    private static final String ROLLUP_TOTAL_SQL = "SELECT COALESCE(SUM(total_cents), 0) FROM daily_spend";
+
+    @Autowired
+    private TransactionBatchWriter batchWriter;
+
+    @Autowired
+    private TransactionRepository transactionRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @SpyBean
+    private DailySpendRollup rollup;
+
+    @SpyBean
+    private SummaryCache summaryCache;
+
+    @Test
+    void testFailedRollupRollsBackTheInsert() {
+        long rows = transactionRepository.count();
+        long rolledUp = jdbcTemplate.queryForObject(ROLLUP_TOTAL_SQL, Long.class);
+        doThrow(new IllegalStateException("rollup failed")).when(rollup).onBatchInserted(anyList());
+        try {
+            assertThatThrownBy(() -> batchWriter.write(List.of(transaction("ATOMIC-1"), transaction("ATOMIC-2"))))
+                    .hasMessage("rollup failed");
+        } finally {
+            doCallRealMethod().when(rollup).onBatchInserted(anyList());
+        }
+
+        assertThat(transactionRepository.count()).isEqualTo(rows);
+        assertThat(jdbcTemplate.queryForObject(ROLLUP_TOTAL_SQL, Long.class)).isEqualTo(rolledUp);
+    }
+
+    @Test
+    void testWrittenBatchIsRolledUp() {
+        long rolledUp = jdbcTemplate.queryForObject(ROLLUP_TOTAL_SQL, Long.class);
+
+        batchWriter.write(List.of(transaction("ATOMIC-3")));
+
+        assertThat(jdbcTemplate.queryForObject(ROLLUP_TOTAL_SQL, Long.class)).isEqualTo(rolledUp + 1_250);
+    }
+
+    @Test
+    void testPostCommitListenerFailureDoesNotFailTheWrite() {
+        long rows = transactionRepository.count();
+        doThrow(new IllegalStateException("cache failed")).when(summaryCache).onBatchWritten(anyList());
+        try {
+            batchWriter.write(List.of(transaction("ATOMIC-4")));
+        } finally {
+            doCallRealMethod().when(summaryCache).onBatchWritten(anyList());
+        }
+
+        assertThat(transactionRepository.count()).isEqualTo(rows + 1);
+    }
+
+    private static Transaction transaction(String externalId) {
+        return Transaction.builder()
+                .externalId(externalId)
+                .timestamp(LocalDateTime.of(2025, 7, 1, 12, 0))
+                .description("Lunch")
+                .amount(Money.ofCents(1_250))
+                .category(Category.FOOD)
+                .customer(Customer.builder().id(1L).build())
+                .build();
+    }
+}
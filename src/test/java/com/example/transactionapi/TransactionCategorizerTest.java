@@ -0,0 +1,32 @@
+package com.example.transactionapi;
+
+import com.example.transactionapi.model.Category;
+import com.example.transactionapi.service.categorization.KeywordTransactionCategorizer;
+import com.example.transactionapi.service.categorization.TransactionCategorizer;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TransactionCategorizerTest {
+
+    private final TransactionCategorizer categorizer = new KeywordTransactionCategorizer();
+
+    @Test
+    void testMerchantCategoryCodeTakesPriority() {
+        assertThat(categorizer.categorize("Taxi ride", "Uber", "4121")).isEqualTo(Category.TRANSPORT);
+        assertThat(categorizer.categorize("Pharmacy purchase", "Dis-Chem", "5912")).isEqualTo(Category.HEALTHCARE);
+        assertThat(categorizer.categorize("Online course", "Udemy", "8299")).isEqualTo(Category.EDUCATION);
+    }
+
+    @Test
+    void testLongestKeywordWins() {
+        assertThat(categorizer.categorize("Shell gas station", "Shell", "")).isEqualTo(Category.TRANSPORT);
+        assertThat(categorizer.categorize("Gas bill", "Egoli Gas", "0000")).isEqualTo(Category.UTILITIES);
+    }
+
+    @Test
+    void testKeywordsMustStartAtWordBoundary() {
+        assertThat(categorizer.categorize("Car repair", "Unknown", "")).isEqualTo(Category.OTHER);
+        assertThat(categorizer.categorize("SALARY payment", "Employer", null)).isEqualTo(Category.INCOME);
+    }
+}
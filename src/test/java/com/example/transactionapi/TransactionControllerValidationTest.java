@@ -0,0 +1,46 @@
+package com.example.transactionapi;
+
+import com.example.transactionapi.model.AppUser;
+import com.example.transactionapi.model.Role;
+import com.example.transactionapi.service.TransactionService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.user;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * The {@code @Min}/{@code @Max} bounds on request parameters are enforced and
+ * a value outside them is answered with 400.
+ */
+@SpringBootTest(properties = "spring.datasource.url=jdbc:h2:mem:controller-validation;DB_CLOSE_DELAY=-1;DB_CLOSE_ON_EXIT=FALSE")
+@AutoConfigureMockMvc
+class TransactionControllerValidationTest {
+
+    private static final AppUser ADMIN = AppUser.builder()
+            .id(1L).username("admin").password("unused").role(Role.ROLE_ADMIN).build();
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Test
+    void testPageLimitOutOfRangeIsRejected() throws Exception {
+        mockMvc.perform(get("/api/v1/customers/1/transactions").param("limit", "0").with(user(ADMIN)))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(get("/api/v1/customers/1/transactions")
+                        .param("limit", String.valueOf(TransactionService.MAX_PAGE_SIZE + 1)).with(user(ADMIN)))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(get("/api/v1/customers/1/transactions").param("limit", "10").with(user(ADMIN)))
+                .andExpect(status().isOk());
+    }
+
+    @Test
+    void testNonPositiveCountIsRejected() throws Exception {
+        mockMvc.perform(get("/api/v1/customers/top-spenders").param("count", "0").with(user(ADMIN)))
+                .andExpect(status().isBadRequest());
+    }
+}
@@ -0,0 +1,86 @@
+package com.example.transactionapi;
+
+import com.example.transactionapi.model.Category;
+import com.example.transactionapi.model.Money;
+import com.example.transactionapi.service.ingest.TransactionCsvReader;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.channels.Channels;
+import java.nio.charset.StandardCharsets;
+import java.time.DateTimeException;
+import java.time.LocalDateTime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class TransactionCsvReaderTest {
+
+    private static final String HEADER = "externalId,customerName,customerEmail,timestamp,description,merchant,mcc,amount,category\n";
+
+    private static TransactionCsvReader reader(String csv, int bufferSize) throws IOException {
+        return new TransactionCsvReader(Channels.newChannel(
+                new ByteArrayInputStream(csv.getBytes(StandardCharsets.UTF_8))), bufferSize);
+    }
+
+    @Test
+    void testParsesTypedFields() throws IOException {
+        try (TransactionCsvReader reader = reader(HEADER
+                + "TXN1, John Doe ,john@example.com,2025-01-02 10:15:00,Grocery shopping,Woolworths,5411,450.75,food\n", 1024)) {
+            assertThat(reader.next()).isTrue();
+            assertThat(reader.getString(TransactionCsvReader.CUSTOMER_NAME)).isEqualTo("John Doe");
+            assertThat(reader.getTimestamp(TransactionCsvReader.TIMESTAMP)).isEqualTo(LocalDateTime.of(2025, 1, 2, 10, 15));
+            assertThat(reader.getDecimal(TransactionCsvReader.AMOUNT)).isEqualTo(new BigDecimal("450.75"));
+            assertThat(reader.getMoney(TransactionCsvReader.AMOUNT)).isEqualTo(Money.ofCents(45075));
+            assertThat(reader.getCategory(TransactionCsvReader.CATEGORY)).isEqualTo(Category.FOOD);
+            assertThat(reader.next()).isFalse();
+        }
+    }
+
+    @Test
+    void testHandlesQuotedFieldsAcrossBufferRefills() throws IOException {
+        String csv = HEADER
+                + "TXN1,Jane,jane@example.com,2025-01-03 11:15:00,\"Coffee, cake\",\"The \"\"Bean\"\"\",5814,-12.5,\r\n"
+                + "\n"
+                + "TXN2,Jane,jane@example.com,2025-01-04 11:15:00,\"Two\nlines\",Shop,5411,3,";
+        try (TransactionCsvReader reader = reader(csv, 64)) {
+            assertThat(reader.next()).isTrue();
+            assertThat(reader.getString(TransactionCsvReader.DESCRIPTION)).isEqualTo("Coffee, cake");
+            assertThat(reader.getString(TransactionCsvReader.MERCHANT)).isEqualTo("The \"Bean\"");
+            assertThat(reader.getDecimal(TransactionCsvReader.AMOUNT)).isEqualTo(new BigDecimal("-12.5"));
+            assertThat(reader.getMoney(TransactionCsvReader.AMOUNT)).isEqualTo(Money.ofCents(-1250));
+            assertThat(reader.getCategory(TransactionCsvReader.CATEGORY)).isNull();
+            assertThat(reader.next()).isTrue();
+            assertThat(reader.getString(TransactionCsvReader.EXTERNAL_ID)).isEqualTo("TXN2");
+            assertThat(reader.getString(TransactionCsvReader.DESCRIPTION)).isEqualTo("Two\nlines");
+            assertThat(reader.getDecimal(TransactionCsvReader.AMOUNT)).isEqualTo(new BigDecimal("3"));
+            assertThat(reader.getMoney(TransactionCsvReader.AMOUNT)).isEqualTo(Money.ofCents(300));
+            assertThat(reader.next()).isFalse();
+        }
+    }
+
+    @Test
+    void testAcceptsExponentNotation() throws IOException {
+        try (TransactionCsvReader reader = reader(HEADER
+                + "TXN1,A,a@example.com,2025-01-02 10:15:00,x,y,1,1.2505E+3,\n"
+                + "TXN2,A,a@example.com,2025-01-02 10:15:00,x,y,1,-45e-1,\n", 1024)) {
+            assertThat(reader.next()).isTrue();
+            assertThat(reader.getDecimal(TransactionCsvReader.AMOUNT)).isEqualTo(new BigDecimal("1.2505E+3"));
+            assertThat(reader.getMoney(TransactionCsvReader.AMOUNT)).isEqualTo(Money.ofCents(125050));
+            assertThat(reader.next()).isTrue();
+            assertThat(reader.getMoney(TransactionCsvReader.AMOUNT)).isEqualTo(Money.ofCents(-450));
+        }
+    }
+
+    @Test
+    void testRejectsMalformedValues() throws IOException {
+        try (TransactionCsvReader reader = reader(HEADER + "TXN1,A,a@example.com,2025-13-02 10:15:00,x,y,1,12a,\n", 1024)) {
+            assertThat(reader.next()).isTrue();
+            assertThatThrownBy(() -> reader.getTimestamp(TransactionCsvReader.TIMESTAMP)).isInstanceOf(DateTimeException.class);
+            assertThatThrownBy(() -> reader.getDecimal(TransactionCsvReader.AMOUNT)).isInstanceOf(NumberFormatException.class);
+            assertThatThrownBy(() -> reader.getMoney(TransactionCsvReader.AMOUNT)).isInstanceOf(NumberFormatException.class);
+        }
+    }
+}
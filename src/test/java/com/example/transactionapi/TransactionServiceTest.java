@@ -1,12 +1,27 @@
 package com.example.transactionapi;
 
+import com.example.transactionapi.model.Money;
+import com.example.transactionapi.model.Transaction;
+import com.example.transactionapi.repository.TransactionRepository;
+import com.example.transactionapi.service.TransactionCursor;
 import com.example.transactionapi.service.TransactionService;
+import com.example.transactionapi.service.rollup.TrendGranularity;
 import com.example.transactionapi.web.dto.CustomerSummary;
+import com.example.transactionapi.web.dto.OverallSummary;
+import com.example.transactionapi.web.dto.SpendTrend;
+import com.example.transactionapi.web.dto.TopSpender;
+import com.example.transactionapi.web.dto.TransactionPage;
+import com.example.transactionapi.web.dto.TransactionView;
+import com.example.transactionapi.web.dto.TrendBucket;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
 
-import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
 
 import static org.assertj.core.api.Assertions.assertThat;
 
@@ -16,11 +31,91 @@ class TransactionServiceTest {
     @Autowired
     private TransactionService transactionService;
 
+    @Autowired
+    private TransactionRepository transactionRepository;
+
     @Test
     void testCustomerSummary() {
         // Customer 1 (id 1) should have non-zero spend after data load.
         CustomerSummary summary = transactionService.getCustomerSummary(1L, null, null);
-        assertThat(summary.getTotalSpent()).isGreaterThan(BigDecimal.ZERO);
+        assertThat(summary.getTotalSpent()).isGreaterThan(Money.ZERO);
         assertThat(summary.getBreakdown()).isNotEmpty();
     }
-}
\ No newline at end of file
+
+    @Test
+    void testRollupMatchesRawTransactions() {
+        // The daily rollup must agree with a direct sum over the raw rows.
+        LocalDate from = LocalDate.of(2025, 1, 5);
+        LocalDate to = LocalDate.of(2025, 3, 1);
+        Money expected = transactionRepository.findAll().stream()
+                .filter(t -> !t.getTimestamp().toLocalDate().isBefore(from) && !t.getTimestamp().toLocalDate().isAfter(to))
+                .map(Transaction::getAmount)
+                .reduce(Money.ZERO, Money::plus);
+        OverallSummary summary = transactionService.getOverallSummary(from, to);
+        assertThat(summary.getTotalSpent()).isEqualTo(expected);
+    }
+
+    @Test
+    void testTopSpendersAreLimitedAndOrdered() {
+        List<TopSpender> top = transactionService.getTopSpenders(2, null, null);
+        assertThat(top).hasSize(2);
+        assertThat(top.get(0).getTotalSpent()).isGreaterThanOrEqualTo(top.get(1).getTotalSpent());
+        assertThat(top.get(0).getTotalSpent())
+                .isEqualTo(transactionService.getCustomerSummary(top.get(0).getCustomerId(), null, null).getTotalSpent());
+    }
+
+    @Test
+    void testBulkSummariesMatchSingleSummaries() {
+        LocalDate from = LocalDate.of(2025, 1, 5);
+        LocalDate to = LocalDate.of(2025, 3, 1);
+        List<CustomerSummary> summaries = transactionService.getCustomerSummaries(List.of(3L, 1L, 999_999L, 3L, 2L), from, to);
+        // Unknown and repeated ids are skipped; the rest keep the requested order
+        assertThat(summaries).extracting(CustomerSummary::getCustomerId).containsExactly(3L, 1L, 2L);
+        for (CustomerSummary summary : summaries) {
+            CustomerSummary single = transactionService.getCustomerSummary(summary.getCustomerId(), from, to);
+            assertThat(summary.getTotalSpent()).isEqualTo(single.getTotalSpent());
+            assertThat(summary.getTopCategory()).isEqualTo(single.getTopCategory());
+            assertThat(summary.getBreakdown()).containsExactlyElementsOf(single.getBreakdown());
+            assertThat(summary.getPeriodDescription()).isEqualTo(single.getPeriodDescription());
+        }
+    }
+
+    @Test
+    void testTrendBucketsMatchSummariesOverTheirDays() {
+        LocalDate from = LocalDate.of(2025, 1, 5);
+        LocalDate to = LocalDate.of(2025, 3, 20);
+        for (TrendGranularity granularity : TrendGranularity.values()) {
+            for (Long customerId : Arrays.asList(1L, null)) {
+                SpendTrend trend = transactionService.getSpendTrend(customerId, granularity, from, to);
+                assertThat(trend.getBuckets()).isNotEmpty();
+                assertThat(trend.getBuckets().get(0).getFrom()).isEqualTo(from);
+                assertThat(trend.getBuckets().get(trend.getBuckets().size() - 1).getTo()).isEqualTo(to);
+                for (TrendBucket bucket : trend.getBuckets()) {
+                    Money expected = customerId != null
+                            ? transactionService.getCustomerSummary(customerId, bucket.getFrom(), bucket.getTo()).getTotalSpent()
+                            : transactionService.getOverallSummary(bucket.getFrom(), bucket.getTo()).getTotalSpent();
+                    assertThat(bucket.getTotalSpent()).isEqualTo(expected);
+                }
+                Money total = customerId != null
+                        ? transactionService.getCustomerSummary(customerId, from, to).getTotalSpent()
+                        : transactionService.getOverallSummary(from, to).getTotalSpent();
+                assertThat(trend.getTotalSpent()).isEqualTo(total);
+            }
+        }
+    }
+
+    @Test
+    void testTransactionPagesFollowCursorInOrder() {
+        List<TransactionView> seen = new ArrayList<>();
+        TransactionCursor cursor = null;
+        do {
+            TransactionPage page = transactionService.getTransactionPage(1L, null, null, cursor, 3);
+            assertThat(page.getItems()).hasSizeLessThanOrEqualTo(3);
+            seen.addAll(page.getItems());
+            cursor = page.getNextCursor() != null ? TransactionCursor.decode(page.getNextCursor()) : null;
+        } while (cursor != null);
+        assertThat(seen).hasSize(10);
+        assertThat(seen).isSortedAccordingTo(Comparator.comparing(TransactionView::getTimestamp)
+                .thenComparing(TransactionView::getId));
+    }
+}